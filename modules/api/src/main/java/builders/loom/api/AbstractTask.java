@@ -25,7 +25,7 @@ import org.slf4j.LoggerFactory;
 import builders.loom.api.product.Product;
 
 public abstract class AbstractTask implements Task,
-    ProductDependenciesAware {
+    ProductDependenciesAware, FileTreeSnapshotAware {
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
     protected final Logger log = LoggerFactory.getLogger(getClass());
@@ -34,6 +34,7 @@ public abstract class AbstractTask implements Task,
     private BuildContext buildContext;
     private UsedProducts usedProducts;
     private ServiceRegistry serviceRegistry;
+    private FileTreeSnapshotService fileTreeSnapshotService;
 
     public RuntimeConfiguration getRuntimeConfiguration() {
         return runtimeConfiguration;
@@ -71,6 +72,15 @@ public abstract class AbstractTask implements Task,
         return usedProducts;
     }
 
+    @Override
+    public void setFileTreeSnapshotService(final FileTreeSnapshotService fileTreeSnapshotService) {
+        this.fileTreeSnapshotService = fileTreeSnapshotService;
+    }
+
+    public FileTreeSnapshotService getFileTreeSnapshotService() {
+        return fileTreeSnapshotService;
+    }
+
     public <P extends Product> P requireProduct(final String productId, final Class<P> productClass)
         throws InterruptedException {
 
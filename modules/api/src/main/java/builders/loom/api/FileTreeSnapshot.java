@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.api;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * The regular files of a directory tree -- taken by the {@link FileTreeSnapshotService}.
+ */
+public interface FileTreeSnapshot {
+
+    Path getRootDir();
+
+    /**
+     * All regular files (symbolic links are not followed) -- resolved against the root
+     * directory and sorted by path. Empty if the root directory doesn't exist.
+     */
+    List<Path> getFiles();
+
+    /**
+     * The attributes of the given file at the time the snapshot was taken.
+     */
+    BasicFileAttributes getAttributes(Path file);
+
+    /**
+     * The (hex encoded) hash of the content of the given file -- calculated once.
+     */
+    String getContentHash(Path file);
+
+    /**
+     * Checksum of the contents and the relative paths of all files -- the same as
+     * {@code ProductChecksumUtil.recursiveContentChecksum(rootDir)}.
+     */
+    String getContentChecksum();
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.api;
+
+import java.nio.file.Path;
+
+/**
+ * Build-wide snapshots of directory trees -- each tree is walked (and each file hashed) only
+ * once per build, no matter how many tasks consume it.
+ * <p>
+ * Source and resource trees don't change during a build. Tasks producing a directory have to
+ * call {@link #update(Path)} after writing it.
+ */
+public interface FileTreeSnapshotService {
+
+    /**
+     * The snapshot of the given directory -- taken on first request.
+     */
+    FileTreeSnapshot snapshot(Path rootDir);
+
+    /**
+     * Takes a new snapshot of a directory written by the calling task.
+     */
+    FileTreeSnapshot update(Path rootDir);
+
+}
@@ -66,8 +66,20 @@ public enum JavaVersion {
         }
     }
 
+    /**
+     * The version of the running Java runtime -- fails for runtimes newer than the known
+     * versions, see {@link #currentNumericVersion()}.
+     */
     public static JavaVersion current() {
-        return ofVersion(Integer.toString(Runtime.version().major()));
+        return ofVersion(Integer.toString(currentNumericVersion()));
+    }
+
+    /**
+     * The (feature) version number of the running Java runtime -- unlike {@link #current()}
+     * also available for runtimes newer than the known versions.
+     */
+    public static int currentNumericVersion() {
+        return Runtime.version().major();
     }
 
 }
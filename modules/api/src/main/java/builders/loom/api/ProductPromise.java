@@ -21,7 +21,6 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,19 +36,12 @@ public final class ProductPromise {
 
     private final CompletableFuture<Optional<Product>> promise;
 
-    private long startTime;
-    private final AtomicLong completedAt = new AtomicLong();
     private TaskResult taskResult;
 
     public ProductPromise(final String moduleName, final String productId) {
         this.moduleName = Objects.requireNonNull(moduleName);
         this.productId = Objects.requireNonNull(productId);
         promise = new CompletableFuture<>();
-        promise.thenRun(() -> completedAt.set(System.nanoTime()));
-    }
-
-    public void startTimer() {
-        this.startTime = System.nanoTime();
     }
 
     public void complete(final TaskResult result) {
@@ -62,6 +54,22 @@ public final class ProductPromise {
         }
     }
 
+    /**
+     * Registers an action that is executed (by the completing thread) once the product
+     * has been completed. If the product is already completed, the action is executed
+     * immediately.
+     * <p>
+     * Exceptions thrown by the action are only logged -- an action has to handle failures
+     * relevant for the build itself.
+     */
+    public void whenCompleted(final Runnable action) {
+        Objects.requireNonNull(action, "action required");
+        promise.thenRun(action).exceptionally(e -> {
+            LOG.error("Action on completion of product <" + productId + "> failed", e);
+            return null;
+        });
+    }
+
     public String getModuleName() {
         return moduleName;
     }
@@ -74,6 +82,10 @@ public final class ProductPromise {
         return waitAndGet(promise);
     }
 
+    public boolean isCompleted() {
+        return promise.isDone();
+    }
+
     public Optional<Product> getWithoutWait() {
         return promise.getNow(Optional.empty());
     }
@@ -92,14 +104,6 @@ public final class ProductPromise {
         }
     }
 
-    public long getStartTime() {
-        return startTime;
-    }
-
-    public long getCompletedAt() {
-        return completedAt.get();
-    }
-
     public TaskStatus getTaskStatus() {
         if (taskResult == null) {
             throw new IllegalStateException("taskResult is null");
@@ -107,41 +111,4 @@ public final class ProductPromise {
         return taskResult.getStatus();
     }
 
-    public CompletedProductReport buildReport() {
-        return new CompletedProductReport(productId, getTaskStatus(), startTime, completedAt.get());
-    }
-
-    public static final class CompletedProductReport {
-
-        private final String productId;
-        private final TaskStatus taskStatus;
-        private final long startTime;
-        private final long completedAt;
-
-        CompletedProductReport(final String productId, final TaskStatus taskStatus,
-            final long startTime, final long completedAt) {
-            this.productId = productId;
-            this.taskStatus = taskStatus;
-            this.startTime = startTime;
-            this.completedAt = completedAt;
-        }
-
-        public String getProductId() {
-            return productId;
-        }
-
-        public TaskStatus getTaskStatus() {
-            return taskStatus;
-        }
-
-        public long getStartTime() {
-            return startTime;
-        }
-
-        public long getCompletedAt() {
-            return completedAt;
-        }
-
-    }
-
 }
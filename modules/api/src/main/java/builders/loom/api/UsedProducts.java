@@ -16,11 +16,16 @@
 
 package builders.loom.api;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,14 +38,23 @@ import builders.loom.api.product.Product;
 public class UsedProducts {
 
     private static final Logger LOG = LoggerFactory.getLogger(UsedProducts.class);
+    private static final long NANO_MILLI = 1_000_000;
 
     private final String selfModuleName;
     private final Set<ProductPromise> productPromises;
-    private final Set<ProductPromise> actuallyWaitedForProducts = new CopyOnWriteArraySet<>();
+    private final Map<String, Map<String, ProductPromise>> productPromiseIndex = new HashMap<>();
+    private final AtomicLong blockedTime = new AtomicLong();
+    private final Queue<ProductWait> productWaits = new ConcurrentLinkedQueue<>();
 
     public UsedProducts(final String selfModuleName, final Set<ProductPromise> productPromises) {
         this.selfModuleName = selfModuleName;
         this.productPromises = productPromises;
+
+        for (final ProductPromise productPromise : productPromises) {
+            productPromiseIndex
+                .computeIfAbsent(productPromise.getModuleName(), (m) -> new HashMap<>())
+                .put(productPromise.getProductId(), productPromise);
+        }
     }
 
     public <T extends Product> Optional<T> readProduct(final String productId, final Class<T> clazz)
@@ -56,14 +70,7 @@ public class UsedProducts {
         Objects.requireNonNull(productId);
         Objects.requireNonNull(clazz);
 
-        final long start = System.nanoTime();
-
-        final Optional<Product> value = getAndWaitProduct(moduleName, productId);
-
-        final long timeElapsed = (System.nanoTime() - start) / 1_000_000;
-        LOG.debug("Blocked for {}ms waiting for product <{}>", timeElapsed, productId);
-
-        return value.map(clazz::cast);
+        return getAndWaitProduct(moduleName, productId).map(clazz::cast);
     }
 
     public void waitForOptionalProduct(final String productId) throws InterruptedException {
@@ -71,9 +78,7 @@ public class UsedProducts {
             lookupProductPromise(selfModuleName, productId);
 
         if (optProductPromise.isPresent()) {
-            final ProductPromise productPromise = optProductPromise.get();
-            actuallyWaitedForProducts.add(productPromise);
-            productPromise.getAndWaitForProduct();
+            waitFor(optProductPromise.get());
         }
     }
 
@@ -90,27 +95,92 @@ public class UsedProducts {
                 String.format("No access to product <%s> of module <%s>",
                     productId, moduleName)));
 
-        actuallyWaitedForProducts.add(productPromise);
+        return waitFor(productPromise);
+    }
+
+    private Optional<Product> waitFor(final ProductPromise productPromise)
+        throws InterruptedException {
+
+        final long start = System.nanoTime();
+
+        final Optional<Product> value = awaitProduct(productPromise);
+
+        final long end = System.nanoTime();
+        final long timeElapsed = end - start;
+        blockedTime.addAndGet(timeElapsed);
+        productWaits.add(new ProductWait(productPromise.getModuleName(),
+            productPromise.getProductId(), start, end));
+        LOG.debug("Blocked for {}ms waiting for product <{}>", timeElapsed / NANO_MILLI,
+            productPromise.getProductId());
+
+        return value;
+    }
+
+    /**
+     * Blocks until the product of the given promise is available -- hook for instrumentation.
+     */
+    protected Optional<Product> awaitProduct(final ProductPromise productPromise)
+        throws InterruptedException {
+
         return productPromise.getAndWaitForProduct();
     }
 
     private Optional<ProductPromise> lookupProductPromise(final String moduleName,
                                                           final String productId) {
-        return productPromises.stream()
-            .filter(pp -> pp.getModuleName().equals(moduleName)
-                && pp.getProductId().equals(productId))
-            .findFirst();
+        return Optional.ofNullable(productPromiseIndex
+            .getOrDefault(moduleName, Map.of())
+            .get(productId));
     }
 
     public Set<ProductPromise> getAllProducts() {
         return Collections.unmodifiableSet(productPromises);
     }
 
+    /**
+     * Total time (in nanoseconds) spent waiting for products.
+     */
+    public long getBlockedTime() {
+        return blockedTime.get();
+    }
+
     /**
      * Value is only useful after tasks have been running.
      */
-    public Set<ProductPromise> getActuallyUsedProducts() {
-        return Collections.unmodifiableSet(actuallyWaitedForProducts);
+    public Collection<ProductWait> getProductWaits() {
+        return Collections.unmodifiableCollection(productWaits);
+    }
+
+    public static final class ProductWait {
+
+        private final String moduleName;
+        private final String productId;
+        private final long startTime;
+        private final long endTime;
+
+        ProductWait(final String moduleName, final String productId, final long startTime,
+                    final long endTime) {
+            this.moduleName = moduleName;
+            this.productId = productId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public String getModuleName() {
+            return moduleName;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
     }
 
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cacheserver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal HTTP build cache server -- stores the bodies of PUT requests as files and serves
+ * them on GET requests. Stands in for a real cache backend in tests and small setups.
+ * <p>
+ * The server doesn't authenticate requests, so it listens on the loopback interface unless
+ * another bind address is given.
+ * <p>
+ * Usage: {@code java -jar loom-cache-server.jar <port> <storage-dir> [<bind-address>]}
+ */
+public final class CacheServer implements AutoCloseable {
+
+    private static final int OK = 200;
+    private static final int CREATED = 201;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int THREADS = 4;
+    private static final int BIND_ADDRESS_ARG = 2;
+
+    private final Path storageDir;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private volatile long responseDelay;
+
+    public CacheServer(final int port, final Path storageDir) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, storageDir);
+    }
+
+    public CacheServer(final InetAddress bindAddress, final int port, final Path storageDir)
+        throws IOException {
+        this.storageDir = storageDir.toAbsolutePath().normalize();
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    @SuppressWarnings({"checkstyle:uncommentedmain", "checkstyle:regexpmultiline"})
+    public static void main(final String[] args) throws IOException {
+        if (args.length < BIND_ADDRESS_ARG || args.length > BIND_ADDRESS_ARG + 1) {
+            System.err.println("Usage: java -jar loom-cache-server.jar <port> <storage-dir> "
+                + "[<bind-address>]");
+            System.exit(1);
+        }
+
+        final InetAddress bindAddress = args.length > BIND_ADDRESS_ARG
+            ? InetAddress.getByName(args[BIND_ADDRESS_ARG]) : InetAddress.getLoopbackAddress();
+
+        final CacheServer cacheServer =
+            new CacheServer(bindAddress, Integer.parseInt(args[0]), Paths.get(args[1]));
+        cacheServer.start();
+        System.out.println("Loom cache server listening on " + cacheServer.getUri());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * The URI of the server on this host.
+     */
+    public URI getUri() {
+        final InetSocketAddress address = server.getAddress();
+        final String host = address.getAddress().isAnyLocalAddress()
+            ? "localhost" : address.getAddress().getHostAddress();
+        try {
+            return new URI("http", null, host, address.getPort(), "/", null, null);
+        } catch (final URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Delays every response -- for testing clients against a slow cache.
+     */
+    public void setResponseDelay(final long millis) {
+        responseDelay = millis;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            delay();
+
+            final Path file = resolve(exchange.getRequestURI().getPath());
+            if (file == null) {
+                exchange.sendResponseHeaders(BAD_REQUEST, -1);
+                return;
+            }
+
+            switch (exchange.getRequestMethod()) {
+                case "GET":
+                    get(exchange, file);
+                    break;
+                case "PUT":
+                    put(exchange, file);
+                    break;
+                default:
+                    exchange.sendResponseHeaders(METHOD_NOT_ALLOWED, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        if (responseDelay > 0) {
+            try {
+                Thread.sleep(responseDelay);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // keys must not escape the storage dir
+    private Path resolve(final String requestPath) {
+        final Path file = storageDir.resolve(requestPath.replaceFirst("^/+", "")).normalize();
+        return file.startsWith(storageDir) && !file.equals(storageDir) ? file : null;
+    }
+
+    private static void get(final HttpExchange exchange, final Path file) throws IOException {
+        // drain the (empty) request body -- the connection isn't kept alive otherwise
+        exchange.getRequestBody().close();
+
+        if (!Files.isRegularFile(file)) {
+            exchange.sendResponseHeaders(NOT_FOUND, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(OK, Files.size(file));
+        try (final OutputStream out = exchange.getResponseBody()) {
+            Files.copy(file, out);
+        }
+    }
+
+    private static void put(final HttpExchange exchange, final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path tmpFile = Files.createTempFile(file.getParent(),
+            file.getFileName().toString(), ".tmp");
+
+        try (final InputStream in = exchange.getRequestBody()) {
+            Files.copy(in, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+
+        exchange.sendResponseHeaders(CREATED, -1);
+    }
+
+}
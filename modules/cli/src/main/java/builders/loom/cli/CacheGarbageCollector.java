@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.fusesource.jansi.Ansi;
+import org.fusesource.jansi.AnsiConsole;
+
+import builders.loom.core.CacheManager;
+
+/**
+ * Collects the garbage of the project caches -- on request (--gc-cache) or after a build, if
+ * the last collection is more than a day ago.
+ */
+final class CacheGarbageCollector {
+
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private CacheGarbageCollector() {
+    }
+
+    static void collect(final Path projectBaseDir) throws IOException {
+        final FileLock lock = FileLockUtil.lock(FileLockUtil.lockFile(projectBaseDir));
+        try (lock) {
+            AnsiConsole.out().print(Ansi.ansi().a("Collecting cache garbage..."));
+            final long freed = new CacheManager(projectBaseDir).collect();
+            AnsiConsole.out().println(Ansi.ansi().a(" ").fgBrightGreen()
+                .format("%.1f MB freed", freed / BYTES_PER_MEGABYTE).reset());
+        }
+    }
+
+    /**
+     * Collects the garbage of the caches if the last collection is more than a day ago --
+     * silently skipped if another build is running.
+     */
+    @SuppressWarnings("checkstyle:illegalcatch")
+    static void collectIfDue(final Path projectBaseDir) {
+        try {
+            final CacheManager cacheManager = new CacheManager(projectBaseDir);
+            if (cacheManager.isCollectionDue()) {
+                collectUnlessLocked(projectBaseDir, cacheManager);
+            }
+        } catch (final Exception e) {
+            OriginalStreams.getErr().println("Cache garbage collection failed: " + e);
+        }
+    }
+
+    private static void collectUnlessLocked(final Path projectBaseDir,
+                                            final CacheManager cacheManager) throws IOException {
+        final Optional<FileLock> lock =
+            FileLockUtil.tryLock(FileLockUtil.lockFile(projectBaseDir));
+        if (lock.isPresent()) {
+            final FileLock fileLock = lock.get();
+            try (fileLock) {
+                cacheManager.collect();
+            }
+        }
+    }
+
+}
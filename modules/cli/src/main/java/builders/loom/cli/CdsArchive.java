@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.fusesource.jansi.Ansi;
+import org.fusesource.jansi.AnsiConsole;
+
+import builders.loom.api.JavaVersion;
+import builders.loom.core.LoomVersion;
+import builders.loom.util.SystemUtil;
+
+/**
+ * Application Class Data Sharing archive of the classes Loom loads during a build (including
+ * the classes of plugins and services) -- shortens the startup of subsequent JVMs.
+ * <p>
+ * The archive is created by a training run with {@code -XX:ArchiveClassesAtExit} (requires
+ * Java 13 or later) and is picked up by the launcher scripts and the daemon.
+ */
+final class CdsArchive {
+
+    private static final int MIN_JAVA_VERSION = 13;
+
+    private CdsArchive() {
+    }
+
+    /**
+     * The archive file -- shared by all projects using the same Loom version.
+     * Has to be in sync with the launcher scripts.
+     */
+    static Path archiveFile() {
+        return SystemUtil.determineLoomBaseDir().resolve(
+            Paths.get("library", "loom-" + LoomVersion.getVersion(), "loom.jsa"));
+    }
+
+    static Optional<String> vmOption() {
+        final Path archiveFile = archiveFile();
+        return Files.exists(archiveFile)
+            ? Optional.of("-XX:SharedArchiveFile=" + archiveFile)
+            : Optional.empty();
+    }
+
+    /**
+     * Creates the archive by running Loom in a new JVM.
+     *
+     * @param products the products to build during the training run -- if empty, the products
+     *                 are only listed (which initializes all configured plugins)
+     */
+    static void generate(final Path projectBaseDir, final List<String> products)
+        throws IOException, InterruptedException {
+
+        final int javaVersion = JavaVersion.currentNumericVersion();
+        if (javaVersion < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("Generating a class data sharing archive requires "
+                + "Java " + MIN_JAVA_VERSION + " or later (running on Java " + javaVersion + ")");
+        }
+
+        final Path archiveFile = archiveFile();
+        Files.createDirectories(archiveFile.getParent());
+        if (Files.exists(archiveFile)) {
+            // archives are created read-only
+            archiveFile.toFile().setWritable(true);
+            Files.delete(archiveFile);
+        }
+
+        AnsiConsole.out().println(Ansi.ansi().fgCyan()
+            .a("Generating class data sharing archive...").reset());
+
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + archiveFile);
+        command.add("-Dloom.project_dir=" + projectBaseDir);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Loom.class.getName());
+        if (products.isEmpty()) {
+            command.add("--products");
+        } else {
+            command.addAll(products);
+        }
+
+        final int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+
+        if (exitCode != 0 || Files.notExists(archiveFile)) {
+            throw new IllegalStateException("Generating class data sharing archive failed");
+        }
+
+        AnsiConsole.out().println(Ansi.ansi().a("Class data sharing archive written to ")
+            .bold().a(archiveFile).reset());
+    }
+
+}
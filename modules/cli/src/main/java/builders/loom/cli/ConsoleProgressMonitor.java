@@ -23,6 +23,7 @@ import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.fusesource.jansi.Ansi;
 import org.fusesource.jansi.AnsiConsole;
@@ -37,29 +38,35 @@ final class ConsoleProgressMonitor implements ProgressMonitor {
     private static final PrintStream OUT = AnsiConsole.out();
     private static final String[] UNITS = {"B", "KiB", "MiB"};
 
-    private static final AtomicInteger TASKS = new AtomicInteger();
-    private static final AtomicInteger COMPLETED_TASKS = new AtomicInteger();
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
 
-    private static final AtomicInteger DOWNLOADED_FILES = new AtomicInteger();
-    private static final AtomicLong DOWNLOADED_BYTES = new AtomicLong();
+    private final AtomicInteger downloadedFiles = new AtomicInteger();
+    private final AtomicLong downloadedBytes = new AtomicLong();
 
-    private static final AtomicLong TESTS_TOTAL = new AtomicLong();
-    private static final AtomicLong TESTS_SUCCESS = new AtomicLong();
-    private static final AtomicLong TESTS_ABORT = new AtomicLong();
-    private static final AtomicLong TESTS_SKIP = new AtomicLong();
-    private static final AtomicLong TESTS_FAIL = new AtomicLong();
-    private static final AtomicLong TESTS_ERROR = new AtomicLong();
+    private final AtomicLong testsTotal = new AtomicLong();
+    private final AtomicLong testsSuccess = new AtomicLong();
+    private final AtomicLong testsAbort = new AtomicLong();
+    private final AtomicLong testsSkip = new AtomicLong();
+    private final AtomicLong testsFail = new AtomicLong();
+    private final AtomicLong testsError = new AtomicLong();
 
-    private static final AtomicBoolean UPDATED_REQUIRED = new AtomicBoolean(false);
+    private final AtomicBoolean updateRequired = new AtomicBoolean(false);
 
-    private static final Timer TIMER = new Timer("ProgressMonitor", true);
+    private Timer timer;
 
+    // may be started again (continuous build)
     @Override
     public void start() {
-        TIMER.schedule(new TimerTask() {
+        Stream.of(tasks, completedTasks, downloadedFiles).forEach(c -> c.set(0));
+        Stream.of(downloadedBytes, testsTotal, testsSuccess, testsAbort, testsSkip, testsFail,
+            testsError).forEach(c -> c.set(0));
+
+        timer = new Timer("ProgressMonitor", true);
+        timer.schedule(new TimerTask() {
             @Override
             public void run() {
-                if (UPDATED_REQUIRED.getAndSet(false)) {
+                if (updateRequired.getAndSet(false)) {
                     update();
                 }
             }
@@ -69,81 +76,81 @@ final class ConsoleProgressMonitor implements ProgressMonitor {
     @Override
     public void setTasks(final int tasks) {
         OUT.println();
-        ConsoleProgressMonitor.TASKS.set(tasks);
-        UPDATED_REQUIRED.set(true);
+        this.tasks.set(tasks);
+        updateRequired.set(true);
     }
 
     @Override
     public void progress(final String jobName) {
-        COMPLETED_TASKS.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        completedTasks.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void progressDownloadedFiles(final String resourceName) {
-        DOWNLOADED_FILES.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        downloadedFiles.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void progressDownloadedBytes(final long bytes) {
-        DOWNLOADED_BYTES.addAndGet(bytes);
-        UPDATED_REQUIRED.set(true);
+        downloadedBytes.addAndGet(bytes);
+        updateRequired.set(true);
     }
 
     @Override
     public void testsTotal(final long tests) {
-        TESTS_TOTAL.set(tests);
-        UPDATED_REQUIRED.set(true);
+        testsTotal.set(tests);
+        updateRequired.set(true);
     }
 
     @Override
     public void testsAdd() {
-        TESTS_TOTAL.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsTotal.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void testSuccess() {
-        TESTS_SUCCESS.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsSuccess.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void testAbort() {
-        TESTS_ABORT.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsAbort.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void testSkip() {
-        TESTS_SKIP.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsSkip.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void testFail() {
-        TESTS_FAIL.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsFail.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void testError() {
-        TESTS_ERROR.incrementAndGet();
-        UPDATED_REQUIRED.set(true);
+        testsError.incrementAndGet();
+        updateRequired.set(true);
     }
 
     @Override
     public void stop() {
-        TIMER.cancel();
+        timer.cancel();
         update();
     }
 
-    private static void update() {
+    private void update() {
         final int progressBarLength = 25;
 
-        final int cpl = COMPLETED_TASKS.get();
-        final int taskCnt = TASKS.get();
+        final int cpl = completedTasks.get();
+        final int taskCnt = tasks.get();
 
         final int pct = 100 * cpl / taskCnt;
         final int progress = progressBarLength * cpl / taskCnt;
@@ -162,15 +169,15 @@ final class ConsoleProgressMonitor implements ProgressMonitor {
                 .format("] (%d%%) [%d/%d tasks completed]", pct, cpl, taskCnt);
         }
 
-        if (DOWNLOADED_FILES.intValue() > 0) {
+        if (downloadedFiles.intValue() > 0) {
             a.format(" (Downloaded: %d files | %s)",
-                DOWNLOADED_FILES.get(), formatBytes(DOWNLOADED_BYTES.get()));
+                downloadedFiles.get(), formatBytes(downloadedBytes.get()));
         }
 
-        if (TESTS_TOTAL.longValue() > 0) {
+        if (testsTotal.longValue() > 0) {
             a.render(" (Tests: %d | SU=%d SK=%d A=%d F=%d E=%d)",
-                TESTS_TOTAL.get(), TESTS_SUCCESS.get(), TESTS_SKIP.get(), TESTS_ABORT.get(),
-                TESTS_FAIL.get(), TESTS_ERROR.get());
+                testsTotal.get(), testsSuccess.get(), testsSkip.get(), testsAbort.get(),
+                testsFail.get(), testsError.get());
         }
 
         OUT.println(a.eraseLine(Ansi.Erase.FORWARD));
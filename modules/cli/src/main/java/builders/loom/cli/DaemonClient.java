@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.fusesource.jansi.Ansi;
+import org.fusesource.jansi.AnsiConsole;
+
+/**
+ * Thin client that executes a build within a (possibly newly started) {@link LoomDaemon}.
+ */
+final class DaemonClient {
+
+    private static final long STARTUP_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final long STARTUP_POLL_INTERVAL = 50;
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Runs the build within the daemon -- the daemon is started if it isn't running already.
+     *
+     * @return the exit code of the build
+     */
+    static int build(final Path projectBaseDir, final String[] args, final boolean interactive)
+        throws IOException, InterruptedException {
+
+        final Optional<Socket> runningDaemon = connect(projectBaseDir);
+
+        try (Socket socket = runningDaemon.isPresent()
+            ? runningDaemon.get()
+            : startDaemon(projectBaseDir)) {
+
+            return send(socket, DaemonProtocol.CMD_BUILD, args, interactive);
+        }
+    }
+
+    static void stop(final Path projectBaseDir) throws IOException {
+        final Optional<Socket> runningDaemon = connect(projectBaseDir);
+        if (!runningDaemon.isPresent()) {
+            AnsiConsole.out().println("No daemon running");
+            return;
+        }
+
+        try (Socket socket = runningDaemon.get()) {
+            send(socket, DaemonProtocol.CMD_STOP, new String[0], false);
+        }
+
+        AnsiConsole.out().println(Ansi.ansi().a("Daemon ").fgBrightGreen().a("stopped").reset());
+    }
+
+    private static Optional<Socket> connect(final Path projectBaseDir) throws IOException {
+        final Path infoFile = DaemonInfo.infoFile(projectBaseDir);
+        final Optional<DaemonInfo> daemonInfo = DaemonInfo.read(infoFile);
+        if (!daemonInfo.isPresent()) {
+            return Optional.empty();
+        }
+
+        final Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), daemonInfo.get().getPort());
+        } catch (final ConnectException e) {
+            // stale info file (daemon has been killed)
+            Files.deleteIfExists(infoFile);
+            return Optional.empty();
+        }
+
+        final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeUTF(daemonInfo.get().getToken());
+
+        return Optional.of(socket);
+    }
+
+    private static Socket startDaemon(final Path projectBaseDir)
+        throws IOException, InterruptedException {
+
+        AnsiConsole.out().println(Ansi.ansi().fgCyan().a("Starting Loom daemon...").reset());
+
+        final Path logFile = DaemonInfo.logFile(projectBaseDir);
+        Files.createDirectories(logFile.getParent());
+
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        CdsArchive.vmOption().ifPresent(command::add);
+        final String daemonOpts = System.getenv("LOOM_DAEMON_OPTS");
+        if (daemonOpts != null && !daemonOpts.trim().isEmpty()) {
+            command.addAll(Arrays.asList(daemonOpts.trim().split("\\s+")));
+        }
+        command.add("-Dloom.project_dir=" + projectBaseDir);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoomDaemon.class.getName());
+
+        final Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile.toFile()))
+            .redirectInput(ProcessBuilder.Redirect.PIPE)
+            .start();
+        process.getOutputStream().close();
+
+        final long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            final Optional<Socket> socket = connect(projectBaseDir);
+            if (socket.isPresent()) {
+                return socket.get();
+            }
+            if (!process.isAlive()) {
+                break;
+            }
+            Thread.sleep(STARTUP_POLL_INTERVAL);
+        }
+
+        throw new IllegalStateException("Loom daemon failed to start -- see " + logFile);
+    }
+
+    private static int send(final Socket socket, final String command, final String[] args,
+                            final boolean interactive) throws IOException {
+
+        final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeUTF(command);
+        out.writeBoolean(interactive);
+        out.writeInt(args.length);
+        for (final String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+
+        final DataInputStream in =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final PrintStream stdOut = AnsiConsole.out();
+        final PrintStream stdErr = AnsiConsole.err();
+
+        while (true) {
+            final byte type = in.readByte();
+            if (type == DaemonProtocol.FRAME_EXIT) {
+                return in.readInt();
+            }
+
+            final byte[] buf = new byte[in.readInt()];
+            in.readFully(buf);
+
+            final PrintStream target = type == DaemonProtocol.FRAME_ERR ? stdErr : stdOut;
+            target.write(buf);
+            target.flush();
+        }
+    }
+
+}
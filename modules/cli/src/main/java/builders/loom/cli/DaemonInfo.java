@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+import builders.loom.core.LoomVersion;
+import builders.loom.util.Hashing;
+import builders.loom.util.SystemUtil;
+
+/**
+ * Connection details of a running daemon.
+ * <p>
+ * Every project (and Loom version) gets its own daemon -- the details are stored in
+ * {@code $LOOM_USER_HOME/daemon/loom-<version>/<hash of project dir>.properties}.
+ */
+final class DaemonInfo {
+
+    private final int port;
+    private final String token;
+    private final long pid;
+
+    DaemonInfo(final int port, final String token, final long pid) {
+        this.port = port;
+        this.token = token;
+        this.pid = pid;
+    }
+
+    static Path daemonDir() {
+        return SystemUtil.determineLoomBaseDir()
+            .resolve(Paths.get("daemon", "loom-" + LoomVersion.getVersion()));
+    }
+
+    static Path infoFile(final Path projectBaseDir) {
+        return daemonDir().resolve(projectKey(projectBaseDir) + ".properties");
+    }
+
+    static Path logFile(final Path projectBaseDir) {
+        return daemonDir().resolve(projectKey(projectBaseDir) + ".log");
+    }
+
+    private static String projectKey(final Path projectBaseDir) {
+        return Hashing.hash(projectBaseDir.toAbsolutePath().normalize().toString());
+    }
+
+    static Optional<DaemonInfo> read(final Path infoFile) {
+        if (Files.notExists(infoFile)) {
+            return Optional.empty();
+        }
+
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(infoFile)) {
+            properties.load(in);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return Optional.of(new DaemonInfo(
+            Integer.parseInt(properties.getProperty("port")),
+            properties.getProperty("token"),
+            Long.parseLong(properties.getProperty("pid"))));
+    }
+
+    void write(final Path infoFile) {
+        final Properties properties = new Properties();
+        properties.setProperty("port", Integer.toString(port));
+        properties.setProperty("token", token);
+        properties.setProperty("pid", Long.toString(pid));
+
+        try {
+            Files.createDirectories(infoFile.getParent());
+
+            // write atomically -- clients may read the file at any time
+            final Path tmpFile = Files.createTempFile(infoFile.getParent(), null, null);
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                properties.store(out, null);
+            }
+            Files.move(tmpFile, infoFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    long getPid() {
+        return pid;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wire format between client and daemon.
+ * <p>
+ * Request (client to daemon): token, command, interactive flag, argument count, arguments.
+ * Response (daemon to client): a sequence of frames (type, length, payload) -- the last frame
+ * is of type {@link #FRAME_EXIT} and carries the exit code instead of a payload.
+ */
+final class DaemonProtocol {
+
+    static final String CMD_BUILD = "build";
+    static final String CMD_STOP = "stop";
+
+    static final byte FRAME_OUT = 1;
+    static final byte FRAME_ERR = 2;
+    static final byte FRAME_EXIT = 3;
+
+    private DaemonProtocol() {
+    }
+
+    static void writeExit(final DataOutputStream out, final int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Sends everything written to this stream as frames of the given type.
+     */
+    static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(final DataOutputStream out, final byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+    }
+
+}
@@ -27,37 +27,87 @@ import org.fusesource.jansi.AnsiConsole;
 import org.fusesource.jansi.AnsiString;
 
 import builders.loom.api.TaskStatus;
+import builders.loom.core.ExecutionReport;
 import builders.loom.core.ExecutionStatus;
 import builders.loom.core.plugin.TaskType;
 import builders.loom.util.StringUtil;
 
 final class ExecutionReportPrinter {
 
-    void print(final Map<String, ExecutionStatus> durations) {
-        final long totalDuration = durations.values().stream()
-            .mapToLong(ExecutionStatus::getDuration)
+    private static final double PERCENT = 100D;
+    private static final double NANO_SECOND = 1_000_000_000D;
+
+    // don't list shorter waits per product
+    private static final long BLOCKED_THRESHOLD = 10_000_000;
+
+    void print(final ExecutionReport executionReport) {
+        final Map<String, ExecutionStatus> executionStatuses =
+            executionReport.getExecutionStatuses();
+
+        final long totalSelfTime = executionStatuses.values().stream()
+            .mapToLong(ExecutionStatus::getSelfTime)
             .sum();
 
         AnsiConsole.out().println(Ansi.ansi()
             .newline()
             .bold()
             .a(Ansi.Attribute.UNDERLINE)
-            .a("Execution statistics (ordered by product completion time)")
+            .a("Execution statistics (ordered by completion time, * = critical path)")
             .reset()
             .newline());
 
         final Table table = new Table();
-        for (final Map.Entry<String, ExecutionStatus> entry : durations.entrySet()) {
+        for (final Map.Entry<String, ExecutionStatus> entry : executionStatuses.entrySet()) {
             final ExecutionStatus executionStatus = entry.getValue();
 
             table.add(
                 renderType(executionStatus),
                 entry.getKey() + " " + renderStatus(executionStatus.getTaskStatus()),
-                renderTime(totalDuration, executionStatus.getDuration())
+                executionStatus.isCriticalPath() ? "@|bold,yellow *|@" : "",
+                "queued " + renderSeconds(executionStatus.getQueuedTime()),
+                "blocked " + renderSeconds(executionStatus.getBlockedTime()),
+                "self " + renderTime(totalSelfTime, executionStatus.getSelfTime())
             );
+
+            for (final Map.Entry<String, Long> blocked
+                : executionStatus.getBlockedTimes().entrySet()) {
+
+                if (blocked.getValue() >= BLOCKED_THRESHOLD) {
+                    table.add("", "  @|faint waited for " + blocked.getKey() + "|@", "", "",
+                        "        " + renderSeconds(blocked.getValue()), "");
+                }
+            }
         }
 
         table.print();
+
+        printSummary(executionReport);
+    }
+
+    private static void printSummary(final ExecutionReport executionReport) {
+        final long criticalPathSelfTime = executionReport.getCriticalPath().stream()
+            .map(executionReport.getExecutionStatuses()::get)
+            .mapToLong(ExecutionStatus::getSelfTime)
+            .sum();
+
+        AnsiConsole.out().println(Ansi.ansi()
+            .newline()
+            .a("Critical path: ")
+            .bold().a(executionReport.getCriticalPath().size()).a(" tasks").boldOff()
+            .a(" with ")
+            .bold().a(renderSeconds(criticalPathSelfTime).trim()).boldOff()
+            .a(" self time of ")
+            .bold().a(renderSeconds(executionReport.getWallTime()).trim()).boldOff()
+            .a(" wall time"));
+
+        AnsiConsole.out().println(Ansi.ansi()
+            .a("Parallelism: ")
+            .bold().a(String.format("%.1f", executionReport.getParallelism())).boldOff()
+            .a(String.format(" busy workers on average (%d workers, %d cores) -- ",
+                executionReport.getWorkerCount(), executionReport.getAvailableProcessors()))
+            .bold().a(String.format("%.0f%%", executionReport.getUtilization() * PERCENT))
+            .boldOff()
+            .a(" utilization"));
     }
 
     private static String renderType(final ExecutionStatus executionStatus) {
@@ -91,9 +141,12 @@ final class ExecutionReportPrinter {
     }
 
     private static String renderTime(final long totalDuration, final long duration) {
-        final double pct = 100D / totalDuration * duration;
-        final double durationSecs = duration / 1_000_000_000D;
-        return String.format("%5.2fs (%4.1f%%) %s", durationSecs, pct, renderBar(pct));
+        final double pct = totalDuration == 0 ? 0 : PERCENT / totalDuration * duration;
+        return String.format("%s (%4.1f%%) %s", renderSeconds(duration), pct, renderBar(pct));
+    }
+
+    private static String renderSeconds(final long duration) {
+        return String.format("%5.2fs", duration / NANO_SECOND);
     }
 
     private static String renderBar(final double pct) {
@@ -22,13 +22,31 @@ import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class FileLockUtil {
 
+    // a daemon acquires the lock once per build -- register the cleanup hook only once
+    private static final Set<Path> CLEANUP_REGISTERED = ConcurrentHashMap.newKeySet();
+
     private FileLockUtil() {
     }
 
+    static Path lockFile(final Path projectBaseDir) {
+        return projectBaseDir.resolve(".loom.lock");
+    }
+
     static FileLock lock(final Path lockFile) throws IOException {
+        return tryLock(lockFile).orElseThrow(() ->
+            new IllegalStateException("Loom already running - locked by " + lockFile));
+    }
+
+    /**
+     * @return the lock -- empty, if another process holds it
+     */
+    static Optional<FileLock> tryLock(final Path lockFile) throws IOException {
         if (Files.notExists(lockFile)) {
             Files.createFile(lockFile);
         }
@@ -38,18 +56,21 @@ final class FileLockUtil {
         final FileLock fileLock = fileChannel.tryLock();
 
         if (fileLock == null) {
-            throw new IllegalStateException("Loom already running - locked by " + lockFile);
+            fileChannel.close();
+            return Optional.empty();
         }
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            try {
-                Files.deleteIfExists(lockFile);
-            } catch (final IOException ignored) {
-                // ignored
-            }
-        }));
+        if (CLEANUP_REGISTERED.add(lockFile)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(lockFile);
+                } catch (final IOException ignored) {
+                    // ignored
+                }
+            }));
+        }
 
-        return fileLock;
+        return Optional.of(fileLock);
     }
 
 }
@@ -23,8 +23,8 @@ import builders.loom.core.ProgressMonitor;
 
 public class LogProgressMonitor implements ProgressMonitor {
 
-    private static final AtomicInteger TASKS = new AtomicInteger();
-    private static final AtomicInteger COMPLETED_TASKS = new AtomicInteger();
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
 
     private final PrintStream out;
 
@@ -34,13 +34,14 @@ public class LogProgressMonitor implements ProgressMonitor {
 
     @Override
     public void setTasks(final int tasks) {
-        TASKS.set(tasks);
+        this.tasks.set(tasks);
+        completedTasks.set(0);
     }
 
     @Override
     public void progress(final String jobName) {
         out.printf("Completed task %d/%d: %s%n",
-            COMPLETED_TASKS.incrementAndGet(), TASKS.get(), jobName);
+            completedTasks.incrementAndGet(), tasks.get(), jobName);
     }
 
     @Override
@@ -21,6 +21,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Properties;
 
 import javax.tools.ToolProvider;
 
@@ -30,11 +31,14 @@ import org.fusesource.jansi.internal.CLibrary;
 
 import builders.loom.api.LoomPaths;
 import builders.loom.core.BuildException;
+import builders.loom.core.BuildTrace;
 import builders.loom.core.ExecutionReport;
 import builders.loom.core.LoomProcessor;
 import builders.loom.core.LoomVersion;
 import builders.loom.core.ProgressMonitor;
 import builders.loom.core.RuntimeConfigurationImpl;
+import builders.loom.core.SourceWatcher;
+import builders.loom.core.jfr.FlightRecording;
 import builders.loom.core.plugin.ConfiguredTask;
 import builders.loom.util.FileUtil;
 
@@ -43,6 +47,8 @@ import builders.loom.util.FileUtil;
 public final class Loom {
 
     private static boolean buildExecuted;
+    private static boolean daemonMode;
+    private static boolean loggingConfigured;
 
     @SuppressWarnings({"checkstyle:uncommentedmain", "checkstyle:illegalcatch",
         "checkstyle:regexpmultiline"})
@@ -51,19 +57,43 @@ public final class Loom {
         OriginalStreams.init();
 
         try {
-            mainWithoutExit(args);
+            mainWithoutExit(args, CLibrary.isatty(CLibrary.STDOUT_FILENO) != 0);
             System.exit(0);
         } catch (final Throwable e) {
             System.exit(1);
         }
     }
 
+    /**
+     * Runs a build within the (long-living) daemon process.
+     */
+    @SuppressWarnings("checkstyle:illegalthrows")
+    static void runInDaemon(final String[] args, final boolean interactive) throws Throwable {
+        daemonMode = true;
+
+        // -D options of a client only apply to its build
+        final Properties systemProperties = new Properties();
+        systemProperties.putAll(System.getProperties());
+
+        try {
+            mainWithoutExit(args, interactive);
+        } finally {
+            System.setProperties(systemProperties);
+            if (loggingConfigured) {
+                LogConfiguration.stop();
+                loggingConfigured = false;
+            }
+        }
+    }
+
     @SuppressWarnings({"checkstyle:illegalcatch", "checkstyle:illegalthrows"})
-    private static void mainWithoutExit(final String[] args) throws Throwable {
+    private static void mainWithoutExit(final String[] args, final boolean interactive)
+        throws Throwable {
+
         final long startTime = System.nanoTime();
+        buildExecuted = false;
 
         final Path projectBaseDir = determineProjectBaseDir();
-        final Path lockFile = projectBaseDir.resolve(".loom.lock");
         final Path logFile = LoomPaths.loomDir(projectBaseDir).resolve("build.log");
 
         final Thread ctrlCHook = new Thread(() ->
@@ -71,17 +101,17 @@ public final class Loom {
                 .a("Interrupt received - stopping").reset()));
 
         try {
-            init();
-
             final LoomCommand cmd = new LoomCommand(args);
 
-            if (validate(cmd)) {
-                Runtime.getRuntime().addShutdownHook(ctrlCHook);
+            if (daemonMode || !runClientOperation(projectBaseDir, cmd, args, interactive)) {
+                init();
+
+                if (validate(cmd)) {
+                    Runtime.getRuntime().addShutdownHook(ctrlCHook);
 
-                cmd.getSystemProperties().forEach(System::setProperty);
+                    cmd.getSystemProperties().forEach(System::setProperty);
 
-                try (FileLock ignored = FileLockUtil.lock(lockFile)) {
-                    run(projectBaseDir, logFile, cmd);
+                    runLocked(projectBaseDir, logFile, cmd, interactive);
                 }
             }
         } catch (final Throwable e) {
@@ -99,10 +129,76 @@ public final class Loom {
 
         if (buildExecuted) {
             printSuccess(startTime);
+
+            // the daemon collects after the client has been released
+            if (!daemonMode) {
+                CacheGarbageCollector.collectIfDue(projectBaseDir);
+            }
+        }
+    }
+
+    /**
+     * Runs the operations of a client that don't build within this process (stop or build
+     * within the daemon, generate the CDS archive, collect the cache garbage).
+     *
+     * @return true, if such an operation has been requested
+     */
+    private static boolean runClientOperation(final Path projectBaseDir, final LoomCommand cmd,
+                                              final String[] args, final boolean interactive)
+        throws Exception {
+
+        final boolean requested = cmd.isStopDaemonFlag() || cmd.isGenerateCdsFlag()
+            || cmd.isGcCacheFlag() || cmd.isDaemonFlag();
+
+        if (cmd.isStopDaemonFlag()) {
+            DaemonClient.stop(projectBaseDir);
+        } else if (cmd.isGenerateCdsFlag()) {
+            CdsArchive.generate(projectBaseDir, cmd.getProducts());
+        } else if (cmd.isGcCacheFlag()) {
+            cmd.getSystemProperties().forEach(System::setProperty);
+            CacheGarbageCollector.collect(projectBaseDir);
+        } else if (cmd.isDaemonFlag()) {
+            buildInDaemon(projectBaseDir, cmd, args, interactive);
+        }
+
+        return requested;
+    }
+
+    private static void buildInDaemon(final Path projectBaseDir, final LoomCommand cmd,
+                                      final String[] args, final boolean interactive)
+        throws Exception {
+
+        if (cmd.isWatchFlag()) {
+            throw new IllegalStateException("--watch can't be used with --daemon");
+        }
+
+        if (DaemonClient.build(projectBaseDir, args, interactive) != 0) {
+            // details have already been printed by the daemon
+            throw new BuildException(new IllegalStateException("Build failed in daemon"));
         }
     }
 
-    private static Path determineProjectBaseDir() {
+    private static void runLocked(final Path projectBaseDir, final Path logFile,
+                                  final LoomCommand cmd, final boolean interactive)
+        throws Exception {
+
+        final FileLock lock = FileLockUtil.lock(FileLockUtil.lockFile(projectBaseDir));
+        try (lock) {
+            final FlightRecording flightRecording = cmd.getJfrFile() != null
+                ? FlightRecording.start(projectBaseDir.resolve(cmd.getJfrFile()))
+                : null;
+
+            try {
+                run(projectBaseDir, logFile, cmd, interactive);
+            } finally {
+                if (flightRecording != null) {
+                    stopFlightRecording(flightRecording);
+                }
+            }
+        }
+    }
+
+    static Path determineProjectBaseDir() {
         final String projectHome = System.getProperty("loom.project_dir");
 
         if (projectHome == null) {
@@ -159,8 +255,8 @@ public final class Loom {
         return loomVersion.contains("-");
     }
 
-    private static void run(final Path projectBaseDir, final Path logFile, final LoomCommand cmd)
-        throws Exception {
+    private static void run(final Path projectBaseDir, final Path logFile, final LoomCommand cmd,
+                            final boolean interactive) throws Exception {
 
         if (cmd.isCleanFlag() || cmd.isNoCacheFlag()) {
             AnsiConsole.out().print(Ansi.ansi().a("Cleaning..."));
@@ -174,7 +270,12 @@ public final class Loom {
 
         configureLogging(logFile);
 
-        final LoomProcessor loomProcessor = new LoomProcessor();
+        final Path traceFile = resolveTraceFile(projectBaseDir, cmd);
+        final BuildTrace buildTrace = traceFile != null
+            ? BuildTrace.enabled()
+            : BuildTrace.disabled();
+
+        final LoomProcessor loomProcessor = new LoomProcessor(buildTrace);
         loomProcessor.logSystemEnvironment();
         loomProcessor.logMemoryUsage();
 
@@ -183,7 +284,8 @@ public final class Loom {
         final RuntimeConfigurationImpl runtimeConfiguration =
             new RuntimeConfigurationImpl(projectBaseDir, !noCacheMode,
                 cmd.getRelease(),
-                loomProcessor.isModuleBuild(projectBaseDir));
+                loomProcessor.isModuleBuild(projectBaseDir),
+                cmd.getWorkers());
 
         printRuntimeConfiguration(runtimeConfiguration);
 
@@ -192,9 +294,9 @@ public final class Loom {
                 .fgBrightYellow().a("Running in no-cache mode").reset());
         }
 
-        final ProgressMonitor progressMonitor = CLibrary.isatty(CLibrary.STDOUT_FILENO) == 0
-            ? new LogProgressMonitor(OriginalStreams.getOut())
-            : new ConsoleProgressMonitor();
+        final ProgressMonitor progressMonitor = interactive
+            ? new ConsoleProgressMonitor()
+            : new LogProgressMonitor(OriginalStreams.getOut());
 
         loomProcessor.init(runtimeConfiguration, progressMonitor);
 
@@ -204,28 +306,115 @@ public final class Loom {
 
         if (!cmd.getProducts().isEmpty()) {
             buildExecuted = true;
+            build(cmd, runtimeConfiguration, loomProcessor, progressMonitor, logFile, traceFile,
+                buildTrace);
+        }
 
-            progressMonitor.start();
+        loomProcessor.logMemoryUsage();
+    }
 
-            final List<ConfiguredTask> configuredTasks =
-                loomProcessor.resolveTasks(cmd.getProducts());
+    private static Path resolveTraceFile(final Path projectBaseDir, final LoomCommand cmd) {
+        return cmd.getTraceFile() != null ? projectBaseDir.resolve(cmd.getTraceFile()) : null;
+    }
 
-            if (!configuredTasks.isEmpty()) {
-                final ExecutionReport executionReport;
-                try {
-                    executionReport = loomProcessor.execute(configuredTasks);
-                } finally {
-                    progressMonitor.stop();
+    private static void build(final LoomCommand cmd,
+                              final RuntimeConfigurationImpl runtimeConfiguration,
+                              final LoomProcessor loomProcessor,
+                              final ProgressMonitor progressMonitor,
+                              final Path logFile, final Path traceFile,
+                              final BuildTrace buildTrace) throws Exception {
+
+        final List<ConfiguredTask> configuredTasks =
+            loomProcessor.resolveTasks(cmd.getProducts());
+
+        if (cmd.isWatchFlag()) {
+            watch(runtimeConfiguration, loomProcessor, progressMonitor, configuredTasks,
+                logFile, traceFile, buildTrace);
+        } else {
+            try {
+                execute(runtimeConfiguration, loomProcessor, progressMonitor, configuredTasks);
+            } finally {
+                writeTrace(traceFile, buildTrace);
+            }
+        }
+    }
+
+    private static void execute(final RuntimeConfigurationImpl runtimeConfiguration,
+                                final LoomProcessor loomProcessor,
+                                final ProgressMonitor progressMonitor,
+                                final List<ConfiguredTask> configuredTasks) throws Exception {
+
+        progressMonitor.start();
+
+        if (!configuredTasks.isEmpty()) {
+            final ExecutionReport executionReport;
+            try {
+                executionReport = loomProcessor.execute(configuredTasks);
+            } finally {
+                progressMonitor.stop();
+
+                new ProductReportPrinter(runtimeConfiguration, loomProcessor.getModuleRunner())
+                    .print(configuredTasks);
+            }
+
+            new ExecutionReportPrinter().print(executionReport);
+        }
+    }
 
-                    new ProductReportPrinter(runtimeConfiguration, loomProcessor.getModuleRunner())
-                        .print(configuredTasks);
+    // continuous build -- runs until interrupted (Ctrl-C)
+    @SuppressWarnings("checkstyle:illegalcatch")
+    private static void watch(final RuntimeConfigurationImpl runtimeConfiguration,
+                              final LoomProcessor loomProcessor,
+                              final ProgressMonitor progressMonitor,
+                              final List<ConfiguredTask> configuredTasks,
+                              final Path logFile, final Path traceFile,
+                              final BuildTrace buildTrace) throws Exception {
+
+        try (SourceWatcher sourceWatcher = loomProcessor.watchSources()) {
+            List<ConfiguredTask> tasks = configuredTasks;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                final long startTime = System.nanoTime();
+                try {
+                    execute(runtimeConfiguration, loomProcessor, progressMonitor, tasks);
+                    printSuccess(startTime);
+                } catch (final BuildException e) {
+                    // already logged -- wait for changes fixing the problem
+                    printFailed(logFile);
                 }
 
-                new ExecutionReportPrinter().print(executionReport.getDurations());
+                writeTrace(traceFile, buildTrace);
+
+                AnsiConsole.out().println(Ansi.ansi().fgCyan()
+                    .a("Waiting for changes (press Ctrl-C to stop)...").reset());
+
+                do {
+                    tasks = loomProcessor.resolveAffectedTasks(sourceWatcher.awaitChanges());
+                } while (tasks.isEmpty());
             }
         }
+    }
 
-        loomProcessor.logMemoryUsage();
+    private static void writeTrace(final Path traceFile, final BuildTrace buildTrace) {
+        if (traceFile == null) {
+            return;
+        }
+
+        buildTrace.write(traceFile);
+
+        AnsiConsole.out().println(Ansi.ansi()
+            .a("Build trace written to ")
+            .bold().a(traceFile).boldOff()
+            .a(" (open with chrome://tracing or https://ui.perfetto.dev)"));
+    }
+
+    private static void stopFlightRecording(final FlightRecording flightRecording) {
+        final Path jfrFile = flightRecording.stop();
+
+        AnsiConsole.out().println(Ansi.ansi()
+            .a("Flight recording written to ")
+            .bold().a(jfrFile).boldOff()
+            .a(" (open with JDK Mission Control)"));
     }
 
     private static void clean(final Path projectBaseDir) {
@@ -235,7 +424,12 @@ public final class Loom {
 
     private static void configureLogging(final Path logFile) {
         LogConfiguration.configureLogger(logFile);
-        Runtime.getRuntime().addShutdownHook(new Thread(LogConfiguration::stop));
+        loggingConfigured = true;
+
+        // the daemon stops logging after each build
+        if (!daemonMode) {
+            Runtime.getRuntime().addShutdownHook(new Thread(LogConfiguration::stop));
+        }
     }
 
     private static void printRuntimeConfiguration(final RuntimeConfigurationImpl rtConfig) {
@@ -16,6 +16,8 @@
 
 package builders.loom.cli;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -35,9 +37,17 @@ class LoomCommand {
     private final boolean cleanFlag;
     private final boolean helpFlag;
     private final boolean noCacheFlag;
+    private final boolean daemonFlag;
+    private final boolean stopDaemonFlag;
+    private final boolean watchFlag;
+    private final boolean generateCdsFlag;
+    private final boolean gcCacheFlag;
     private final Map<String, String> systemProperties;
     private final String printProducts;
     private final String release;
+    private final int workers;
+    private final Path traceFile;
+    private final Path jfrFile;
     private final List<String> products;
 
     LoomCommand(final String[] args) {
@@ -46,7 +56,21 @@ class LoomCommand {
             helpFlag = parse.hasOption("help");
             cleanFlag = parse.hasOption("clean");
             noCacheFlag = parse.hasOption("no-cache");
+            daemonFlag = parse.hasOption("daemon");
+            stopDaemonFlag = parse.hasOption("stop-daemon");
+            watchFlag = parse.hasOption("watch");
+            generateCdsFlag = parse.hasOption("generate-cds");
+            gcCacheFlag = parse.hasOption("gc-cache");
             release = parse.getOptionValue("release");
+            workers = parse.hasOption("workers")
+                ? parseWorkers(parse.getOptionValue("workers"))
+                : Runtime.getRuntime().availableProcessors();
+
+            traceFile = parse.hasOption("trace")
+                ? Paths.get(parse.getOptionValue("trace")) : null;
+
+            jfrFile = parse.hasOption("jfr")
+                ? Paths.get(parse.getOptionValue("jfr")) : null;
 
             printProducts = !parse.hasOption("products") ? null
                 : parse.getOptionValue("products", "text");
@@ -62,6 +86,21 @@ class LoomCommand {
         }
     }
 
+    private static int parseWorkers(final String value) {
+        final int cnt;
+        try {
+            cnt = Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("Invalid number of workers: " + value);
+        }
+
+        if (cnt < 1) {
+            throw new IllegalStateException("Number of workers must be at least 1");
+        }
+
+        return cnt;
+    }
+
     boolean isCleanFlag() {
         return cleanFlag;
     }
@@ -74,6 +113,26 @@ class LoomCommand {
         return noCacheFlag;
     }
 
+    boolean isDaemonFlag() {
+        return daemonFlag;
+    }
+
+    boolean isStopDaemonFlag() {
+        return stopDaemonFlag;
+    }
+
+    boolean isWatchFlag() {
+        return watchFlag;
+    }
+
+    boolean isGenerateCdsFlag() {
+        return generateCdsFlag;
+    }
+
+    boolean isGcCacheFlag() {
+        return gcCacheFlag;
+    }
+
     Map<String, String> getSystemProperties() {
         return systemProperties;
     }
@@ -86,6 +145,18 @@ class LoomCommand {
         return release;
     }
 
+    int getWorkers() {
+        return workers;
+    }
+
+    Path getTraceFile() {
+        return traceFile;
+    }
+
+    Path getJfrFile() {
+        return jfrFile;
+    }
+
     List<String> getProducts() {
         return products;
     }
@@ -100,6 +171,16 @@ class LoomCommand {
             .addOption("c", "clean", false, "Clean before execution")
             .addOption("n", "no-cache", false,
                 "Disable all caches (use on CI servers); also implies clean")
+            .addOption(null, "watch", false,
+                "Keep running and re-execute affected tasks when sources or resources change")
+            .addOption(null, "daemon", false,
+                "Execute in a background process that is kept running for subsequent builds")
+            .addOption(null, "stop-daemon", false, "Stop the background process of this project")
+            .addOption(null, "generate-cds", false,
+                "Generate a class data sharing archive (by building the requested products) "
+                    + "to speed up the startup of subsequent builds")
+            .addOption(null, "gc-cache", false,
+                "Remove unused cache entries and caches of other Loom versions")
             .addOption(
                 Option.builder("r")
                     .longOpt("release")
@@ -108,6 +189,31 @@ class LoomCommand {
                     .argName("version")
                     .desc("Defines the version to use for artifact creation")
                     .build())
+            .addOption(
+                Option.builder("w")
+                    .longOpt("workers")
+                    .numberOfArgs(1)
+                    .optionalArg(false)
+                    .argName("count")
+                    .desc("Maximum number of tasks to execute in parallel "
+                        + "(default: number of CPU cores)")
+                    .build())
+            .addOption(
+                Option.builder()
+                    .longOpt("trace")
+                    .numberOfArgs(1)
+                    .optionalArg(false)
+                    .argName("file")
+                    .desc("Write a timeline of the build (Chrome Trace Event format) to file")
+                    .build())
+            .addOption(
+                Option.builder()
+                    .longOpt("jfr")
+                    .numberOfArgs(1)
+                    .optionalArg(false)
+                    .argName("file")
+                    .desc("Record the build with JDK Flight Recorder and write it to file")
+                    .build())
             .addOption(
                 Option.builder("p")
                     .longOpt("products")
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-living build process -- keeps loaded plugins, resolvers and the JIT warm between
+ * builds of a single project.
+ * <p>
+ * Builds are executed one after another. The daemon terminates after an idle timeout
+ * (system property {@code loom.daemon.idle_timeout}, in minutes) or if the heap usage after a
+ * build exceeds a limit (system property {@code loom.daemon.max_heap_usage}, in percent of
+ * the maximum heap). The maximum heap size itself is controlled via {@code LOOM_DAEMON_OPTS}.
+ * <p>
+ * Garbage collection of the project's caches runs after a build has been reported to the
+ * client.
+ */
+@SuppressWarnings({"checkstyle:classdataabstractioncoupling", "checkstyle:regexpmultiline"})
+public final class LoomDaemon {
+
+    private static final long DEFAULT_IDLE_TIMEOUT = 180;
+    private static final int DEFAULT_MAX_HEAP_USAGE = 80;
+    private static final int PERCENT = 100;
+    private static final int TOKEN_BYTES = 32;
+    private static final int BACKLOG = 10;
+    private static final int REQUEST_TIMEOUT = 10_000;
+
+    private final Path projectBaseDir;
+    private final SwitchableOutputStream out;
+    private final SwitchableOutputStream err;
+    private final String token;
+
+    private LoomDaemon(final Path projectBaseDir, final SwitchableOutputStream out,
+                       final SwitchableOutputStream err) {
+        this.projectBaseDir = projectBaseDir;
+        this.out = out;
+        this.err = err;
+
+        final byte[] tokenBytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(tokenBytes);
+        token = Base64.getEncoder().encodeToString(tokenBytes);
+    }
+
+    @SuppressWarnings({"checkstyle:uncommentedmain", "checkstyle:illegalcatch",
+        "checkstyle:regexpmultiline"})
+    public static void main(final String[] args) {
+        // Redirect the streams before anything captures them (OriginalStreams, AnsiConsole).
+        // Ansi sequences are passed through to the client, which knows about its terminal.
+        System.setProperty("jansi.passthrough", "true");
+        final SwitchableOutputStream out =
+            new SwitchableOutputStream(new FileOutputStream(FileDescriptor.out));
+        final SwitchableOutputStream err =
+            new SwitchableOutputStream(new FileOutputStream(FileDescriptor.err));
+        System.setOut(new PrintStream(out, true));
+        System.setErr(new PrintStream(err, true));
+        OriginalStreams.init();
+
+        try {
+            new LoomDaemon(Loom.determineProjectBaseDir(), out, err).serve();
+            System.exit(0);
+        } catch (final Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private void serve() throws IOException {
+        final Path infoFile = DaemonInfo.infoFile(projectBaseDir);
+        final long idleTimeout = TimeUnit.MINUTES.toMillis(
+            Long.getLong("loom.daemon.idle_timeout", DEFAULT_IDLE_TIMEOUT));
+        final long pid = ProcessHandle.current().pid();
+
+        try (ServerSocket serverSocket =
+                 new ServerSocket(0, BACKLOG, InetAddress.getLoopbackAddress())) {
+
+            serverSocket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, idleTimeout));
+            new DaemonInfo(serverSocket.getLocalPort(), token, pid).write(infoFile);
+            System.out.printf("Loom daemon (pid %d) listening on port %d for project %s%n",
+                pid, serverSocket.getLocalPort(), projectBaseDir);
+
+            boolean running = true;
+            while (running) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (final SocketTimeoutException e) {
+                    System.out.println("Idle timeout reached -- stopping daemon");
+                    break;
+                }
+
+                try (socket) {
+                    running = handle(socket);
+                } catch (final IOException e) {
+                    // e.g. a stalled client -- must neither block nor stop the daemon
+                    System.err.println("Request failed: " + e);
+                }
+            }
+        } finally {
+            // another daemon may have taken over in the meantime
+            final Optional<DaemonInfo> daemonInfo = DaemonInfo.read(infoFile);
+            if (daemonInfo.isPresent() && daemonInfo.get().getPid() == pid) {
+                Files.deleteIfExists(infoFile);
+            }
+        }
+    }
+
+    @SuppressWarnings({"checkstyle:illegalcatch", "checkstyle:returncount"})
+    private boolean handle(final Socket socket) throws IOException {
+        // the request is sent right after connecting
+        socket.setSoTimeout(REQUEST_TIMEOUT);
+
+        final DataInputStream in =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream dataOut =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        if (!token.equals(in.readUTF())) {
+            System.err.println("Rejected connection with invalid token");
+            return true;
+        }
+
+        final String command = in.readUTF();
+        final boolean interactive = in.readBoolean();
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        if (DaemonProtocol.CMD_STOP.equals(command)) {
+            System.out.println("Stop requested -- stopping daemon");
+            DaemonProtocol.writeExit(dataOut, 0);
+            return false;
+        }
+
+        out.switchTo(new DaemonProtocol.FrameOutputStream(dataOut, DaemonProtocol.FRAME_OUT));
+        err.switchTo(new DaemonProtocol.FrameOutputStream(dataOut, DaemonProtocol.FRAME_ERR));
+
+        int exitCode = 0;
+        try {
+            Loom.runInDaemon(args, interactive);
+        } catch (final Throwable e) {
+            exitCode = 1;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            out.reset();
+            err.reset();
+        }
+
+        try {
+            DaemonProtocol.writeExit(dataOut, exitCode);
+        } catch (final IOException e) {
+            System.err.println("Client disconnected before build finished: " + e.getMessage());
+        }
+
+        // client has been released -- clean up in the background
+        CacheGarbageCollector.collectIfDue(projectBaseDir);
+
+        return !isHeapLimitExceeded();
+    }
+
+    private static boolean isHeapLimitExceeded() {
+        final int maxHeapUsage =
+            Integer.getInteger("loom.daemon.max_heap_usage", DEFAULT_MAX_HEAP_USAGE);
+
+        // daemon is idle now -- good time to clean up
+        System.gc();
+
+        final Runtime runtime = Runtime.getRuntime();
+        final long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        final long usage = usedHeap * PERCENT / runtime.maxMemory();
+
+        if (usage > maxHeapUsage) {
+            System.out.printf("Heap usage of %d%% exceeds limit of %d%% -- stopping daemon%n",
+                usage, maxHeapUsage);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Output stream that can be redirected to the currently connected client.
+     */
+    private static final class SwitchableOutputStream extends OutputStream {
+
+        private final OutputStream defaultTarget;
+        private volatile OutputStream target;
+
+        SwitchableOutputStream(final OutputStream defaultTarget) {
+            this.defaultTarget = defaultTarget;
+            target = defaultTarget;
+        }
+
+        void switchTo(final OutputStream newTarget) {
+            target = newTarget;
+        }
+
+        void reset() {
+            target = defaultTarget;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            target.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+    }
+
+}
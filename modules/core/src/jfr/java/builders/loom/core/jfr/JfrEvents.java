@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event definitions -- instantiated by {@link LoomEvents} if the {@code jdk.jfr} module is
+ * available.
+ */
+final class JfrEvents implements JfrSupport {
+
+    private static final String CATEGORY = "Loom";
+
+    @Override
+    public EventScope job(final String moduleName, final String taskName) {
+        final JobEvent event = new JobEvent();
+        event.moduleName = moduleName;
+        event.taskName = taskName;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope productWait(final String moduleName, final String productModuleName,
+                                  final String productId) {
+        final ProductWaitEvent event = new ProductWaitEvent();
+        event.moduleName = moduleName;
+        event.productModuleName = productModuleName;
+        event.productId = productId;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope skipCheck(final String moduleName, final String taskName) {
+        final SkipCheckEvent event = new SkipCheckEvent();
+        event.moduleName = moduleName;
+        event.taskName = taskName;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope checksum(final String moduleName, final String taskName) {
+        final ChecksumEvent event = new ChecksumEvent();
+        event.moduleName = moduleName;
+        event.taskName = taskName;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope dependencyResolution(final String scope, final int dependencyCount) {
+        final DependencyResolutionEvent event = new DependencyResolutionEvent();
+        event.scope = scope;
+        event.dependencyCount = dependencyCount;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public FlightRecording startRecording(final Path file) {
+        return JfrFlightRecording.start(file);
+    }
+
+    @Name("builders.loom.Job")
+    @Label("Job")
+    @Category(CATEGORY)
+    @Description("Execution of a task")
+    static class JobEvent extends Event implements EventScope {
+
+        @Label("Module")
+        private String moduleName;
+
+        @Label("Task")
+        private String taskName;
+
+        @Label("Status")
+        private String status;
+
+        @Override
+        public void finish(final String outcome) {
+            status = outcome;
+            commit();
+        }
+
+    }
+
+    @Name("builders.loom.ProductWait")
+    @Label("Product Wait")
+    @Category(CATEGORY)
+    @Description("Task blocked by waiting for a product")
+    static class ProductWaitEvent extends Event implements EventScope {
+
+        @Label("Module")
+        private String moduleName;
+
+        @Label("Product Module")
+        private String productModuleName;
+
+        @Label("Product")
+        private String productId;
+
+        @Override
+        public void finish(final String outcome) {
+            commit();
+        }
+
+    }
+
+    @Name("builders.loom.SkipCheck")
+    @Label("Skip Check")
+    @Category(CATEGORY)
+    @Description("Decision whether a task can be skipped")
+    static class SkipCheckEvent extends Event implements EventScope {
+
+        @Label("Module")
+        private String moduleName;
+
+        @Label("Task")
+        private String taskName;
+
+        @Label("Outcome")
+        private String outcome;
+
+        @Override
+        public void finish(final String result) {
+            outcome = result;
+            commit();
+        }
+
+    }
+
+    @Name("builders.loom.Checksum")
+    @Label("Checksum")
+    @Category(CATEGORY)
+    @Description("Calculation of the skip signature from the checksums of used products")
+    static class ChecksumEvent extends Event implements EventScope {
+
+        @Label("Module")
+        private String moduleName;
+
+        @Label("Task")
+        private String taskName;
+
+        @Override
+        public void finish(final String outcome) {
+            commit();
+        }
+
+    }
+
+    @Name("builders.loom.DependencyResolution")
+    @Label("Dependency Resolution")
+    @Category(CATEGORY)
+    @Description("Resolution of artifacts by the dependency resolver service")
+    static class DependencyResolutionEvent extends Event implements EventScope {
+
+        @Label("Scope")
+        private String scope;
+
+        @Label("Dependencies")
+        private int dependencyCount;
+
+        @Label("Outcome")
+        private String outcome;
+
+        @Override
+        public void finish(final String result) {
+            outcome = result;
+            commit();
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * {@link FlightRecording} by the JDK Flight Recorder.
+ */
+final class JfrFlightRecording implements FlightRecording {
+
+    private final Recording recording;
+
+    private JfrFlightRecording(final Recording recording) {
+        this.recording = recording;
+    }
+
+    static FlightRecording start(final Path file) {
+        final Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            recording.setDestination(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final ParseException e) {
+            throw new IllegalStateException(e);
+        }
+
+        recording.setName("Loom");
+        recording.setDumpOnExit(true);
+        recording.enable(JfrEvents.JobEvent.class);
+        recording.enable(JfrEvents.ProductWaitEvent.class);
+        recording.enable(JfrEvents.SkipCheckEvent.class);
+        recording.enable(JfrEvents.ChecksumEvent.class);
+        recording.enable(JfrEvents.DependencyResolutionEvent.class);
+        recording.start();
+
+        return new JfrFlightRecording(recording);
+    }
+
+    @Override
+    public Path stop() {
+        try {
+            recording.stop();
+            return recording.getDestination();
+        } finally {
+            recording.close();
+        }
+    }
+
+}
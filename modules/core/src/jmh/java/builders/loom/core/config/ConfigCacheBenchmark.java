@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.config;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import builders.loom.api.JavaVersion;
+import builders.loom.util.FileUtil;
+import builders.loom.util.Hasher;
+
+/**
+ * Reading the cached configs of all modules (as done on every start) -- compared to the
+ * previous implementation (config.hash and config.cache per module, Java serialization).
+ * <p>
+ * Run with {@code ./gradlew :modules:core:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@SuppressWarnings("checkstyle:magicnumber")
+public class ConfigCacheBenchmark {
+
+    @Param({"10", "100"})
+    private int moduleCount;
+
+    private Path dir;
+    private Path cacheFile;
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> hashes = new ArrayList<>();
+    private final List<String> hexHashes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("ConfigCacheBenchmark");
+        cacheFile = dir.resolve("config-cache");
+
+        final ConfigCache configCache = new ConfigCache(cacheFile, true);
+        for (int i = 0; i < moduleCount; i++) {
+            final String name = "com.example.module" + i;
+            final byte[] hash = new Hasher().putString(name).hash();
+            final BuildConfigImpl buildConfig = newBuildConfig(name);
+
+            names.add(name);
+            hashes.add(hash);
+            hexHashes.add(Hasher.toHex(hash));
+            configCache.put(name, Hasher.toHex(hash), buildConfig);
+            LegacyConfigCache.write(dir.resolve(name), hash, buildConfig);
+        }
+        configCache.persist();
+    }
+
+    private static BuildConfigImpl newBuildConfig(final String moduleName) {
+        return new BuildConfigImpl(Set.of("java", "junit", "checkstyle"),
+            new BuildSettingsImpl(moduleName, JavaVersion.JAVA_9),
+            Map.of("junit.version", "5", "checkstyle.config", "sun_checks.xml"),
+            Set.of("com.example.base"),
+            Set.of("org.slf4j:slf4j-api:1.7.25", "com.google.guava:guava:23.0"),
+            Set.of("org.junit.jupiter:junit-jupiter-api:5.0.3"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.deleteDirectoryRecursively(dir, true);
+    }
+
+    @Benchmark
+    public List<BuildConfigImpl> legacyRead() throws IOException {
+        final List<BuildConfigImpl> configs = new ArrayList<>();
+        for (int i = 0; i < moduleCount; i++) {
+            configs.add(LegacyConfigCache.read(dir.resolve(names.get(i)), hashes.get(i)));
+        }
+        return configs;
+    }
+
+    @Benchmark
+    public List<BuildConfigImpl> read() {
+        final ConfigCache configCache = new ConfigCache(cacheFile, true);
+        configCache.load();
+
+        final List<BuildConfigImpl> configs = new ArrayList<>();
+        for (int i = 0; i < moduleCount; i++) {
+            configs.add(configCache.get(names.get(i), hexHashes.get(i)).get());
+        }
+        return configs;
+    }
+
+    private static final class LegacyConfigCache {
+
+        private LegacyConfigCache() {
+        }
+
+        static void write(final Path cachePath, final byte[] hash,
+                          final BuildConfigImpl buildConfig) throws IOException {
+            Files.createDirectories(cachePath);
+
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                Files.newOutputStream(cachePath.resolve("config.cache")))) {
+                out.writeObject(buildConfig);
+            }
+
+            Files.write(cachePath.resolve("config.hash"), hash);
+        }
+
+        static BuildConfigImpl read(final Path cachePath, final byte[] hash)
+            throws IOException {
+
+            final byte[] hashFromCache = Files.readAllBytes(cachePath.resolve("config.hash"));
+            if (!Arrays.equals(hash, hashFromCache)) {
+                throw new IllegalStateException("Hash mismatch");
+            }
+
+            try (ObjectInputStream in = new ObjectInputStream(
+                Files.newInputStream(cachePath.resolve("config.cache")))) {
+                return (BuildConfigImpl) in.readObject();
+            } catch (final ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+}
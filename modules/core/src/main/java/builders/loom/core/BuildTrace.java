@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records spans of the build execution and writes them in the Chrome Trace Event format
+ * (viewable with chrome://tracing or https://ui.perfetto.dev).
+ */
+public final class BuildTrace {
+
+    private static final long NANO_MICRO = 1_000;
+
+    private static final BuildTrace DISABLED = new BuildTrace(false);
+
+    private final boolean enabled;
+    private final long origin = System.nanoTime();
+    private final long mainThreadId = Thread.currentThread().getId();
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    private BuildTrace(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static BuildTrace enabled() {
+        return new BuildTrace(true);
+    }
+
+    public static BuildTrace disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Records a span of the current thread that ends now.
+     */
+    public void record(final String category, final String name, final long startTime) {
+        record(category, name, startTime, System.nanoTime());
+    }
+
+    /**
+     * Records a span of the current thread.
+     *
+     * @param startTime start of the span (from {@link System#nanoTime()})
+     * @param endTime end of the span (from {@link System#nanoTime()})
+     */
+    public void record(final String category, final String name, final long startTime,
+                       final long endTime) {
+        if (enabled) {
+            spans.add(new Span(category, name, Thread.currentThread().getId(),
+                startTime, endTime));
+        }
+    }
+
+    public void write(final Path traceFile) {
+        final List<Span> orderedSpans = new ArrayList<>(spans);
+        orderedSpans.sort(Comparator.comparingLong(s -> s.startTime));
+
+        // one track per thread -- numbered by first appearance
+        final Map<Long, String> tracks = new LinkedHashMap<>();
+        tracks.put(mainThreadId, "main");
+        for (final Span span : orderedSpans) {
+            tracks.computeIfAbsent(span.threadId, (id) -> "worker-" + tracks.size());
+        }
+
+        try {
+            if (traceFile.getParent() != null) {
+                Files.createDirectories(traceFile.getParent());
+            }
+
+            try (BufferedWriter out = Files.newBufferedWriter(traceFile, StandardCharsets.UTF_8)) {
+                out.write("{\"traceEvents\":[\n");
+
+                boolean first = true;
+                for (final Map.Entry<Long, String> track : tracks.entrySet()) {
+                    first = writeSeparator(out, first);
+                    out.write(String.format("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,"
+                        + "\"tid\":%d,\"args\":{\"name\":\"%s\"}}",
+                        track.getKey(), escape(track.getValue())));
+                }
+
+                for (final Span span : orderedSpans) {
+                    first = writeSeparator(out, first);
+                    out.write(String.format("{\"ph\":\"X\",\"cat\":\"%s\",\"name\":\"%s\","
+                        + "\"pid\":1,\"tid\":%d,\"ts\":%d,\"dur\":%d}",
+                        escape(span.category), escape(span.name), span.threadId,
+                        (span.startTime - origin) / NANO_MICRO,
+                        (span.endTime - span.startTime) / NANO_MICRO));
+                }
+
+                out.write("\n]}\n");
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean writeSeparator(final BufferedWriter out, final boolean first)
+        throws IOException {
+
+        if (!first) {
+            out.write(",\n");
+        }
+        return false;
+    }
+
+    private static String escape(final String str) {
+        final StringBuilder sb = new StringBuilder(str.length());
+        for (final char c : str.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Span {
+
+        private final String category;
+        private final String name;
+        private final long threadId;
+        private final long startTime;
+        private final long endTime;
+
+        Span(final String category, final String name, final long threadId,
+             final long startTime, final long endTime) {
+            this.category = category;
+            this.name = name;
+            this.threadId = threadId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+    }
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.LoomPaths;
+import builders.loom.util.FileUtil;
+
+/**
+ * Garbage collector of the caches of a project (in {@code .loom}).
+ * <p>
+ * Cache files record their last access by their modification time. A collection
+ * <ul>
+ * <li>removes the caches of other Loom versions,</li>
+ * <li>evicts the least recently used entries of the {@link OutputCache} that exceed the size
+ * limit (system property {@code loom.cache.max_size}, in megabytes) and removes the objects
+ * no longer referenced,</li>
+ * <li>removes all cache files not accessed within the age limit (system property
+ * {@code loom.cache.max_age}, in days).</li>
+ * </ul>
+ * A collection must not run concurrently with a build of the same project.
+ */
+public final class CacheManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheManager.class);
+
+    private static final long DEFAULT_MAX_SIZE = 1024;
+    private static final long DEFAULT_MAX_AGE = 30;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final Duration COLLECTION_INTERVAL = Duration.ofDays(1);
+    private static final String MARKER_FILE = "cache-gc";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private final Path loomDir;
+    private final Path tmpDir;
+    private final Path versionDir;
+    private final Path outputCacheDir;
+    private final Path markerFile;
+    private final long maxSize;
+    private final Duration maxAge;
+
+    public CacheManager(final Path projectBaseDir) {
+        this(projectBaseDir,
+            Long.getLong("loom.cache.max_size", DEFAULT_MAX_SIZE) * BYTES_PER_MEGABYTE,
+            Duration.ofDays(Long.getLong("loom.cache.max_age", DEFAULT_MAX_AGE)));
+    }
+
+    /**
+     * @param maxSize max size of the output cache in bytes
+     * @param maxAge max time since the last access of a cache file
+     */
+    CacheManager(final Path projectBaseDir, final long maxSize, final Duration maxAge) {
+        loomDir = LoomPaths.loomDir(projectBaseDir);
+        tmpDir = LoomPaths.tmpDir(projectBaseDir);
+        versionDir = loomDir.resolve(LoomVersion.getVersion());
+        outputCacheDir = versionDir.resolve(OutputCache.CACHE_DIR);
+        markerFile = versionDir.resolve(MARKER_FILE);
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Checks if the last collection is more than a day ago.
+     */
+    public boolean isCollectionDue() {
+        try {
+            return Files.getLastModifiedTime(markerFile).toInstant()
+                .isBefore(Instant.now().minus(COLLECTION_INTERVAL));
+        } catch (final NoSuchFileException e) {
+            return true;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs the collection.
+     *
+     * @return the number of bytes freed
+     */
+    public long collect() {
+        final Instant expiry = Instant.now().minus(maxAge);
+
+        try {
+            final long freed = removeOtherVersions()
+                + collectOutputCache(expiry)
+                + removeExpiredFiles(expiry);
+
+            Files.createDirectories(versionDir);
+            if (Files.exists(markerFile)) {
+                FileUtil.touch(markerFile);
+            } else {
+                Files.createFile(markerFile);
+            }
+
+            LOG.info("Cache garbage collection freed {} bytes", freed);
+            return freed;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long removeOtherVersions() throws IOException {
+        if (Files.notExists(loomDir)) {
+            return 0;
+        }
+
+        long freed = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(loomDir, Files::isDirectory)) {
+            for (final Path dir : dirs) {
+                if (!dir.equals(versionDir) && !dir.equals(tmpDir)) {
+                    LOG.info("Remove caches of Loom version {}", dir.getFileName());
+                    freed += listFiles(dir).stream().mapToLong(CacheFile::getSize).sum();
+                    FileUtil.deleteDirectoryRecursively(dir, true);
+                }
+            }
+        }
+        return freed;
+    }
+
+    // keeps the most recently used entries that fit into maxSize (including their objects)
+    private long collectOutputCache(final Instant expiry) throws IOException {
+        final List<CacheFile> entries =
+            listFiles(outputCacheDir.resolve(OutputCache.ENTRIES_DIR));
+        entries.sort(Comparator.comparing(CacheFile::getLastAccess).reversed());
+
+        final List<CacheFile> objects =
+            listFiles(outputCacheDir.resolve(OutputCache.OBJECTS_DIR));
+        final Map<String, Long> objectSizes = objects.stream()
+            .collect(Collectors.toMap(CacheFile::getName, CacheFile::getSize, (a, b) -> a));
+
+        final Set<String> referencedHashes = new HashSet<>();
+        long size = 0;
+        long freed = 0;
+        boolean full = false;
+
+        for (final CacheFile entry : entries) {
+            final Set<String> hashes = full || entry.isExpired(expiry)
+                ? null : readObjectHashes(entry);
+
+            if (hashes != null) {
+                final long entrySize = entry.getSize() + hashes.stream()
+                    .filter((h) -> !referencedHashes.contains(h))
+                    .mapToLong((h) -> objectSizes.getOrDefault(h, 0L))
+                    .sum();
+
+                if (size + entrySize <= maxSize) {
+                    size += entrySize;
+                    referencedHashes.addAll(hashes);
+                    continue;
+                }
+
+                // strict LRU -- all older entries are evicted as well
+                full = true;
+            }
+
+            LOG.debug("Evict output cache entry {}", entry.getFile());
+            freed += entry.delete();
+        }
+
+        for (final CacheFile object : objects) {
+            if (!referencedHashes.contains(object.getName())) {
+                freed += object.delete();
+            }
+        }
+
+        return freed;
+    }
+
+    private static Set<String> readObjectHashes(final CacheFile entry) {
+        if (entry.getName().endsWith(TMP_FILE_SUFFIX)) {
+            return null;
+        }
+
+        try {
+            return OutputCache.readObjectHashes(entry.getFile());
+        } catch (final IOException | IllegalStateException e) {
+            LOG.warn("Evict corrupt output cache entry {}: {}", entry.getFile(), e.toString());
+            return null;
+        }
+    }
+
+    // all other caches (output cache excluded) -- and directories left empty
+    private long removeExpiredFiles(final Instant expiry) throws IOException {
+        long freed = 0;
+        for (final CacheFile file : listFiles(versionDir)) {
+            if (!file.getFile().startsWith(outputCacheDir) && !file.getFile().equals(markerFile)
+                && file.isExpired(expiry)) {
+
+                LOG.debug("Remove expired cache file {}", file.getFile());
+                freed += file.delete();
+            }
+        }
+
+        removeEmptyDirectories(versionDir);
+
+        return freed;
+    }
+
+    private static void removeEmptyDirectories(final Path rootDir) throws IOException {
+        if (Files.notExists(rootDir)) {
+            return;
+        }
+
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc)
+                throws IOException {
+
+                if (!dir.equals(rootDir) && FileUtil.isDirEmpty(dir)) {
+                    Files.delete(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static List<CacheFile> listFiles(final Path dir) throws IOException {
+        final List<CacheFile> files = new ArrayList<>();
+        if (Files.notExists(dir)) {
+            return files;
+        }
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                files.add(new CacheFile(file, attrs.lastModifiedTime().toInstant(),
+                    attrs.size()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return files;
+    }
+
+    private static final class CacheFile {
+
+        private final Path file;
+        private final Instant lastAccess;
+        private final long size;
+
+        CacheFile(final Path file, final Instant lastAccess, final long size) {
+            this.file = file;
+            this.lastAccess = lastAccess;
+            this.size = size;
+        }
+
+        Path getFile() {
+            return file;
+        }
+
+        String getName() {
+            return file.getFileName().toString();
+        }
+
+        Instant getLastAccess() {
+            return lastAccess;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        boolean isExpired(final Instant expiry) {
+            return lastAccess.isBefore(expiry);
+        }
+
+        long delete() throws IOException {
+            return Files.deleteIfExists(file) ? size : 0;
+        }
+
+    }
+
+}
@@ -16,128 +16,79 @@
 
 package builders.loom.core;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import builders.loom.api.LoomPaths;
 import builders.loom.api.RuntimeConfiguration;
 import builders.loom.api.product.ManagedGenericProduct;
 import builders.loom.api.product.ManagedProduct;
 import builders.loom.api.product.OutputInfo;
 import builders.loom.core.plugin.ConfiguredTask;
-import builders.loom.util.FileUtil;
-import builders.loom.util.serialize.Record;
-import builders.loom.util.serialize.SimpleSerializer;
 
+/**
+ * Signature and product of the last execution of a task -- kept in the {@link StateStore}.
+ */
 class CachedProduct {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CachedProduct.class);
+
     private final RuntimeConfiguration runtimeConfiguration;
-    private final ConfiguredTask configuredTask;
-    private final Path productFile;
-    private final Path productInfoFile;
-    private final Path checksumFile;
+    private final StateStore stateStore;
+    private final String key;
 
     CachedProduct(final RuntimeConfiguration runtimeConfiguration,
-                  final ConfiguredTask configuredTask) {
+                  final StateStore stateStore, final ConfiguredTask configuredTask) {
         this.runtimeConfiguration = runtimeConfiguration;
-        this.configuredTask = configuredTask;
-
-        productFile = buildFileName(".product");
-        productInfoFile = buildFileName(".product.info");
-        checksumFile = buildFileName(".product.checksum");
+        this.stateStore = stateStore;
+        key = configuredTask.getBuildContext().getModuleName() + "#"
+            + configuredTask.getProvidedProduct();
     }
 
-    private Path buildFileName(final String suffix) {
-        return LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
-            .resolve(Paths.get(LoomVersion.getVersion(), "execution-prevention", "products",
-                configuredTask.getBuildContext().getModuleName(),
-                configuredTask.getProvidedProduct() + suffix));
-    }
+    /**
+     * Loads the product of the last execution -- if it had the given signature.
+     */
+    Optional<ManagedProduct> load(final String signature) {
+        final Optional<String> lastSignature = stateStore.getSignature(key);
+        if (!lastSignature.isPresent()) {
+            return Optional.empty();
+        }
 
-    boolean available() {
-        return Files.exists(productFile);
+        final boolean equals = lastSignature.get().equals(signature);
+        LOG.info("Last run: {} - current: {}; equals: {}", lastSignature.get(), signature, equals);
+        return equals ? load() : Optional.empty();
     }
 
-    ManagedProduct load() {
-        final Map<String, List<String>> properties = new HashMap<>();
-
-        try {
-            final String checksum = FileUtil.readToString(checksumFile);
-
-            SimpleSerializer.read(productFile, (e) -> {
-                final String key = e.getFields().get(0);
-                final List<String> values = e.getFields().subList(1, e.getFields().size());
-                properties.put(key, values);
-            });
-
-            final AtomicReference<OutputInfo> outputInfo = new AtomicReference<>();
-
-            if (Files.exists(productInfoFile)) {
-                SimpleSerializer.read(productInfoFile, (e) -> {
-                    final String name = e.getFields().get(0);
-                    final Path artifact = Paths.get(e.getFields().get(1));
-                    outputInfo.set(new OutputInfo(name, artifact));
-                });
-            }
-
-            return new ManagedGenericProduct(properties, checksum, outputInfo.get());
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    /**
+     * Loads the product of the last execution.
+     */
+    Optional<ManagedProduct> load() {
+        return stateStore.getProduct(key);
     }
 
     void prepare() {
-        try {
-            Files.deleteIfExists(checksumFile);
-            Files.deleteIfExists(productInfoFile);
-            Files.deleteIfExists(productFile);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        stateStore.remove(key);
     }
 
-    void persist(final ManagedProduct product) {
+    void persist(final String signature, final ManagedProduct product) {
         Objects.requireNonNull(product, "product is required");
+        stateStore.put(key, signature, relativizeArtifact(product));
+    }
 
-        try {
-            Files.createDirectories(checksumFile.getParent());
-
-            final String checksum;
-            final Map<String, List<String>> properties = product.getProperties();
-
-            SimpleSerializer.write(productFile, properties.entrySet(), (e) -> {
-                final List<String> elements = new ArrayList<>();
-                elements.add(e.getKey());
-                elements.addAll(e.getValue());
-                return new Record(elements);
-            });
-
-            if (product.getOutputInfo().isPresent()) {
-                final OutputInfo outputInfo = product.getOutputInfo().get();
-
-                final Path relativeArtifactPath = runtimeConfiguration.getProjectBaseDir()
-                    .toAbsolutePath().relativize(outputInfo.getArtifact().toAbsolutePath());
-
-                SimpleSerializer.write(productInfoFile, List.of(outputInfo),
-                    (e) -> new Record(e.getName(), relativeArtifactPath.toString()));
-            }
+    private ManagedProduct relativizeArtifact(final ManagedProduct product) {
+        final Optional<OutputInfo> outputInfo = product.getOutputInfo();
+        if (!outputInfo.isPresent() || outputInfo.get().getArtifact() == null) {
+            return product;
+        }
 
-            checksum = product.checksum();
+        final Path relativeArtifactPath = runtimeConfiguration.getProjectBaseDir()
+            .toAbsolutePath().relativize(outputInfo.get().getArtifact().toAbsolutePath());
 
-            FileUtil.writeStringToFile(checksumFile, checksum, StandardOpenOption.CREATE_NEW);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return new ManagedGenericProduct(product.getProperties(), product.checksum(),
+            new OutputInfo(outputInfo.get().getName(), relativeArtifactPath));
     }
 
 }
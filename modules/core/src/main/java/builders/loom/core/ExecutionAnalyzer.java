@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import builders.loom.api.UsedProducts;
+import builders.loom.core.plugin.ConfiguredTask.ExecutionReportItem;
+
+/**
+ * Analyzes the executed jobs of a build -- critical path, wait times and utilization.
+ */
+final class ExecutionAnalyzer {
+
+    private final JobGraph jobGraph;
+    private final int workerCount;
+
+    ExecutionAnalyzer(final JobGraph jobGraph, final int workerCount) {
+        this.jobGraph = jobGraph;
+        this.workerCount = workerCount;
+    }
+
+    ExecutionReport analyze() {
+        final List<Job> startedJobs = jobGraph.getJobs().stream()
+            .filter(job -> job.getStartedAt() != 0 && job.getFinishedAt() != 0)
+            .sorted(Comparator.comparingLong(Job::getFinishedAt))
+            .collect(Collectors.toList());
+
+        final long firstQueuedAt = startedJobs.stream()
+            .mapToLong(Job::getQueuedAt)
+            .min().orElse(0);
+        final long lastFinishedAt = startedJobs.stream()
+            .mapToLong(Job::getFinishedAt)
+            .max().orElse(0);
+        final long busyTime = startedJobs.stream()
+            .mapToLong(job -> job.getFinishedAt() - job.getStartedAt())
+            .sum();
+
+        final ExecutionReport report = new ExecutionReport(lastFinishedAt - firstQueuedAt,
+            busyTime, workerCount, Runtime.getRuntime().availableProcessors());
+
+        final Set<Job> criticalPath = criticalPath(startedJobs);
+        for (final Job job : startedJobs) {
+            final ExecutionReportItem item = job.getConfiguredTask().buildReportItem();
+            report.add(item.getReportKey(), new ExecutionStatus(job.getTaskStatus(),
+                item.getType(),
+                job.getStartedAt() - job.getQueuedAt(), blockedTimes(job), job.getSelfTime(),
+                criticalPath.contains(job)));
+        }
+
+        return report;
+    }
+
+    // walk back from the last finished job -- always to the upstream job finished last
+    private Set<Job> criticalPath(final List<Job> startedJobs) {
+        final Set<Job> path = new HashSet<>();
+        Optional<Job> job = startedJobs.isEmpty()
+            ? Optional.empty()
+            : Optional.of(startedJobs.get(startedJobs.size() - 1));
+
+        while (job.isPresent()) {
+            path.add(job.get());
+            job = jobGraph.getUpstream(job.get()).stream()
+                .filter(upstream -> upstream.getFinishedAt() != 0)
+                .max(Comparator.comparingLong(Job::getFinishedAt));
+        }
+
+        return path;
+    }
+
+    private static Map<String, Long> blockedTimes(final Job job) {
+        final Map<String, Long> blockedTimes = new LinkedHashMap<>();
+        for (final UsedProducts.ProductWait wait : job.getProductWaits()) {
+            blockedTimes.merge(wait.getModuleName() + " > " + wait.getProductId(),
+                wait.getEndTime() - wait.getStartTime(), Long::sum);
+        }
+        return blockedTimes;
+    }
+
+}
@@ -16,24 +16,85 @@
 
 package builders.loom.core;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-import builders.loom.api.TaskStatus;
-import builders.loom.core.plugin.TaskType;
-
 public class ExecutionReport {
 
-    private final Map<String, ExecutionStatus> durations = new LinkedHashMap<>();
+    private final Map<String, ExecutionStatus> executionStatuses = new LinkedHashMap<>();
+    private final List<String> criticalPath = new ArrayList<>();
+    private final long wallTime;
+    private final long busyTime;
+    private final int workerCount;
+    private final int availableProcessors;
+
+    ExecutionReport(final long wallTime, final long busyTime, final int workerCount,
+                    final int availableProcessors) {
+        this.wallTime = wallTime;
+        this.busyTime = busyTime;
+        this.workerCount = workerCount;
+        this.availableProcessors = availableProcessors;
+    }
+
+    void add(final String reportKey, final ExecutionStatus executionStatus) {
+        executionStatuses.put(reportKey, executionStatus);
+        if (executionStatus.isCriticalPath()) {
+            criticalPath.add(reportKey);
+        }
+    }
+
+    /**
+     * Execution status of every task, ordered by completion time.
+     */
+    public Map<String, ExecutionStatus> getExecutionStatuses() {
+        return Collections.unmodifiableMap(executionStatuses);
+    }
+
+    /**
+     * The chain of tasks that determined the wall time of the build -- each task on the path
+     * was the last one its successor had to wait for.
+     */
+    public List<String> getCriticalPath() {
+        return Collections.unmodifiableList(criticalPath);
+    }
+
+    /**
+     * Time (in nanoseconds) from queueing the first task until the last task finished.
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Sum of the time (in nanoseconds) the workers were busy executing tasks.
+     */
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
 
-    public void add(final String reportKey, final TaskType type, final TaskStatus taskStatus,
-                    final long duration) {
-        durations.put(reportKey, new ExecutionStatus(taskStatus, type, duration));
+    /**
+     * Average number of busy workers.
+     */
+    public double getParallelism() {
+        return wallTime == 0 ? 0 : (double) busyTime / wallTime;
     }
 
-    public Map<String, ExecutionStatus> getDurations() {
-        return Collections.unmodifiableMap(durations);
+    /**
+     * Average number of busy workers related to the available processors (0..1).
+     */
+    public double getUtilization() {
+        return getParallelism() / availableProcessors;
     }
 
 }
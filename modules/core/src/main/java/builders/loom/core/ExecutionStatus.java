@@ -16,6 +16,9 @@
 
 package builders.loom.core;
 
+import java.util.Collections;
+import java.util.Map;
+
 import builders.loom.api.TaskStatus;
 import builders.loom.core.plugin.TaskType;
 
@@ -23,13 +26,20 @@ public class ExecutionStatus {
 
     private final TaskStatus taskStatus;
     private final TaskType type;
-    private final long duration;
+    private final long queuedTime;
+    private final Map<String, Long> blockedTimes;
+    private final long selfTime;
+    private final boolean criticalPath;
 
-    ExecutionStatus(final TaskStatus taskStatus, final TaskType type,
-                    final long duration) {
+    ExecutionStatus(final TaskStatus taskStatus, final TaskType type, final long queuedTime,
+                    final Map<String, Long> blockedTimes, final long selfTime,
+                    final boolean criticalPath) {
         this.taskStatus = taskStatus;
         this.type = type;
-        this.duration = duration;
+        this.queuedTime = queuedTime;
+        this.blockedTimes = Collections.unmodifiableMap(blockedTimes);
+        this.selfTime = selfTime;
+        this.criticalPath = criticalPath;
     }
 
     public TaskStatus getTaskStatus() {
@@ -40,8 +50,35 @@ public class ExecutionStatus {
         return type;
     }
 
-    public long getDuration() {
-        return duration;
+    /**
+     * Time (in nanoseconds) between all upstream products being available and a worker
+     * picking up the task.
+     */
+    public long getQueuedTime() {
+        return queuedTime;
+    }
+
+    /**
+     * Time (in nanoseconds) the task was blocked waiting for products (key is
+     * {@code module > product}).
+     */
+    public Map<String, Long> getBlockedTimes() {
+        return blockedTimes;
+    }
+
+    public long getBlockedTime() {
+        return blockedTimes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Execution time (in nanoseconds) without blocked time.
+     */
+    public long getSelfTime() {
+        return selfTime;
+    }
+
+    public boolean isCriticalPath() {
+        return criticalPath;
     }
 
 }
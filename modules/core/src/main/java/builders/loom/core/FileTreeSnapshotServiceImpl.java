@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.FileTreeSnapshot;
+import builders.loom.api.FileTreeSnapshotService;
+import builders.loom.util.FileDigestCache;
+import builders.loom.util.Hasher;
+import builders.loom.util.Stopwatch;
+
+/**
+ * Snapshots of the directory trees of one build -- trees are walked in parallel
+ * (one fork per subdirectory) and file contents are hashed on first request.
+ */
+class FileTreeSnapshotServiceImpl implements FileTreeSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileTreeSnapshotServiceImpl.class);
+
+    private final Map<Path, Tree> trees = new ConcurrentHashMap<>();
+
+    @Override
+    public FileTreeSnapshot snapshot(final Path rootDir) {
+        final Tree tree = trees.computeIfAbsent(key(rootDir), Tree::new);
+        return new FileTreeSnapshotImpl(rootDir, tree);
+    }
+
+    @Override
+    public FileTreeSnapshot update(final Path rootDir) {
+        final Tree tree = new Tree(key(rootDir));
+        trees.put(tree.rootDir, tree);
+        return new FileTreeSnapshotImpl(rootDir, tree);
+    }
+
+    private static Path key(final Path rootDir) {
+        return rootDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * The (lazily walked) files of a tree -- keyed by their path relative to the root.
+     */
+    private static final class Tree {
+
+        private final Path rootDir;
+        private volatile Map<Path, FileState> files;
+        private volatile String contentChecksum;
+
+        Tree(final Path rootDir) {
+            this.rootDir = rootDir;
+        }
+
+        Map<Path, FileState> files() {
+            Map<Path, FileState> result = files;
+            if (result == null) {
+                synchronized (this) {
+                    result = files;
+                    if (result == null) {
+                        result = walk();
+                        files = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private Map<Path, FileState> walk() {
+            final Stopwatch sw = new Stopwatch();
+            final Map<Path, FileState> result = new TreeMap<>(Comparator.comparing(Path::toString));
+
+            if (Files.isDirectory(rootDir)) {
+                for (final FileState file : ForkJoinPool.commonPool()
+                    .invoke(new WalkTask(rootDir))) {
+                    result.put(rootDir.relativize(file.file), file);
+                }
+            }
+
+            LOG.debug("Snapshot of {} with {} files taken in {}", rootDir, result.size(), sw);
+            return result;
+        }
+
+        String contentChecksum() {
+            String result = contentChecksum;
+            if (result == null) {
+                final Map<Path, FileState> fileStates = files();
+
+                // hash the files in parallel -- combine in order
+                fileStates.values().parallelStream().forEach(FileState::contentHash);
+
+                final Hasher hasher = new Hasher();
+                fileStates.forEach((relativePath, file) -> hasher
+                    .putString(relativePath.toString())
+                    .putBytes(file.contentHash()));
+
+                result = hasher.hashHex();
+                contentChecksum = result;
+            }
+            return result;
+        }
+
+    }
+
+    private static final class FileState {
+
+        private final Path file;
+        private final BasicFileAttributes attributes;
+        private volatile byte[] contentHash;
+
+        FileState(final Path file, final BasicFileAttributes attributes) {
+            this.file = file;
+            this.attributes = attributes;
+        }
+
+        byte[] contentHash() {
+            byte[] result = contentHash;
+            if (result == null) {
+                result = FileDigestCache.digestOf(file, attributes);
+                contentHash = result;
+            }
+            return result;
+        }
+
+    }
+
+    private static final class WalkTask extends RecursiveTask<List<FileState>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        WalkTask(final Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<FileState> compute() {
+            final List<FileState> files = new ArrayList<>();
+            final List<WalkTask> subTasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (final Path entry : entries) {
+                    final BasicFileAttributes attrs = Files.readAttributes(entry,
+                        BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+                    if (attrs.isDirectory()) {
+                        final WalkTask subTask = new WalkTask(entry);
+                        subTask.fork();
+                        subTasks.add(subTask);
+                    } else if (attrs.isRegularFile()) {
+                        files.add(new FileState(entry, attrs));
+                    }
+                }
+            } catch (final NoSuchFileException e) {
+                return files;
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (final WalkTask subTask : subTasks) {
+                files.addAll(subTask.join());
+            }
+
+            return files;
+        }
+
+    }
+
+    private static final class FileTreeSnapshotImpl implements FileTreeSnapshot {
+
+        private final Path rootDir;
+        private final Tree tree;
+
+        FileTreeSnapshotImpl(final Path rootDir, final Tree tree) {
+            this.rootDir = rootDir;
+            this.tree = tree;
+        }
+
+        @Override
+        public Path getRootDir() {
+            return rootDir;
+        }
+
+        @Override
+        public List<Path> getFiles() {
+            return tree.files().keySet().stream()
+                .map(rootDir::resolve)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public BasicFileAttributes getAttributes(final Path file) {
+            return fileState(file).attributes;
+        }
+
+        @Override
+        public String getContentHash(final Path file) {
+            return Hasher.toHex(fileState(file).contentHash());
+        }
+
+        @Override
+        public String getContentChecksum() {
+            return tree.contentChecksum();
+        }
+
+        private FileState fileState(final Path file) {
+            final FileState fileState = tree.files().get(relativize(file));
+            if (fileState == null) {
+                throw new IllegalArgumentException("File " + file + " not in snapshot of "
+                    + rootDir);
+            }
+            return fileState;
+        }
+
+        private Path relativize(final Path file) {
+            return file.isAbsolute() == rootDir.isAbsolute()
+                ? rootDir.relativize(file)
+                : tree.rootDir.relativize(file.toAbsolutePath().normalize());
+        }
+
+        @Override
+        public String toString() {
+            return "FileTreeSnapshot{rootDir=" + rootDir + '}';
+        }
+
+    }
+
+}
@@ -18,7 +18,7 @@ package builders.loom.core;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
@@ -27,12 +27,13 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import builders.loom.api.BuildContext;
+import builders.loom.api.FileTreeSnapshotAware;
+import builders.loom.api.FileTreeSnapshotService;
 import builders.loom.api.LoomPaths;
 import builders.loom.api.Module;
 import builders.loom.api.ModuleBuildConfigAware;
@@ -52,6 +53,8 @@ import builders.loom.api.UsedProducts;
 import builders.loom.api.product.ManagedProduct;
 import builders.loom.api.product.OutputInfo;
 import builders.loom.api.product.Product;
+import builders.loom.core.jfr.EventScope;
+import builders.loom.core.jfr.LoomEvents;
 import builders.loom.core.plugin.ConfiguredTask;
 
 @SuppressWarnings("checkstyle:classfanoutcomplexity")
@@ -67,10 +70,19 @@ public class Job implements Callable<TaskStatus> {
     private final ConfiguredTask configuredTask;
     private final ProductRepository productRepository;
     private final Map<Module, Set<Module>> transitiveModuleCompileDependencies;
-    private final Map<BuildContext, ProductRepository> moduleProductRepositories;
-    private final Set<Module> modules;
+    private final ProductRepositories productRepositories;
     private final TestProgressEmitter testProgressEmitter;
-    private UsedProducts usedProducts;
+    private final ProductPromise providedProductPromise;
+    private final UsedProducts usedProducts;
+    private final BuildTrace buildTrace;
+    private final RemoteCache remoteCache;
+    private final StateStore stateStore;
+    private final FileTreeSnapshotService fileTreeSnapshotService;
+    private volatile TaskStatus taskStatus;
+    private volatile long selfTime;
+    private volatile long queuedAt;
+    private volatile long startedAt;
+    private volatile long finishedAt;
 
     @SuppressWarnings("checkstyle:parameternumber")
     Job(final String name,
@@ -80,8 +92,12 @@ public class Job implements Callable<TaskStatus> {
         final ConfiguredTask configuredTask,
         final ProductRepository productRepository,
         final Map<Module, Set<Module>> transitiveModuleCompileDependencies,
-        final Map<BuildContext, ProductRepository> moduleProductRepositories,
-        final TestProgressEmitter emitter) {
+        final ProductRepositories productRepositories,
+        final TestProgressEmitter emitter,
+        final BuildTrace buildTrace,
+        final RemoteCache remoteCache,
+        final StateStore stateStore,
+        final FileTreeSnapshotService fileTreeSnapshotService) {
 
         this.name = Objects.requireNonNull(name, "name required");
         this.buildContext = buildContext;
@@ -91,11 +107,14 @@ public class Job implements Callable<TaskStatus> {
         this.productRepository =
             Objects.requireNonNull(productRepository, "productRepository required");
         this.transitiveModuleCompileDependencies = transitiveModuleCompileDependencies;
-        this.moduleProductRepositories = moduleProductRepositories;
-        this.modules = moduleProductRepositories.keySet().stream()
-            .filter(Module.class::isInstance)
-            .map(Module.class::cast).collect(Collectors.toSet());
+        this.productRepositories = productRepositories;
         testProgressEmitter = emitter;
+        this.buildTrace = buildTrace;
+        this.remoteCache = remoteCache;
+        this.stateStore = stateStore;
+        this.fileTreeSnapshotService = fileTreeSnapshotService;
+        providedProductPromise = productRepository.require(configuredTask.getProvidedProduct());
+        usedProducts = buildProductView();
     }
 
     public String getName() {
@@ -105,41 +124,48 @@ public class Job implements Callable<TaskStatus> {
     @Override
     public TaskStatus call() throws Exception {
         status.set(JobStatus.RUNNING);
+        final long start = System.nanoTime();
+        startedAt = start;
+        final EventScope jobEvent =
+            LoomEvents.job(buildContext.getModuleName(), configuredTask.getName());
         try {
             LOG.info("Start task {}", name);
-            usedProducts = buildProductView();
 
             final AbstractTaskExecutionStrategy strategy = runtimeConfiguration.isCacheEnabled()
-                ? new CacheableTaskRun(prepareProductPromise())
-                : new TaskRun(prepareProductPromise());
+                ? new CacheableTaskRun(providedProductPromise)
+                : new TaskRun(providedProductPromise);
 
-            return strategy.run().getStatus();
+            taskStatus = strategy.run().getStatus();
+            return taskStatus;
         } finally {
+            finishedAt = System.nanoTime();
+            selfTime = finishedAt - start - usedProducts.getBlockedTime();
             status.set(JobStatus.STOPPED);
+            jobEvent.finish(taskStatus != null ? taskStatus.name() : "ERROR");
+            traceExecution(start);
         }
     }
 
-    private ProductPromise prepareProductPromise() {
-        final ProductPromise productPromise = productRepository
-            .require(configuredTask.getProvidedProduct());
-
-        productPromise.startTimer();
-
-        return productPromise;
+    private void traceExecution(final long start) {
+        buildTrace.record("task", name, start);
+        for (final UsedProducts.ProductWait wait : usedProducts.getProductWaits()) {
+            buildTrace.record("wait", "wait for " + wait.getModuleName() + " > "
+                + wait.getProductId(), wait.getStartTime(), wait.getEndTime());
+        }
     }
 
     private UsedProducts buildProductView() {
         final Set<ProductPromise> productPromises = new HashSet<>();
 
         configuredTask.getOptionallyUsedProducts().stream()
-            .map(moduleProductRepositories.get(buildContext)::lookup)
+            .map(productRepository::lookup)
             .filter(Optional::isPresent)
             .map(Optional::get)
             .forEach(productPromises::add);
 
         // inner module dependencies
         configuredTask.getUsedProducts().stream()
-            .map(moduleProductRepositories.get(buildContext)::require)
+            .map(productRepository::require)
             .forEach(productPromises::add);
 
         // explicit import from other modules
@@ -155,14 +181,28 @@ public class Job implements Callable<TaskStatus> {
         // import from all modules (e.g. for Eclipse / IntelliJ plugin)
         final Set<String> importedAllProducts = configuredTask.getImportedAllProducts();
         if (!importedAllProducts.isEmpty()) {
-            modules.stream()
+            productRepositories.getModules().stream()
                 .map(Module::getModuleName)
                 .flatMap(moduleName -> importedAllProducts.stream()
                     .map(p -> buildModuleProduct(moduleName, p)))
                 .forEach(productPromises::add);
         }
 
-        return new UsedProducts(buildContext.getModuleName(), productPromises);
+        return new UsedProducts(buildContext.getModuleName(), productPromises) {
+            @Override
+            protected Optional<Product> awaitProduct(final ProductPromise productPromise)
+                throws InterruptedException {
+
+                final EventScope waitEvent = LoomEvents.productWait(
+                    buildContext.getModuleName(), productPromise.getModuleName(),
+                    productPromise.getProductId());
+                try {
+                    return super.awaitProduct(productPromise);
+                } finally {
+                    waitEvent.finish();
+                }
+            }
+        };
     }
 
     private void injectTaskDependencies(final Task task) {
@@ -186,6 +226,10 @@ public class Job implements Callable<TaskStatus> {
             final TestProgressEmitterAware tpea = (TestProgressEmitterAware) task;
             tpea.setTestProgressEmitter(testProgressEmitter);
         }
+        if (task instanceof FileTreeSnapshotAware) {
+            final FileTreeSnapshotAware ftsa = (FileTreeSnapshotAware) task;
+            ftsa.setFileTreeSnapshotService(fileTreeSnapshotService);
+        }
         if (task instanceof RepositoryPathAware) {
             final RepositoryPathAware rpa = (RepositoryPathAware) task;
             final Path repositoryPath = LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
@@ -201,19 +245,71 @@ public class Job implements Callable<TaskStatus> {
         Objects.requireNonNull(moduleName, "moduleName required");
         Objects.requireNonNull(productId, "productId required");
 
-        return moduleProductRepositories.entrySet().stream()
-            .filter(e -> e.getKey().getModuleName().equals(moduleName))
-            .map(Map.Entry::getValue)
-            .findFirst()
-            .orElseThrow(() -> new IllegalStateException("Module <" + moduleName + "> not found"))
-            .require(productId);
+        return productRepositories.require(moduleName, productId);
     }
 
-    Set<ProductPromise> getActuallyUsedProducts() {
-        if (usedProducts == null) {
-            return Collections.emptySet();
-        }
-        return usedProducts.getActuallyUsedProducts();
+    ConfiguredTask getConfiguredTask() {
+        return configuredTask;
+    }
+
+    ProductPromise getProvidedProductPromise() {
+        return providedProductPromise;
+    }
+
+    /**
+     * All products this job may wait for (used, optionally used and imported products).
+     */
+    Set<ProductPromise> getUsedProductPromises() {
+        return usedProducts.getAllProducts();
+    }
+
+    Collection<UsedProducts.ProductWait> getProductWaits() {
+        return usedProducts.getProductWaits();
+    }
+
+    /**
+     * Called when the job has been handed over to the workers.
+     */
+    void markQueued() {
+        queuedAt = System.nanoTime();
+    }
+
+    /**
+     * Point in time (from {@link System#nanoTime()}) the job has been handed over to the workers
+     * or 0 if it hasn't been queued.
+     */
+    long getQueuedAt() {
+        return queuedAt;
+    }
+
+    /**
+     * Point in time (from {@link System#nanoTime()}) the job has been started or 0 if it hasn't
+     * been started.
+     */
+    long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Point in time (from {@link System#nanoTime()}) the job has been finished or 0 if it hasn't
+     * finished.
+     */
+    long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Status of the executed task or {@code null} if the job hasn't finished (yet).
+     */
+    TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    /**
+     * Execution time (in nanoseconds) without the time spent waiting for used products.
+     */
+    long getSelfTime() {
+        return selfTime;
     }
 
     @Override
@@ -229,22 +325,58 @@ public class Job implements Callable<TaskStatus> {
         private final ProductPromise productPromise;
         private final TaskExecutionPrediction tep;
         private final CachedProduct cachedProduct;
+        private final OutputCache outputCache;
+        private ManagedProduct skipProduct;
 
         CacheableTaskRun(final ProductPromise productPromise) {
             super(productPromise);
             this.productPromise = productPromise;
-            tep = new TaskExecutionPrediction(runtimeConfiguration, configuredTask, usedProducts);
-            cachedProduct = new CachedProduct(runtimeConfiguration, configuredTask);
+            tep = new TaskExecutionPrediction(configuredTask, usedProducts);
+            cachedProduct = new CachedProduct(runtimeConfiguration, stateStore, configuredTask);
+            outputCache = new OutputCache(runtimeConfiguration, configuredTask, remoteCache);
         }
 
         @Override
         protected boolean canSkip() {
-            return tep.canSkipTask() && cachedProduct.available();
+            final long start = System.nanoTime();
+            final EventScope skipCheckEvent =
+                LoomEvents.skipCheck(buildContext.getModuleName(), configuredTask.getName());
+            boolean skip = false;
+            try {
+                final Optional<ManagedProduct> product = cachedProduct.load(tep.getSignature());
+                if (product.isPresent() && outputCache.outputsPresent(product.get())) {
+                    skipProduct = product.get();
+
+                    // keeps the entry from being garbage collected
+                    outputCache.touch(tep.getSignature());
+                }
+                buildTrace.record("skipCheck", "skip check " + name, start);
+
+                if (skipProduct == null && tep.isRepeatable()) {
+                    restoreOutputs();
+                }
+
+                skip = skipProduct != null;
+                return skip;
+            } finally {
+                skipCheckEvent.finish(skip ? "skip" : "execute");
+            }
+        }
+
+        private void restoreOutputs() {
+            final long start = System.nanoTime();
+            final Optional<ManagedProduct> product = outputCache.restore(tep.getSignature());
+            if (product.isPresent()) {
+                LOG.info("Restored outputs of task {} from output cache", name);
+                cachedProduct.persist(tep.getSignature(), product.get());
+                skipProduct = product.get();
+                buildTrace.record("cache", "restore outputs " + name, start);
+            }
         }
 
         @Override
         protected TaskResult doSkip() {
-            final TaskResult taskResult = TaskResult.skip(cachedProduct.load());
+            final TaskResult taskResult = TaskResult.skip(skipProduct);
 
             LOG.info("Task (skipped) resulted with {}", taskResult);
 
@@ -255,8 +387,13 @@ public class Job implements Callable<TaskStatus> {
 
         @Override
         protected void beginTransaction() {
+            detachPreviousOutputs();
             cachedProduct.prepare();
-            tep.clearSignature();
+        }
+
+        // outputs may be links into the output cache -- the task must not change them in place
+        private void detachPreviousOutputs() {
+            cachedProduct.load().ifPresent(outputCache::detach);
         }
 
         @Override
@@ -266,8 +403,12 @@ public class Job implements Callable<TaskStatus> {
 
         @Override
         protected void commitTransaction(final ManagedProduct product) {
-            cachedProduct.persist(product);
-            tep.commitSignature();
+            final long start = System.nanoTime();
+            if (tep.isRepeatable()) {
+                outputCache.store(tep.getSignature(), product);
+            }
+            cachedProduct.persist(tep.getSignature(), product);
+            buildTrace.record("cache", "persist product " + name, start);
         }
 
     }
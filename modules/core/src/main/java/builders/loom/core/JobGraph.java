@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import builders.loom.api.ProductPromise;
+
+/**
+ * Dependencies between jobs, derived from the products each job provides and uses.
+ */
+final class JobGraph {
+
+    private final List<Job> jobs;
+    private final Map<Job, Set<Job>> upstream = new HashMap<>();
+    private final Map<Job, Set<Job>> downstream = new HashMap<>();
+
+    JobGraph(final Collection<Job> jobs) {
+        this.jobs = new ArrayList<>(jobs);
+
+        final Map<ProductPromise, Job> providers = new HashMap<>();
+        for (final Job job : jobs) {
+            providers.put(job.getProvidedProductPromise(), job);
+            upstream.put(job, new LinkedHashSet<>());
+            downstream.put(job, new LinkedHashSet<>());
+        }
+
+        for (final Job job : jobs) {
+            for (final ProductPromise productPromise : job.getUsedProductPromises()) {
+                final Job provider = providers.get(productPromise);
+                if (provider == null && productPromise.isCompleted()) {
+                    // provided by an earlier execution (continuous build)
+                    continue;
+                }
+                if (provider == null) {
+                    throw new IllegalStateException("Job <" + job.getName() + "> uses product <"
+                        + productPromise.getProductId() + "> of module <"
+                        + productPromise.getModuleName() + "> which is provided by no job");
+                }
+                upstream.get(job).add(provider);
+                downstream.get(provider).add(job);
+            }
+        }
+    }
+
+    List<Job> getJobs() {
+        return Collections.unmodifiableList(jobs);
+    }
+
+    Set<Job> getUpstream(final Job job) {
+        return Collections.unmodifiableSet(upstream.get(job));
+    }
+
+    Set<Job> getDownstream(final Job job) {
+        return Collections.unmodifiableSet(downstream.get(job));
+    }
+
+    /**
+     * Jobs ordered so that every job is listed after all of its upstream jobs.
+     */
+    List<Job> topologicalOrder() {
+        final Map<Job, Integer> pending = new HashMap<>();
+        final Deque<Job> ready = new ArrayDeque<>();
+        for (final Job job : jobs) {
+            final int cnt = upstream.get(job).size();
+            pending.put(job, cnt);
+            if (cnt == 0) {
+                ready.add(job);
+            }
+        }
+
+        final List<Job> ordered = new ArrayList<>(jobs.size());
+        while (!ready.isEmpty()) {
+            final Job job = ready.poll();
+            ordered.add(job);
+            for (final Job dependent : downstream.get(job)) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (ordered.size() != jobs.size()) {
+            throw new IllegalStateException("Jobs have cyclic product dependencies");
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Calculates for every job the length of the longest path from (and including) that job
+     * to the end of the build. Jobs on the critical path have the highest values.
+     */
+    Map<Job, Long> remainingPathLengths(final ToLongFunction<Job> weight) {
+        final List<Job> ordered = topologicalOrder();
+        final Map<Job, Long> lengths = new HashMap<>();
+
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            final Job job = ordered.get(i);
+            long maxDownstream = 0;
+            for (final Job dependent : downstream.get(job)) {
+                maxDownstream = Math.max(maxDownstream, lengths.get(dependent));
+            }
+            lengths.put(job, weight.applyAsLong(job) + maxDownstream);
+        }
+
+        return lengths;
+    }
+
+}
@@ -16,21 +16,40 @@
 
 package builders.loom.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 
+import builders.loom.api.TaskStatus;
+
+/**
+ * Executes jobs on a bounded number of workers.
+ * <p>
+ * A job is dispatched as soon as all products it uses have been completed -- so no worker is
+ * ever blocked waiting for a product. Dispatched jobs are executed in the order of their
+ * remaining critical path length (longest first), so long task chains get started early.
+ */
+@SuppressWarnings({"checkstyle:classdataabstractioncoupling", "checkstyle:classfanoutcomplexity"})
 public class JobPool {
 
     private static final Logger LOG = LoggerFactory.getLogger(JobPool.class);
@@ -38,70 +57,161 @@ public class JobPool {
 
     private final ProgressMonitor progressMonitor;
     private final AtomicReference<Throwable> firstException = new AtomicReference<>();
-    private final ExecutorService executor;
+    private final ThreadPoolExecutor executor;
     private final Timer timer;
     private final ConcurrentHashMap<String, Job> currentJobs = new ConcurrentHashMap<>();
     private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    private final CompletableFuture<Void> allJobsDone = new CompletableFuture<>();
+    private final AtomicLong dispatchSequence = new AtomicLong();
+    private final AtomicInteger remainingJobs = new AtomicInteger();
+    private final Map<Job, AtomicInteger> pendingUpstreamJobs = new HashMap<>();
+    private JobGraph jobGraph;
+    private Map<Job, Long> priorities;
+
+    public JobPool(final ProgressMonitor progressMonitor, final int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be at least 1");
+        }
 
-    public JobPool(final ProgressMonitor progressMonitor) {
         this.progressMonitor = progressMonitor;
 
         // do not enable daemon threads -- sub-threads (e.g. unit tests) would also become daemon
         // threads -- this causes commons-lang testsuite to fail
-        executor = Executors.newCachedThreadPool();
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>());
 
         timer = new Timer("JobPoolMonitor", true);
         timer.schedule(new MonitorTask(), MONITOR_INTERVAL, MONITOR_INTERVAL);
+
+        LOG.debug("Initialized Job Pool with {} workers", workerCount);
+    }
+
+    /**
+     * Submits all jobs of the build.
+     *
+     * @param jobs the jobs to execute
+     * @param durationEstimate the estimated duration of a job (used for prioritization)
+     */
+    public void submitAll(final Collection<Job> jobs, final ToLongFunction<Job> durationEstimate) {
+        Objects.requireNonNull(jobs, "jobs must not be null");
+        Objects.requireNonNull(durationEstimate, "durationEstimate must not be null");
+
+        if (jobGraph != null) {
+            throw new IllegalStateException("Jobs already submitted");
+        }
+
+        jobGraph = new JobGraph(jobs);
+        priorities = jobGraph.remainingPathLengths(durationEstimate);
+
+        final List<Job> readyJobs = new ArrayList<>();
+        for (final Job job : jobs) {
+            final int upstreamCnt = jobGraph.getUpstream(job).size();
+            pendingUpstreamJobs.put(job, new AtomicInteger(upstreamCnt));
+            if (upstreamCnt == 0) {
+                readyJobs.add(job);
+            }
+        }
+
+        for (final Job job : jobs) {
+            job.getProvidedProductPromise().whenCompleted(() -> onJobCompleted(job));
+        }
+
+        remainingJobs.set(jobs.size());
+        if (jobs.isEmpty()) {
+            allJobsDone.complete(null);
+            return;
+        }
+
+        readyJobs.forEach(this::dispatch);
+    }
+
+    private void dispatch(final Job job) {
+        if (firstException.get() != null) {
+            return;
+        }
+
+        LOG.debug("Submit job {} with priority {}", job.getName(), priorities.get(job));
+
+        job.markQueued();
+        try {
+            executor.execute(new PrioritizedJob(job, priorities.get(job),
+                dispatchSequence.getAndIncrement()));
+        } catch (final RejectedExecutionException e) {
+            // pool has been shut down because of a failed job
+            LOG.debug("Job {} rejected", job.getName());
+        }
     }
 
+    // a dependent job that can't be dispatched would never complete -- abort the build
     @SuppressWarnings("checkstyle:illegalcatch")
-    public void submitJob(final Job job) {
-        Objects.requireNonNull(job, "job must not be null");
+    private void onJobCompleted(final Job job) {
+        try {
+            releaseDownstreamJobs(job);
+        } catch (final Throwable e) {
+            abort(e);
+        }
+    }
 
-        if (executor.isShutdown()) {
-            throw new IllegalStateException("Pool already shut down");
+    private void releaseDownstreamJobs(final Job job) {
+        // Don't start any dependent jobs of a failed job. They are never dispatched, so
+        // remainingJobs never drops to zero -- completion relies on the failed job throwing
+        // after completing its product (see Job.TaskRun), so that runJob aborts the pool.
+        if (job.getProvidedProductPromise().getTaskStatus() == TaskStatus.FAIL) {
+            return;
         }
 
-        final String jobName = job.getName();
-        LOG.debug("Submit job {}", jobName);
-
-        CompletableFuture.runAsync(() -> {
-            Thread.currentThread().setName("job-" + jobName);
-
-            try {
-                currentJobs.put(jobName, job);
-                job.call();
-
-                progressMonitor.progress(jobName);
-            } catch (final Throwable e) {
-                // In case of any Task error we end up here
-                if (firstException.compareAndSet(null, e)) {
-                    LOG.error(e.getMessage(), e);
-                } else if (!(e instanceof InterruptedException)) {
-                    LOG.error(MarkerFactory.getMarker("HIDE_FROM_CONSOLE"),
-                        e.getMessage(), e);
-                }
-                executor.shutdownNow();
-            } finally {
-                currentJobs.remove(jobName);
-
-                // Maybe someone set a new ContextClassLoader -- restore for thread re-use
-                Thread.currentThread().setContextClassLoader(contextClassLoader);
+        for (final Job dependent : jobGraph.getDownstream(job)) {
+            if (pendingUpstreamJobs.get(dependent).decrementAndGet() == 0) {
+                dispatch(dependent);
             }
-        }, executor);
+        }
     }
 
-    public void submitAll(final Collection<Job> jobs) {
-        Objects.requireNonNull(jobs, "jobs must not be null");
+    @SuppressWarnings("checkstyle:illegalcatch")
+    private void runJob(final Job job) {
+        final String jobName = job.getName();
+        Thread.currentThread().setName("job-" + jobName);
+
+        try {
+            currentJobs.put(jobName, job);
+            job.call();
+
+            progressMonitor.progress(jobName);
+        } catch (final Throwable e) {
+            // In case of any Task error we end up here
+            abort(e);
+        } finally {
+            currentJobs.remove(jobName);
+
+            // Maybe someone set a new ContextClassLoader -- restore for thread re-use
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
 
-        jobs.forEach(job -> {
-            if (!executor.isShutdown()) {
-                submitJob(job);
+            if (remainingJobs.decrementAndGet() == 0) {
+                allJobsDone.complete(null);
             }
-        });
+        }
+    }
+
+    private void abort(final Throwable e) {
+        if (firstException.compareAndSet(null, e)) {
+            LOG.error(e.getMessage(), e);
+        } else if (!(e instanceof InterruptedException)) {
+            LOG.error(MarkerFactory.getMarker("HIDE_FROM_CONSOLE"),
+                e.getMessage(), e);
+        }
+        executor.shutdownNow();
+        allJobsDone.completeExceptionally(e);
     }
 
     public void shutdown() throws InterruptedException, BuildException {
+        LOG.debug("Awaiting completion of all jobs");
+        try {
+            allJobsDone.get();
+        } catch (final ExecutionException e) {
+            // aborted -- the first exception is thrown below
+            LOG.debug("Job Pool aborted");
+        }
+
         LOG.debug("Shutting down Job Pool");
         executor.shutdown();
 
@@ -116,6 +226,48 @@ public class JobPool {
         }
     }
 
+    private final class PrioritizedJob implements Runnable, Comparable<PrioritizedJob> {
+
+        private final Job job;
+        private final long priority;
+        private final long sequence;
+
+        PrioritizedJob(final Job job, final long priority, final long sequence) {
+            this.job = job;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            runJob(job);
+        }
+
+        // highest priority first -- FIFO for equal priorities
+        @Override
+        public int compareTo(final PrioritizedJob o) {
+            final int cmp = Long.compare(o.priority, priority);
+            return cmp != 0 ? cmp : Long.compare(sequence, o.sequence);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return sequence == ((PrioritizedJob) o).sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(sequence);
+        }
+
+    }
+
     private final class MonitorTask extends TimerTask {
 
         @Override
@@ -26,10 +26,13 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +42,9 @@ import builders.loom.api.Module;
 import builders.loom.api.ModuleBuildConfig;
 import builders.loom.api.ServiceRegistry;
 import builders.loom.core.config.BuildConfigImpl;
+import builders.loom.core.config.ConfigCache;
 import builders.loom.core.config.ConfigReader;
+import builders.loom.core.misc.ParallelUtil;
 import builders.loom.core.plugin.ConfiguredTask;
 import builders.loom.core.plugin.PluginLoader;
 import builders.loom.core.service.ServiceLoader;
@@ -50,60 +55,81 @@ public class LoomProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(LoomProcessor.class);
 
+    private final BuildTrace buildTrace;
     private ModuleRunner moduleRunner;
 
     static {
         System.setProperty("loom.version", LoomVersion.getVersion());
     }
 
+    public LoomProcessor() {
+        this(BuildTrace.disabled());
+    }
+
+    public LoomProcessor(final BuildTrace buildTrace) {
+        this.buildTrace = buildTrace;
+    }
+
     public void init(final RuntimeConfigurationImpl runtimeConfiguration,
                      final ProgressMonitor progressMonitor) {
         final Stopwatch sw = new Stopwatch();
+        final long scanStart = System.nanoTime();
 
         // Init Modules / Plugins for Modules
+        final ConfigCache configCache = new ConfigCache(runtimeConfiguration);
+        configCache.load();
+
         final ModuleRegistry moduleRegistry = new ModuleRegistry();
-        listModules(runtimeConfiguration).forEach(moduleRegistry::register);
+        listModules(runtimeConfiguration, configCache).forEach(moduleRegistry::register);
+        configCache.persist();
 
-        LOG.debug("Initialized modules in {}", sw);
+        LOG.debug("Initialized {} modules in {}", moduleRegistry.getModules().size(), sw);
         sw.reset();
+        buildTrace.record("init", "scan modules", scanStart);
+        final long servicesStart = System.nanoTime();
 
         final ServiceRegistry serviceRegistry =
-            new ServiceLoader(runtimeConfiguration, progressMonitor).initServices();
+            new ServiceLoader(runtimeConfiguration, progressMonitor, buildTrace).initServices();
 
-        LOG.debug("Initialized services in {}", sw);
+        LOG.debug("Registered services in {}", sw);
         sw.reset();
+        buildTrace.record("init", "register services", servicesStart);
+        final long pluginsStart = System.nanoTime();
 
         final PluginLoader pluginLoader = new PluginLoader();
         moduleRunner = new ModuleRunner(
             runtimeConfiguration, serviceRegistry, pluginLoader, moduleRegistry,
-            progressMonitor, new TestProgressEmitterBridge(progressMonitor));
+            progressMonitor, new TestProgressEmitterBridge(progressMonitor), buildTrace);
         moduleRunner.init();
 
         LOG.debug("Initialized ModuleRunner in {}", sw);
+        buildTrace.record("init", "init plugins", pluginsStart);
     }
 
     public ModuleRunner getModuleRunner() {
         return moduleRunner;
     }
 
-    private List<Module> listModules(final RuntimeConfigurationImpl runtimeConfiguration) {
+    private List<Module> listModules(final RuntimeConfigurationImpl runtimeConfiguration,
+                                     final ConfigCache configCache) {
         final List<Module> modules = new ArrayList<>();
 
         if (runtimeConfiguration.isModuleBuild()) {
-            modules.addAll(scanForModules(runtimeConfiguration));
+            modules.addAll(scanForModules(runtimeConfiguration, configCache));
         } else {
-            modules.add(singleModule(runtimeConfiguration));
+            modules.add(singleModule(runtimeConfiguration, configCache));
         }
 
         return modules;
     }
 
-    private Module singleModule(final RuntimeConfigurationImpl rtConfig) {
+    private Module singleModule(final RuntimeConfigurationImpl rtConfig,
+                                final ConfigCache configCache) {
         final Path configFile = rtConfig.getProjectBaseDir().resolve("module.yml");
 
         final ModuleBuildConfig buildConfig;
         if (Files.exists(configFile)) {
-            buildConfig = ConfigReader.readConfig(rtConfig, configFile, "base");
+            buildConfig = ConfigReader.readConfig(configCache, configFile, "base");
         } else {
             buildConfig = new BuildConfigImpl();
         }
@@ -148,37 +174,39 @@ public class LoomProcessor {
         return Optional.empty();
     }
 
-    private List<Module> scanForModules(final RuntimeConfigurationImpl rtConfig) {
-        final List<Module> modules = new ArrayList<>();
+    // modules are read in parallel -- sorted by path for a deterministic order
+    private List<Module> scanForModules(final RuntimeConfigurationImpl rtConfig,
+                                        final ConfigCache configCache) {
+        final List<Path> modulePaths;
+        try (Stream<Path> paths = Files.list(LoomPaths.modulesDir(rtConfig.getProjectBaseDir()))) {
+            modulePaths = paths.sorted().collect(Collectors.toList());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
-        try {
-            final List<Path> modulePaths = Files
-                .list(LoomPaths.modulesDir(rtConfig.getProjectBaseDir()))
-                .collect(Collectors.toList());
+        return ParallelUtil.map("module-scanner", modulePaths,
+            module -> readModule(configCache, module));
+    }
 
-            for (final Path module : modulePaths) {
-                final Path moduleBuildConfig = module.resolve("module.yml");
+    private Module readModule(final ConfigCache configCache, final Path module) {
+        final long start = System.nanoTime();
+        final String modulePathName = module.getFileName().toString();
+        final Path moduleBuildConfig = module.resolve("module.yml");
 
-                final ModuleBuildConfig buildConfig;
+        final ModuleBuildConfig buildConfig;
 
-                if (Files.exists(moduleBuildConfig)) {
-                    final String modulePathName = module.getFileName().toString();
-                    buildConfig = ConfigReader.readConfig(
-                        rtConfig, moduleBuildConfig, modulePathName);
-                } else {
-                    buildConfig = new BuildConfigImpl();
-                }
+        if (Files.exists(moduleBuildConfig)) {
+            buildConfig = ConfigReader.readConfig(configCache, moduleBuildConfig, modulePathName);
+        } else {
+            buildConfig = new BuildConfigImpl();
+        }
 
-                final String moduleName = findModuleName(module, buildConfig,
-                    module.getFileName().toString()).orElseThrow(() ->
-                    new IllegalStateException("No module name could be determined"));
+        final String moduleName = findModuleName(module, buildConfig, modulePathName)
+            .orElseThrow(() -> new IllegalStateException("No module name could be determined"));
 
-                modules.add(new Module(moduleName, module, buildConfig));
-            }
-            return modules;
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        buildTrace.record("init", "read module " + moduleName, start);
+
+        return new Module(moduleName, module, buildConfig);
     }
 
     private void checkForInconsistentSrcModuleStruct(final Path projectBaseDir) {
@@ -236,7 +264,12 @@ public class LoomProcessor {
     }
 
     public List<ConfiguredTask> resolveTasks(final List<String> productIds) {
-        return moduleRunner.resolveTasks(new HashSet<>(productIds));
+        final long start = System.nanoTime();
+        try {
+            return moduleRunner.resolveTasks(new HashSet<>(productIds));
+        } finally {
+            buildTrace.record("init", "resolve tasks", start);
+        }
     }
 
     public ExecutionReport execute(final List<ConfiguredTask> resolvedTasks)
@@ -244,6 +277,19 @@ public class LoomProcessor {
         return moduleRunner.execute(resolvedTasks);
     }
 
+    /**
+     * Watches the sources and resources of all modules -- for continuous builds.
+     */
+    public SourceWatcher watchSources() {
+        return new SourceWatcher(moduleRunner.getModules());
+    }
+
+    public List<ConfiguredTask> resolveAffectedTasks(
+        final Map<Module, Set<String>> changedProducts) {
+
+        return moduleRunner.resolveAffectedTasks(changedProducts);
+    }
+
     public void logSystemEnvironment() {
         LOG.debug("Running Loom {} on {} {} {}, Java {} ({}) with {} cores",
             LoomVersion.getVersion(),
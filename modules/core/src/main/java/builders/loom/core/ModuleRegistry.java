@@ -18,7 +18,9 @@ package builders.loom.core;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import builders.loom.api.GlobalBuildContext;
@@ -27,6 +29,7 @@ import builders.loom.api.Module;
 public class ModuleRegistry {
 
     private final List<Module> modules = new ArrayList<>();
+    private final Map<String, Module> modulesByName = new HashMap<>();
 
     public void register(final Module module) {
         if (module.getModuleName().equals(GlobalBuildContext.GLOBAL_MODULE_NAME)) {
@@ -38,6 +41,7 @@ public class ModuleRegistry {
                 "A module with name " + module.getModuleName() + " already exists");
         }
         modules.add(module);
+        modulesByName.put(module.getModuleName(), module);
     }
 
     public List<Module> getModules() {
@@ -45,9 +49,7 @@ public class ModuleRegistry {
     }
 
     public Optional<Module> lookup(final String moduleName) {
-        return modules.stream()
-            .filter(m -> m.getModuleName().equals(moduleName))
-            .findFirst();
+        return Optional.ofNullable(modulesByName.get(moduleName));
     }
 
 }
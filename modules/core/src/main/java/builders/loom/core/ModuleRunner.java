@@ -16,39 +16,41 @@
 
 package builders.loom.core;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import builders.loom.api.BuildContext;
+import builders.loom.api.FileTreeSnapshotService;
 import builders.loom.api.GlobalBuildContext;
+import builders.loom.api.LoomPaths;
 import builders.loom.api.Module;
 import builders.loom.api.ProductPromise;
-import builders.loom.api.ProductPromise.CompletedProductReport;
 import builders.loom.api.ProductRepository;
-import builders.loom.api.RuntimeConfiguration;
 import builders.loom.api.ServiceRegistry;
+import builders.loom.api.TaskStatus;
 import builders.loom.api.TestProgressEmitter;
 import builders.loom.core.misc.DirectedGraph;
+import builders.loom.core.plugin.BuildContextPlugins;
 import builders.loom.core.plugin.ConfiguredTask;
-import builders.loom.core.plugin.ConfiguredTask.ExecutionReportItem;
 import builders.loom.core.plugin.GoalInfo;
+import builders.loom.core.plugin.PluginInitializer;
 import builders.loom.core.plugin.PluginLoader;
 import builders.loom.core.plugin.ProductRepositoryImpl;
 import builders.loom.core.plugin.TaskInfo;
 import builders.loom.core.plugin.TaskRegistryImpl;
+import builders.loom.util.FileDigestCache;
 import builders.loom.util.Stopwatch;
 
 @SuppressWarnings({"checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
@@ -56,8 +58,6 @@ public class ModuleRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(ModuleRunner.class);
 
-    private static final long NANO_MILLI = 1_000_000;
-
     private static final Map<String, String> INTERNAL_GLOBAL_PLUGINS = Map.of(
         "idea", "builders.loom.plugin.idea.IdeaPlugin",
         "eclipse", "builders.loom.plugin.eclipse.EclipsePlugin"
@@ -73,68 +73,94 @@ public class ModuleRunner {
         "springboot", "builders.loom.plugin.springboot.SpringBootPlugin"
     );
 
-    private final RuntimeConfiguration runtimeConfiguration;
+    private final RuntimeConfigurationImpl runtimeConfiguration;
     private final ServiceRegistry serviceRegistry;
     private final PluginLoader pluginLoader;
     private final ModuleRegistry moduleRegistry;
     private final ProgressMonitor progressMonitor;
+    private final PluginInitializer pluginInitializer = new PluginInitializer();
     private final Map<BuildContext, TaskRegistryImpl> moduleTaskRegistries = new HashMap<>();
-    private final Map<BuildContext, ProductRepository> moduleProductRepositories = new HashMap<>();
+    private final Map<BuildContext, ProductRepositoryImpl> moduleProductRepositories =
+        new HashMap<>();
+    private final Map<ConfiguredTask, Job> executedJobs = new HashMap<>();
+    private ProductRepositories productRepositories;
     private final Map<Module, Set<Module>> transitiveModuleCompileDependencies = new HashMap<>();
     private final TestProgressEmitter testProgressEmitter;
+    private final BuildTrace buildTrace;
+    private final RemoteCache remoteCache;
 
-    public ModuleRunner(final RuntimeConfiguration runtimeConfiguration,
+    public ModuleRunner(final RuntimeConfigurationImpl runtimeConfiguration,
                         final ServiceRegistry serviceRegistry,
                         final PluginLoader pluginLoader,
                         final ModuleRegistry moduleRegistry,
                         final ProgressMonitor progressMonitor,
-                        final TestProgressEmitter emitter) {
+                        final TestProgressEmitter emitter,
+                        final BuildTrace buildTrace) {
         this.runtimeConfiguration = runtimeConfiguration;
         this.serviceRegistry = serviceRegistry;
         this.pluginLoader = pluginLoader;
         this.moduleRegistry = moduleRegistry;
         this.progressMonitor = progressMonitor;
         testProgressEmitter = emitter;
+        this.buildTrace = buildTrace;
+        remoteCache = RemoteCache.fromSystemProperties().orElse(null);
     }
 
     public void init() {
+        final Stopwatch sw = new Stopwatch();
+        final long phaseStart = System.nanoTime();
+
         resolveModuleDependencyGraph();
 
-        registerGlobalPlugins();
-        registerModulePlugins();
-    }
+        LOG.debug("Resolved module dependency graph in {}", sw);
+        buildTrace.record("init", "resolve module graph", phaseStart);
 
-    private void registerGlobalPlugins() {
-        LOG.info("Initialize Plugins for global build context");
-        registerModule(INTERNAL_GLOBAL_PLUGINS, Set.of("eclipse", "idea"),
-            new GlobalBuildContext(runtimeConfiguration.getProjectBaseDir()));
-    }
+        // plugins are initialized later on -- once the requested products are known
+        registerPlugins(new GlobalBuildContext(runtimeConfiguration.getProjectBaseDir()),
+            INTERNAL_GLOBAL_PLUGINS, Set.of("eclipse", "idea"));
 
-    private void registerModule(final Map<String, String> availablePlugins,
-                                final Set<String> defaultPlugins,
-                                final BuildContext buildContext) {
-        final TaskRegistryImpl taskRegistry = new TaskRegistryImpl(buildContext);
+        for (final Module module : moduleRegistry.getModules()) {
+            registerPlugins(module, INTERNAL_MODULE_PLUGINS, Set.of("java"));
+        }
+
+        productRepositories = new ProductRepositories(moduleProductRepositories);
+    }
 
-        final Set<String> pluginsToInitialize = new HashSet<>();
-        pluginsToInitialize.addAll(defaultPlugins);
-        pluginsToInitialize.addAll(buildContext.getConfig().getPlugins());
+    private void registerPlugins(final BuildContext buildContext,
+                                 final Map<String, String> availablePlugins,
+                                 final Set<String> defaultPlugins) {
+        final Set<String> pluginNames = new HashSet<>(defaultPlugins);
+        pluginNames.addAll(buildContext.getConfig().getPlugins());
 
-        pluginLoader.initPlugins(availablePlugins, pluginsToInitialize, buildContext.getConfig(),
-            taskRegistry);
+        final BuildContextPlugins plugins =
+            new BuildContextPlugins(pluginLoader, availablePlugins, pluginNames, buildContext);
 
-        moduleTaskRegistries.put(buildContext, taskRegistry);
+        pluginInitializer.add(plugins);
+        moduleTaskRegistries.put(buildContext, plugins.getTaskRegistry());
         moduleProductRepositories.put(buildContext, new ProductRepositoryImpl());
     }
 
-    private void registerModulePlugins() {
-        final Set<String> defaultPlugins = Set.of("java");
-        for (final Module module : moduleRegistry.getModules()) {
-            LOG.info("Initialize Plugins for module {}", module.getModuleName());
-            registerModule(INTERNAL_MODULE_PLUGINS, defaultPlugins, module);
-        }
+    /**
+     * Initializes the plugins providing the given products and (transitively) all products
+     * used by their tasks.
+     */
+    private void initPluginsProviding(final Set<String> productIds) {
+        final Stopwatch sw = new Stopwatch();
+        final long start = System.nanoTime();
+
+        pluginInitializer.initPluginsProviding(productIds);
+
+        LOG.debug("Initialized plugins for products {} in {}", productIds, sw);
+        buildTrace.record("init", "configure plugins", start);
+    }
+
+    private void initAllPlugins() {
+        pluginInitializer.initAllPlugins();
     }
 
     public List<ConfiguredTask> resolveTasks(final Set<String> productIds) {
+        initPluginsProviding(productIds);
+
         final Stopwatch sw = new Stopwatch();
 
         final List<ConfiguredTask> resolvedTasks = graphTasks(productIds).resolve(
@@ -145,6 +171,38 @@ public class ModuleRunner {
         return resolvedTasks;
     }
 
+    /**
+     * Determines the tasks that have to be executed again after products have been changed:
+     * all previously executed tasks that depend on a changed product and all tasks that haven't
+     * completed successfully.
+     *
+     * @param changedProducts the ids of the changed products per build context
+     * @return the affected tasks in execution order
+     */
+    public List<ConfiguredTask> resolveAffectedTasks(
+        final Map<? extends BuildContext, Set<String>> changedProducts) {
+
+        final JobGraph jobGraph = new JobGraph(executedJobs.values());
+        final Set<Job> affectedJobs = new HashSet<>();
+
+        for (final Job job : jobGraph.topologicalOrder()) {
+            final ConfiguredTask configuredTask = job.getConfiguredTask();
+            final boolean changed = changedProducts
+                .getOrDefault(configuredTask.getBuildContext(), Set.of())
+                .contains(configuredTask.getProvidedProduct());
+
+            if (changed || job.getTaskStatus() == null
+                || jobGraph.getUpstream(job).stream().anyMatch(affectedJobs::contains)) {
+                affectedJobs.add(job);
+            }
+        }
+
+        return jobGraph.topologicalOrder().stream()
+            .filter(affectedJobs::contains)
+            .map(Job::getConfiguredTask)
+            .collect(Collectors.toList());
+    }
+
     public ExecutionReport execute(final List<ConfiguredTask> resolvedTasks)
         throws BuildException, InterruptedException {
 
@@ -158,85 +216,82 @@ public class ModuleRunner {
 
         progressMonitor.setTasks(resolvedTasks.size());
 
-        final Map<ConfiguredTask, Job> configuredTaskJobMap = new LinkedHashMap<>();
-        resolvedTasks.forEach(ct -> configuredTaskJobMap.put(ct, buildJob(ct)));
+        final Path versionDir = LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
+            .resolve(LoomVersion.getVersion());
 
-        final JobPool jobPool = new JobPool(progressMonitor);
-        jobPool.submitAll(configuredTaskJobMap.values());
-        jobPool.shutdown();
+        final StateStore stateStore = runtimeConfiguration.isCacheEnabled()
+            ? StateStore.open(versionDir.resolve(Paths.get("execution-prevention", "journal")))
+            : null;
 
-        LOG.debug("Executed {} tasks in {}", resolvedTasks.size(), sw);
+        final FileDigestCache digestCache = runtimeConfiguration.isCacheEnabled()
+            ? FileDigestCache.open(versionDir.resolve("digest-cache"))
+            : null;
 
-        final List<ReportDataItem> reportingData = resolvedTasks.stream()
-            .map(configuredTask -> new ReportDataItem(configuredTask,
-                lookupProductPromise(configuredTask.getBuildContext(),
-                configuredTask.getProvidedProduct()).buildReport(),
+        final FileTreeSnapshotService fileTreeSnapshotService = new FileTreeSnapshotServiceImpl();
+        final Map<ConfiguredTask, Job> configuredTaskJobMap = new LinkedHashMap<>();
+        final TaskDurationHistory durationHistory = new TaskDurationHistory(runtimeConfiguration);
+
+        try {
+            if (digestCache != null) {
+                digestCache.install();
+            }
+
+            resolvedTasks.forEach(ct -> configuredTaskJobMap.put(ct,
+                buildJob(ct, stateStore, fileTreeSnapshotService)));
+            executedJobs.putAll(configuredTaskJobMap);
+
+            if (runtimeConfiguration.isCacheEnabled()) {
+                durationHistory.load();
+            }
+
+            final JobPool jobPool =
+                new JobPool(progressMonitor, runtimeConfiguration.getWorkerCount());
+            jobPool.submitAll(configuredTaskJobMap.values(),
+                job -> durationHistory.estimate(job.getName()));
+            jobPool.shutdown();
+        } finally {
+            closeCaches(digestCache, stateStore);
+        }
 
-                configuredTaskJobMap.get(configuredTask)
-                    .getActuallyUsedProducts().stream()
-                    .map(ProductPromise::buildReport)
-                    .collect(Collectors.toSet())
-                ))
-            .collect(Collectors.toList());
+        LOG.debug("Executed {} tasks in {}", resolvedTasks.size(), sw);
 
-        return createExecutionReport(reportingData);
-    }
+        if (runtimeConfiguration.isCacheEnabled()) {
+            recordDurations(durationHistory, configuredTaskJobMap.values());
+        }
 
-    private static ExecutionReport createExecutionReport(final List<ReportDataItem> reportingData) {
-        final ExecutionReport executionReport = new ExecutionReport();
-        reportingData.stream()
-            .sorted(Comparator.comparingLong(
-                item -> item.getCompletedProductReport().getCompletedAt()))
-            .forEach(item -> {
-
-                final Optional<CompletedProductReport> latest =
-                    item.getAcutallyCompletedProductReports().stream()
-                    .max(Comparator.comparingLong(CompletedProductReport::getCompletedAt));
-
-                if (latest.isPresent()) {
-                    reportProductWithDependencies(
-                        executionReport, item.getConfiguredTask().buildReportItem(),
-                        item.getCompletedProductReport(), latest.get());
-                } else {
-                    reportProductWithoutDependencies(
-                        executionReport, item.getConfiguredTask().buildReportItem(),
-                        item.getCompletedProductReport());
-                }
+        final ExecutionReport executionReport = new ExecutionAnalyzer(
+            new JobGraph(configuredTaskJobMap.values()), runtimeConfiguration.getWorkerCount())
+            .analyze();
+
+        LOG.info("Critical path: {}", executionReport.getCriticalPath());
 
-            });
         return executionReport;
     }
 
-    private static void reportProductWithoutDependencies(
-        final ExecutionReport executionReport, final ExecutionReportItem executionReportItem,
-        final CompletedProductReport productPromise) {
-        executionReport.add(executionReportItem.getReportKey(), executionReportItem.getType(),
-            productPromise.getTaskStatus(),
-            productPromise.getCompletedAt()
-            - productPromise.getStartTime());
-
-        LOG.info("Product <{}> was completed at {} after {}ms without any dependencies",
-            productPromise.getProductId(), productPromise.getCompletedAt(),
-            (productPromise.getCompletedAt()
-                - productPromise.getStartTime()) / NANO_MILLI);
+    private static void closeCaches(final FileDigestCache digestCache,
+                                    final StateStore stateStore) {
+        try {
+            if (digestCache != null) {
+                digestCache.close();
+                LOG.info("Digest cache: {} hits, {} misses, {} mismatches",
+                    digestCache.getHits(), digestCache.getMisses(),
+                    digestCache.getMismatches());
+            }
+        } finally {
+            if (stateStore != null) {
+                stateStore.close();
+            }
+        }
     }
 
-    private static void reportProductWithDependencies(
-        final ExecutionReport executionReport, final ExecutionReportItem executionReportItem,
-        final CompletedProductReport productPromise,
-        final CompletedProductReport productExecutionReport) {
-        executionReport.add(
-            executionReportItem.getReportKey(), executionReportItem.getType(),
-            productPromise.getTaskStatus(),
-            productPromise.getCompletedAt() - productExecutionReport.getCompletedAt());
-
-        LOG.info("Product <{}> was completed at {} after {}ms blocked by <{}> for {}ms",
-            productPromise.getProductId(), productPromise.getCompletedAt(),
-            (productPromise.getCompletedAt()
-                - productPromise.getStartTime()) / NANO_MILLI,
-            productExecutionReport.getProductId(),
-            (productPromise.getCompletedAt()
-                - productExecutionReport.getCompletedAt()) / NANO_MILLI);
+    // durations of skipped tasks are no estimate for their next execution
+    private static void recordDurations(final TaskDurationHistory durationHistory,
+                                        final Collection<Job> jobs) {
+        jobs.stream()
+            .filter(job -> job.getTaskStatus() != null && job.getTaskStatus() != TaskStatus.SKIP)
+            .forEach(job -> durationHistory.record(job.getName(), job.getSelfTime()));
+
+        durationHistory.persist();
     }
 
     private void resolveModuleDependencyGraph() {
@@ -254,13 +309,7 @@ public class ModuleRunner {
             dependentModules.addEdges(module, modCmpDeps);
         }
 
-        for (final Module module : moduleRegistry.getModules()) {
-            final Set<String> moduleDeps = module.getConfig().getModuleCompileDependencies();
-            final List<Module> resolvedModCmpDeps =
-                dependentModules.resolve((m) -> moduleDeps.contains(m.getModuleName()));
-
-            transitiveModuleCompileDependencies.put(module, new HashSet<>(resolvedModCmpDeps));
-        }
+        transitiveModuleCompileDependencies.putAll(dependentModules.resolveAll());
     }
 
     private DirectedGraph<ConfiguredTask> graphTasks(final Set<String> productIds) {
@@ -270,104 +319,97 @@ public class ModuleRunner {
 
         validateRequestedProducts(productIds, allConfiguredTasks);
 
+        // index tasks by provided product -- per build context and across all build contexts
+        final Map<BuildContext, Map<String, List<ConfiguredTask>>> contextProviders =
+            new HashMap<>();
+        final Map<String, List<ConfiguredTask>> allProviders = new HashMap<>();
+        for (final Map.Entry<BuildContext, TaskRegistryImpl> entry
+            : moduleTaskRegistries.entrySet()) {
+
+            final Map<String, List<ConfiguredTask>> providers = new HashMap<>();
+            for (final ConfiguredTask configuredTask : entry.getValue().configuredTasks()) {
+                providers.computeIfAbsent(configuredTask.getProvidedProduct(),
+                    (p) -> new ArrayList<>()).add(configuredTask);
+                allProviders.computeIfAbsent(configuredTask.getProvidedProduct(),
+                    (p) -> new ArrayList<>()).add(configuredTask);
+            }
+            contextProviders.put(entry.getKey(), providers);
+        }
+
         // Initialize directed graph with all available ConfiguredTask instances
         final DirectedGraph<ConfiguredTask> diGraph = new DirectedGraph<>(allConfiguredTasks);
 
-        allBuildContexts().forEach(
-            buildContext ->  {
-                final Collection<ConfiguredTask> moduleConfiguredTasks =
-                    moduleTaskRegistries.get(buildContext).configuredTasks();
+        for (final Map.Entry<BuildContext, TaskRegistryImpl> entry
+            : moduleTaskRegistries.entrySet()) {
 
-                for (final ConfiguredTask moduleConfiguredTask : moduleConfiguredTasks) {
-                    diGraph.addEdges(moduleConfiguredTask,
-                        collectUsedTasks(moduleConfiguredTasks, moduleConfiguredTask));
+            final BuildContext buildContext = entry.getKey();
+            final Map<String, List<ConfiguredTask>> providers =
+                contextProviders.get(buildContext);
 
-                    if (buildContext instanceof  Module) {
-                        diGraph.addEdges(moduleConfiguredTask,
-                            collectImportedTasks((Module) buildContext, moduleConfiguredTask));
-                    }
+            for (final ConfiguredTask moduleConfiguredTask : entry.getValue().configuredTasks()) {
+                diGraph.addEdges(moduleConfiguredTask,
+                    collectUsedTasks(providers, moduleConfiguredTask));
 
-                    if (buildContext instanceof GlobalBuildContext) {
-                        diGraph.addEdges(moduleConfiguredTask,
-                            collectImportAllTasks(allConfiguredTasks, moduleConfiguredTask));
-                    }
+                if (buildContext instanceof  Module) {
+                    diGraph.addEdges(moduleConfiguredTask,
+                        collectImportedTasks(contextProviders, (Module) buildContext,
+                            moduleConfiguredTask));
                 }
-            });
 
-        return diGraph;
-    }
-
-    private Stream<Module> allModules() {
-        return moduleTaskRegistries.keySet().stream()
-            .filter(Module.class::isInstance).map(Module.class::cast);
-    }
-
-    private Stream<BuildContext> allBuildContexts() {
-        return moduleTaskRegistries.keySet().stream();
-    }
+                if (buildContext instanceof GlobalBuildContext) {
+                    diGraph.addEdges(moduleConfiguredTask,
+                        collectImportAllTasks(allProviders, moduleConfiguredTask));
+                }
+            }
+        }
 
-    private ProductPromise lookupProductPromise(
-        final BuildContext buildContext, final String productId) {
-        Objects.requireNonNull(buildContext);
-        Objects.requireNonNull(productId);
-        return moduleProductRepositories.get(buildContext).require(productId);
+        return diGraph;
     }
 
     // find tasks providing requested products (within same module)
     private List<ConfiguredTask> collectUsedTasks(
-        final Collection<ConfiguredTask> moduleConfiguredTasks,
+        final Map<String, List<ConfiguredTask>> providers,
         final ConfiguredTask moduleConfiguredTask) {
 
         return moduleConfiguredTask.getUsedProducts().stream()
-            .map(usedProductId -> findProvidingProduct(moduleConfiguredTasks, usedProductId))
+            .map(usedProductId -> findProvidingProduct(providers, usedProductId))
             .collect(Collectors.toList());
     }
 
     // find tasks providing imported products from dependent modules
-    private List<ConfiguredTask> collectImportedTasks(final Module module,
-                                                      final ConfiguredTask moduleConfiguredTask) {
-        final Set<String> modCmpDeps = module.getConfig().getModuleCompileDependencies();
+    private List<ConfiguredTask> collectImportedTasks(
+        final Map<BuildContext, Map<String, List<ConfiguredTask>>> contextProviders,
+        final Module module, final ConfiguredTask moduleConfiguredTask) {
+
+        final List<Map<String, List<ConfiguredTask>>> dependencyProviders =
+            module.getConfig().getModuleCompileDependencies().stream()
+                .map(moduleName -> moduleRegistry.lookup(moduleName)
+                    .map(contextProviders::get)
+                    .orElseThrow(() -> new IllegalStateException(
+                        "Unknown module name <" + moduleName + "> in module dependencies")))
+                .collect(Collectors.toList());
 
         return moduleConfiguredTask.getImportedProducts().stream()
-            .map(importedProductId -> allModules()
-                .filter(m -> modCmpDeps.contains(m.getModuleName()))
-                .map(
-                    m -> {
-                        final TaskRegistryImpl taskRegistry = moduleTaskRegistries.get(m);
-                        if (taskRegistry == null) {
-                            throw new IllegalStateException(
-                                "Unknown module name <" + m.getModuleName() + ">"
-                                    + " in module dependencies"
-                            );
-                        }
-                        return taskRegistry;
-                    }
-                )
-                .map(TaskRegistryImpl::configuredTasks)
-                .map(tasks -> findProvidingProduct(tasks, importedProductId))
-                .collect(Collectors.toList()))
-            .flatMap(Collection::stream)
+            .flatMap(importedProductId -> dependencyProviders.stream()
+                .map(providers -> findProvidingProduct(providers, importedProductId)))
             .collect(Collectors.toList());
     }
 
     // find tasks providing imported products from all modules
-    private List<ConfiguredTask> collectImportAllTasks(final Set<ConfiguredTask> allConfiguredTasks,
-                                                       final ConfiguredTask moduleConfiguredTask) {
+    private List<ConfiguredTask> collectImportAllTasks(
+        final Map<String, List<ConfiguredTask>> allProviders,
+        final ConfiguredTask moduleConfiguredTask) {
 
         return moduleConfiguredTask.getImportedAllProducts().stream()
-            .map(productId -> allConfiguredTasks.stream()
-                .filter(t -> t.getProvidedProduct().equals(productId))
-                .collect(Collectors.toList()))
-            .flatMap(Collection::stream)
+            .flatMap(productId -> allProviders.getOrDefault(productId, List.of()).stream())
             .collect(Collectors.toList());
     }
 
     private ConfiguredTask findProvidingProduct(
-        final Collection<ConfiguredTask> moduleConfiguredTasks, final String usedProductId) {
+        final Map<String, List<ConfiguredTask>> providers, final String usedProductId) {
 
-        final List<ConfiguredTask> providingTasks = moduleConfiguredTasks.stream()
-            .filter(t -> t.getProvidedProduct().equals(usedProductId))
-            .collect(Collectors.toList());
+        final List<ConfiguredTask> providingTasks =
+            providers.getOrDefault(usedProductId, List.of());
 
         if (providingTasks.size() != 1) {
             throw new IllegalStateException("Found " + providingTasks.size()
@@ -393,30 +435,41 @@ public class ModuleRunner {
         }
     }
 
+    // products of tasks not executed again remain available (continuous build)
     private void registerProducts(final List<ConfiguredTask> resolvedTasks) {
         resolvedTasks.forEach(ct -> {
             final BuildContext ctx = ct.getBuildContext();
-            final ProductRepository productRepository = moduleProductRepositories.get(ctx);
-            productRepository.createProduct(ctx.getModuleName(), ct.getProvidedProduct());
+            final ProductRepositoryImpl productRepository = moduleProductRepositories.get(ctx);
+            if (executedJobs.containsKey(ct)) {
+                productRepository.resetProduct(ctx.getModuleName(), ct.getProvidedProduct());
+            } else {
+                productRepository.createProduct(ctx.getModuleName(), ct.getProvidedProduct());
+            }
         });
     }
 
-    private Job buildJob(final ConfiguredTask configuredTask) {
+    private Job buildJob(final ConfiguredTask configuredTask, final StateStore stateStore,
+                         final FileTreeSnapshotService fileTreeSnapshotService) {
         final BuildContext buildContext = configuredTask.getBuildContext();
         final ProductRepository productRepository = moduleProductRepositories.get(buildContext);
 
         final String jobName = buildContext.getModuleName() + " > " + configuredTask.getName();
 
         return new Job(jobName, buildContext, runtimeConfiguration, serviceRegistry, configuredTask,
-            productRepository, transitiveModuleCompileDependencies, moduleProductRepositories,
-            testProgressEmitter);
+            productRepository, transitiveModuleCompileDependencies, productRepositories,
+            testProgressEmitter, buildTrace, remoteCache, stateStore, fileTreeSnapshotService);
     }
 
     public ProductPromise lookupProduct(final BuildContext buildContext, final String productId) {
         return moduleProductRepositories.get(buildContext).require(productId);
     }
 
+    public List<Module> getModules() {
+        return moduleRegistry.getModules();
+    }
+
     public Set<String> getPluginNames() {
+        initAllPlugins();
         return moduleTaskRegistries.values().stream()
             .flatMap(reg -> reg.configuredTasks().stream())
             .flatMap(ct -> ct.getPluginNames().stream())
@@ -424,6 +477,7 @@ public class ModuleRunner {
     }
 
     public Set<TaskInfo> describePluginTasks(final String pluginName) {
+        initAllPlugins();
         return moduleTaskRegistries.values().stream()
             .flatMap(reg -> reg.configuredTasks().stream())
             .filter(ct -> !ct.isGoal())
@@ -433,6 +487,7 @@ public class ModuleRunner {
     }
 
     public Set<GoalInfo> describeGoals() {
+        initAllPlugins();
         final Set<GoalInfo> goalInfos = new HashSet<>();
 
         moduleTaskRegistries.values().stream()
@@ -446,6 +501,7 @@ public class ModuleRunner {
     }
 
     public Set<TaskInfo> describeTasks() {
+        initAllPlugins();
         return moduleTaskRegistries.values().stream()
             .flatMap(reg -> reg.configuredTasks().stream())
             .filter(ct -> !ct.isGoal())
@@ -453,31 +509,5 @@ public class ModuleRunner {
             .collect(Collectors.toSet());
     }
 
-    private static final class ReportDataItem {
-
-        private final ConfiguredTask configuredTask;
-        private final CompletedProductReport completedProductReport;
-        private final Set<CompletedProductReport> acutallyCompletedProductReports;
-
-        ReportDataItem(final ConfiguredTask configuredTask,
-            final CompletedProductReport completedProductReport,
-            final Set<CompletedProductReport> acutallyCompletedProductReports) {
-            this.configuredTask = configuredTask;
-            this.completedProductReport = completedProductReport;
-            this.acutallyCompletedProductReports = acutallyCompletedProductReports;
-        }
-
-        public ConfiguredTask getConfiguredTask() {
-            return configuredTask;
-        }
-
-        public CompletedProductReport getCompletedProductReport() {
-            return completedProductReport;
-        }
-
-        public Set<CompletedProductReport> getAcutallyCompletedProductReports() {
-            return acutallyCompletedProductReports;
-        }
-    }
 }
 
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.LoomPaths;
+import builders.loom.api.RuntimeConfiguration;
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.core.plugin.ConfiguredTask;
+import builders.loom.util.FileUtil;
+
+/**
+ * Content addressable store of task outputs -- keyed by the signature of the
+ * {@link TaskExecutionPrediction}.
+ * <p>
+ * Output files are all files below product properties pointing into the build directory.
+ * The file contents are stored once (by their hash) in {@code objects}, an entry per
+ * module, product and signature lists the files and the product itself.
+ * <p>
+ * Restored files are hard links to the stored objects (if supported by the file system).
+ * Before a task is executed again, the links of its previous outputs are replaced by copies
+ * ({@link #detach(ManagedProduct)}) -- tasks may write their outputs in place.
+ * <p>
+ * Entries don't contain paths of the project directory and can be shared via a
+ * {@link RemoteCache}.
+ * <p>
+ * The modification time of an entry is its last access -- used by the {@link CacheManager}
+ * to evict the least recently used entries.
+ */
+class OutputCache {
+
+    static final String CACHE_DIR = "output-cache";
+    static final String OBJECTS_DIR = "objects";
+    static final String ENTRIES_DIR = "entries";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutputCache.class);
+
+    private static final boolean HARD_LINKS =
+        FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    private final Path projectBaseDir;
+    private final Path buildDir;
+    private final OutputObjectStore objectStore;
+    private final Path entryDir;
+    private final String remoteKeyPrefix;
+    private final RemoteCache remoteCache;
+
+    OutputCache(final RuntimeConfiguration runtimeConfiguration,
+                final ConfiguredTask configuredTask, final RemoteCache remoteCache) {
+        this(LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
+                .resolve(Paths.get(LoomVersion.getVersion(), CACHE_DIR)),
+            runtimeConfiguration.getProjectBaseDir(),
+            configuredTask.getBuildContext().getModuleName(),
+            configuredTask.getProvidedProduct(), remoteCache);
+    }
+
+    /**
+     * @param remoteCache the remote cache to use or {@code null}
+     */
+    OutputCache(final Path cacheDir, final Path projectBaseDir,
+                final String moduleName, final String productId,
+                final RemoteCache remoteCache) {
+        this.projectBaseDir = projectBaseDir.toAbsolutePath().normalize();
+        buildDir = LoomPaths.buildDir(this.projectBaseDir);
+        objectStore = new OutputObjectStore(cacheDir.resolve(OBJECTS_DIR));
+        entryDir = cacheDir.resolve(Paths.get(ENTRIES_DIR, moduleName, productId));
+        remoteKeyPrefix = moduleName + "/" + productId + "/";
+        this.remoteCache = remoteCache;
+    }
+
+    /**
+     * Checks if the output files of the given product (still) exist.
+     */
+    boolean outputsPresent(final ManagedProduct product) {
+        return outputRoots(product).stream().allMatch(Files::exists);
+    }
+
+    /**
+     * Stores the output files and the product for the given signature.
+     */
+    void store(final String signature, final ManagedProduct product) {
+        final OutputCacheEntry entry = new OutputCacheEntry();
+
+        entry.addChecksum(product.checksum());
+        product.getProperties().forEach((key, values) -> {
+            if (values.isEmpty()) {
+                entry.addProperty(key, null);
+            }
+            for (final String value : values) {
+                final Optional<Path> path = projectPath(value);
+                if (path.isPresent()) {
+                    entry.addPathProperty(key, relativize(path.get()));
+                } else {
+                    entry.addProperty(key, value);
+                }
+            }
+        });
+        product.getOutputInfo().ifPresent((o) -> entry.addOutputInfo(o.getName(),
+            relativize(o.getArtifact().toAbsolutePath().normalize())));
+
+        try {
+            for (final Path root : outputRoots(product)) {
+                if (Files.exists(root)) {
+                    entry.addRoot(relativize(root));
+                    storeTree(root, entry);
+                }
+            }
+
+            final Path entryFile = entryDir.resolve(signature);
+            entry.write(entryFile);
+
+            if (remoteCache != null && remoteCache.isPushEnabled()) {
+                remoteCache.push(remoteKeyPrefix + signature,
+                    OutputCacheArchive.pack(entryFile, entry, objectStore));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void storeTree(final Path root, final OutputCacheEntry entry) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir,
+                                                     final BasicFileAttributes attrs) {
+                entry.addDir(relativize(dir));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+                throws IOException {
+                entry.addFile(relativize(file), objectStore.store(file));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Restores the output files stored for the given signature.
+     *
+     * @return the restored product or empty if nothing (complete) is stored for the signature
+     */
+    Optional<ManagedProduct> restore(final String signature) {
+        final Path entryFile = entryDir.resolve(signature);
+        if (Files.notExists(entryFile) && !fetchRemote(signature, entryFile)) {
+            return Optional.empty();
+        }
+
+        final Optional<OutputCacheEntry> entry = restoreFiles(entryFile);
+        entry.ifPresent((e) -> {
+            FileUtil.touch(entryFile);
+            LOG.debug("Restored {} files from output cache entry {}", e.files().size(),
+                entryFile);
+        });
+
+        return entry.map((e) -> e.toProduct(projectBaseDir));
+    }
+
+    // replaces the output roots by the files of the entry -- if all objects are present
+    @SuppressWarnings("checkstyle:illegalcatch")
+    private Optional<OutputCacheEntry> restoreFiles(final Path entryFile) {
+        try {
+            final OutputCacheEntry entry = OutputCacheEntry.read(entryFile);
+            final Map<String, String> files = entry.files();
+            if (!files.values().stream().map(objectStore::objectFile).allMatch(Files::exists)) {
+                LOG.warn("Ignoring incomplete output cache entry {}", entryFile);
+                return Optional.empty();
+            }
+
+            for (final String root : entry.roots()) {
+                final Path rootPath = projectBaseDir.resolve(root);
+                if (Files.isDirectory(rootPath)) {
+                    FileUtil.deleteDirectoryRecursively(rootPath, true);
+                } else {
+                    Files.deleteIfExists(rootPath);
+                }
+            }
+
+            for (final String dir : entry.dirs()) {
+                Files.createDirectories(projectBaseDir.resolve(dir));
+            }
+
+            for (final Map.Entry<String, String> file : files.entrySet()) {
+                restoreFile(objectStore.objectFile(file.getValue()),
+                    projectBaseDir.resolve(file.getKey()));
+            }
+
+            return Optional.of(entry);
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Restoring outputs from " + entryFile + " failed", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records the access of the entry for the given signature (if it exists).
+     */
+    void touch(final String signature) {
+        FileUtil.touch(entryDir.resolve(signature));
+    }
+
+    /**
+     * Reads the hashes of all objects referenced by the given entry file.
+     */
+    static Set<String> readObjectHashes(final Path entryFile) throws IOException {
+        return OutputCacheEntry.read(entryFile).objectHashes();
+    }
+
+    @SuppressWarnings("checkstyle:illegalcatch")
+    private boolean fetchRemote(final String signature, final Path entryFile) {
+        final Optional<byte[]> archive = remoteCache != null
+            ? remoteCache.fetch(remoteKeyPrefix + signature)
+            : Optional.empty();
+
+        if (!archive.isPresent()) {
+            return false;
+        }
+
+        try {
+            OutputCacheArchive.unpack(archive.get(), entryFile, objectStore);
+            LOG.debug("Fetched output cache entry {} from remote cache", entryFile);
+            return true;
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Ignoring invalid remote output cache entry " + entryFile, e);
+            return false;
+        }
+    }
+
+    private static void restoreFile(final Path object, final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        if (HARD_LINKS) {
+            try {
+                Files.createLink(file, object);
+                return;
+            } catch (final IOException | UnsupportedOperationException e) {
+                LOG.debug("Can't link {} -- copy instead: {}", file, e.toString());
+            }
+        }
+
+        Files.copy(object, file, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    /**
+     * Replaces restored (hard linked) output files of the given product by copies.
+     */
+    void detach(final ManagedProduct product) {
+        if (!HARD_LINKS) {
+            return;
+        }
+
+        try {
+            for (final Path root : outputRoots(product)) {
+                if (Files.exists(root)) {
+                    detachTree(root);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void detachTree(final Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+                throws IOException {
+
+                if ((Integer) Files.getAttribute(file, "unix:nlink") > 1) {
+                    final Path tmpFile =
+                        Files.createTempFile(file.getParent(), file.getFileName().toString(),
+                            ".tmp");
+                    Files.copy(file, tmpFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES);
+                    Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Optional<Path> projectPath(final String value) {
+        try {
+            final Path path = Paths.get(value);
+            return path.isAbsolute() && path.normalize().startsWith(projectBaseDir)
+                ? Optional.of(path.normalize())
+                : Optional.empty();
+        } catch (final InvalidPathException e) {
+            return Optional.empty();
+        }
+    }
+
+    // properties pointing into the build dir
+    private Set<Path> outputRoots(final ManagedProduct product) {
+        final Set<Path> roots = new LinkedHashSet<>();
+        for (final List<String> values : product.getProperties().values()) {
+            for (final String value : values) {
+                try {
+                    final Path path = projectBaseDir.resolve(value).normalize();
+                    if (path.startsWith(buildDir) && !path.equals(buildDir)) {
+                        roots.add(path);
+                    }
+                } catch (final InvalidPathException e) {
+                    // not a path
+                }
+            }
+        }
+        return roots;
+    }
+
+    private String relativize(final Path path) {
+        return projectBaseDir.relativize(path.toAbsolutePath().normalize()).toString();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zip archive of an {@link OutputCache} entry and all objects it references -- the unit
+ * transferred to and from the {@link RemoteCache}.
+ */
+final class OutputCacheArchive {
+
+    private static final String ENTRY_ZIP_NAME = "entry";
+    private static final String OBJECTS_ZIP_PREFIX = "objects/";
+
+    private OutputCacheArchive() {
+    }
+
+    static byte[] pack(final Path entryFile, final OutputCacheEntry entry,
+                       final OutputObjectStore objectStore) throws IOException {
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bos)) {
+            out.putNextEntry(new ZipEntry(ENTRY_ZIP_NAME));
+            Files.copy(entryFile, out);
+
+            for (final String hash : entry.objectHashes()) {
+                out.putNextEntry(new ZipEntry(OBJECTS_ZIP_PREFIX + hash));
+                Files.copy(objectStore.objectFile(hash), out);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Imports the objects of the archive (verified by their hashes) and writes its entry file.
+     */
+    static void unpack(final byte[] data, final Path entryFile,
+                       final OutputObjectStore objectStore) throws IOException {
+
+        byte[] entry = null;
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(data))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = in.getNextEntry()) != null) {
+                final String name = zipEntry.getName();
+                if (ENTRY_ZIP_NAME.equals(name)) {
+                    entry = in.readAllBytes();
+                } else if (name.startsWith(OBJECTS_ZIP_PREFIX)) {
+                    objectStore.importObject(name.substring(OBJECTS_ZIP_PREFIX.length()), in);
+                } else {
+                    throw new IOException("Unexpected file in output cache entry: " + name);
+                }
+            }
+        }
+
+        if (entry == null) {
+            throw new IOException("Output cache entry without entry file");
+        }
+
+        Files.createDirectories(entryFile.getParent());
+        final Path tmpFile = Files.createTempFile(entryFile.getParent(),
+            entryFile.getFileName().toString(), ".tmp");
+        Files.write(tmpFile, entry);
+        Files.move(tmpFile, entryFile, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import builders.loom.api.product.ManagedGenericProduct;
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.api.product.OutputInfo;
+import builders.loom.util.serialize.Record;
+import builders.loom.util.serialize.SimpleSerializer;
+
+/**
+ * Manifest of an {@link OutputCache} entry -- the product and its output files with the hashes
+ * of their objects. Paths are relative to the project directory.
+ */
+final class OutputCacheEntry {
+
+    private static final String CHECKSUM = "checksum";
+    private static final String PROPERTY = "property";
+    private static final String PATH_PROPERTY = "pathProperty";
+    private static final String OUTPUT_INFO = "outputInfo";
+    private static final String ROOT = "root";
+    private static final String DIR = "dir";
+    private static final String FILE = "file";
+
+    private static final Set<String> TYPES =
+        Set.of(CHECKSUM, PROPERTY, PATH_PROPERTY, OUTPUT_INFO, ROOT, DIR, FILE);
+
+    private final List<Record> records = new ArrayList<>();
+
+    static OutputCacheEntry read(final Path entryFile) throws IOException {
+        final OutputCacheEntry entry = new OutputCacheEntry();
+        SimpleSerializer.read(entryFile, (r) -> {
+            if (!TYPES.contains(r.getFields().get(0))) {
+                throw new IllegalStateException("Unknown output cache record type: "
+                    + r.getFields().get(0));
+            }
+            entry.records.add(r);
+        });
+        return entry;
+    }
+
+    void write(final Path entryFile) throws IOException {
+        Files.createDirectories(entryFile.getParent());
+        final Path tmpFile = Files.createTempFile(entryFile.getParent(),
+            entryFile.getFileName().toString(), ".tmp");
+        SimpleSerializer.write(tmpFile, records, (r) -> r);
+        Files.move(tmpFile, entryFile, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void addChecksum(final String checksum) {
+        records.add(new Record(CHECKSUM, null, checksum));
+    }
+
+    /**
+     * @param value the property value or {@code null} for a property without values
+     */
+    void addProperty(final String key, final String value) {
+        records.add(new Record(PROPERTY, key, value));
+    }
+
+    void addPathProperty(final String key, final String path) {
+        records.add(new Record(PATH_PROPERTY, key, path));
+    }
+
+    void addOutputInfo(final String name, final String artifact) {
+        records.add(new Record(OUTPUT_INFO, name, artifact));
+    }
+
+    void addRoot(final String path) {
+        records.add(new Record(ROOT, path, null));
+    }
+
+    void addDir(final String path) {
+        records.add(new Record(DIR, path, null));
+    }
+
+    void addFile(final String path, final String hash) {
+        records.add(new Record(FILE, path, hash));
+    }
+
+    /**
+     * The product with its paths resolved against the given project directory.
+     */
+    ManagedProduct toProduct(final Path projectBaseDir) {
+        final Map<String, List<String>> properties = new LinkedHashMap<>();
+        String checksum = null;
+        OutputInfo outputInfo = null;
+
+        for (final Record record : records) {
+            final String key = record.getFields().get(1);
+            final String value = record.getFields().get(2);
+
+            switch (record.getFields().get(0)) {
+                case CHECKSUM:
+                    checksum = value;
+                    break;
+                case PROPERTY:
+                    final List<String> values =
+                        properties.computeIfAbsent(key, (k) -> new ArrayList<>());
+                    if (value != null) {
+                        values.add(value);
+                    }
+                    break;
+                case PATH_PROPERTY:
+                    properties.computeIfAbsent(key, (k) -> new ArrayList<>())
+                        .add(projectBaseDir.resolve(value).toString());
+                    break;
+                case OUTPUT_INFO:
+                    outputInfo = new OutputInfo(key, projectBaseDir.resolve(value));
+                    break;
+                default:
+                    // output files
+            }
+        }
+
+        return new ManagedGenericProduct(properties, checksum, outputInfo);
+    }
+
+    List<String> roots() {
+        return keys(ROOT);
+    }
+
+    List<String> dirs() {
+        return keys(DIR);
+    }
+
+    /**
+     * The paths of the output files and the hashes of their objects.
+     */
+    Map<String, String> files() {
+        final Map<String, String> files = new LinkedHashMap<>();
+        for (final Record record : records) {
+            if (FILE.equals(record.getFields().get(0))) {
+                files.put(record.getFields().get(1), record.getFields().get(2));
+            }
+        }
+        return files;
+    }
+
+    Set<String> objectHashes() {
+        return new LinkedHashSet<>(files().values());
+    }
+
+    private List<String> keys(final String type) {
+        final List<String> keys = new ArrayList<>();
+        for (final Record record : records) {
+            if (type.equals(record.getFields().get(0))) {
+                keys.add(record.getFields().get(1));
+            }
+        }
+        return keys;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import builders.loom.util.Hasher;
+
+/**
+ * The file contents of the {@link OutputCache} -- stored once by their SHA-256 digest.
+ * <p>
+ * Objects may be shared with other machines via the {@link RemoteCache}. Therefore their names
+ * are always cryptographic digests (regardless of {@code loom.hash.algorithm}) -- objects
+ * received from a shared cache can't be forged by provoking a hash collision.
+ */
+final class OutputObjectStore {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path objectsDir;
+
+    OutputObjectStore(final Path objectsDir) {
+        this.objectsDir = objectsDir;
+    }
+
+    Path objectFile(final String hash) {
+        return objectsDir.resolve(Paths.get(hash.substring(0, 2), hash));
+    }
+
+    /**
+     * Stores a copy of the given file (if not already stored).
+     *
+     * @return the hash of the object
+     */
+    String store(final Path file) throws IOException {
+        final String hash = digest(file);
+        final Path object = objectFile(hash);
+
+        if (Files.notExists(object)) {
+            Files.createDirectories(object.getParent());
+
+            // copy (not link) -- the build file may be changed in place later
+            final Path tmpFile = Files.createTempFile(object.getParent(), hash, ".tmp");
+            Files.copy(file, tmpFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.COPY_ATTRIBUTES);
+            Files.move(tmpFile, object, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Stores an object received from a remote cache -- after verifying its hash.
+     */
+    void importObject(final String hash, final InputStream in) throws IOException {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new IOException("Invalid object name: " + hash);
+        }
+
+        final Path object = objectFile(hash);
+        if (Files.exists(object)) {
+            return;
+        }
+
+        Files.createDirectories(object.getParent());
+        final Path tmpFile = Files.createTempFile(object.getParent(), hash, ".tmp");
+        Files.copy(in, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+
+        if (!hash.equals(digest(tmpFile))) {
+            Files.delete(tmpFile);
+            throw new IOException("Checksum mismatch of object " + hash);
+        }
+
+        Files.move(tmpFile, object, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String digest(final Path file) {
+        return new Hasher(Hasher.newHashFunction(ALGORITHM)).putFile(file).hashHex();
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import builders.loom.api.BuildContext;
+import builders.loom.api.Module;
+import builders.loom.api.ProductPromise;
+import builders.loom.api.ProductRepository;
+
+/**
+ * Immutable index of the product repositories of all build contexts -- built once and shared by
+ * all jobs.
+ */
+final class ProductRepositories {
+
+    private final Map<BuildContext, ProductRepository> byContext;
+    private final Map<String, ProductRepository> byModuleName = new HashMap<>();
+    private final Set<Module> modules = new LinkedHashSet<>();
+
+    ProductRepositories(final Map<? extends BuildContext, ? extends ProductRepository> repos) {
+        byContext = Collections.unmodifiableMap(new HashMap<>(repos));
+
+        for (final Map.Entry<BuildContext, ProductRepository> entry : byContext.entrySet()) {
+            byModuleName.put(entry.getKey().getModuleName(), entry.getValue());
+            if (entry.getKey() instanceof Module) {
+                modules.add((Module) entry.getKey());
+            }
+        }
+    }
+
+    ProductRepository get(final BuildContext buildContext) {
+        return byContext.get(buildContext);
+    }
+
+    ProductPromise require(final String moduleName, final String productId) {
+        final ProductRepository productRepository = byModuleName.get(moduleName);
+        if (productRepository == null) {
+            throw new IllegalStateException("Module <" + moduleName + "> not found");
+        }
+        return productRepository.require(productId);
+    }
+
+    Set<Module> getModules() {
+        return Collections.unmodifiableSet(modules);
+    }
+
+}
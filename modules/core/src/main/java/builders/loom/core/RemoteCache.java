@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP backend of the {@link OutputCache} -- entries are fetched by GET and uploaded by PUT
+ * requests to {@code <url>/<loom version>/<key>}.
+ * <p>
+ * Configured by the system properties {@code loom.remote_cache.url},
+ * {@code loom.remote_cache.push} (upload entries -- read-only by default) and
+ * {@code loom.remote_cache.timeout} (max milliseconds per request).
+ * <p>
+ * A slow or failing cache must not slow down the build -- after the first failure or timeout
+ * the remote cache is disabled for the rest of the build.
+ */
+final class RemoteCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteCache.class);
+
+    private static final int DEFAULT_TIMEOUT = 3000;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_MULTIPLE_CHOICES = 300;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private final URI baseUri;
+    private final boolean push;
+    private final int timeout;
+    private volatile boolean disabled;
+
+    RemoteCache(final URI uri, final boolean push, final int timeout) {
+        final String base = uri.toString();
+        baseUri = URI.create(base.endsWith("/") ? base : base + "/")
+            .resolve(LoomVersion.getVersion() + "/");
+        this.push = push;
+        this.timeout = timeout;
+    }
+
+    static Optional<RemoteCache> fromSystemProperties() {
+        final String url = System.getProperty("loom.remote_cache.url");
+        if (url == null || url.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final RemoteCache remoteCache = new RemoteCache(URI.create(url),
+            Boolean.getBoolean("loom.remote_cache.push"),
+            Integer.getInteger("loom.remote_cache.timeout", DEFAULT_TIMEOUT));
+
+        LOG.info("Use remote cache {} ({})", remoteCache.baseUri,
+            remoteCache.push ? "read-write" : "read-only");
+
+        return Optional.of(remoteCache);
+    }
+
+    boolean isPushEnabled() {
+        return push && !disabled;
+    }
+
+    /**
+     * Fetches the entry with the given key.
+     *
+     * @return the entry or empty if it doesn't exist or the cache isn't available
+     */
+    Optional<byte[]> fetch(final String key) {
+        if (disabled) {
+            return Optional.empty();
+        }
+
+        final long deadline = System.nanoTime() + (long) timeout * NANOS_PER_MILLI;
+
+        try {
+            return get(key, deadline);
+        } catch (final IOException e) {
+            disable(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Uploads the entry with the given key -- if pushing is enabled.
+     */
+    void push(final String key, final byte[] entry) {
+        if (!isPushEnabled()) {
+            return;
+        }
+
+        try {
+            put(key, entry);
+        } catch (final IOException e) {
+            disable(e);
+        }
+    }
+
+    private Optional<byte[]> get(final String key, final long deadline) throws IOException {
+        final HttpURLConnection conn = open(key, "GET");
+        try {
+            final int status = conn.getResponseCode();
+            if (status == HTTP_NOT_FOUND) {
+                return Optional.empty();
+            }
+            checkStatus(key, status);
+
+            try (final InputStream in = conn.getInputStream()) {
+                return Optional.of(readFully(in, deadline));
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private void put(final String key, final byte[] entry) throws IOException {
+        final HttpURLConnection conn = open(key, "PUT");
+        try {
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/zip");
+            conn.setFixedLengthStreamingMode(entry.length);
+            try (final OutputStream out = conn.getOutputStream()) {
+                out.write(entry);
+            }
+            checkStatus(key, conn.getResponseCode());
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(final String key, final String method) throws IOException {
+        final URL url = baseUri.resolve(key).toURL();
+        final HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(timeout);
+        conn.setReadTimeout(timeout);
+        conn.setUseCaches(false);
+        return conn;
+    }
+
+    private static void checkStatus(final String key, final int status) throws IOException {
+        if (status < HTTP_OK || status >= HTTP_MULTIPLE_CHOICES) {
+            throw new IOException("Unexpected HTTP status " + status + " for " + key);
+        }
+    }
+
+    // the read timeout only limits single reads -- limit the whole transfer
+    private static byte[] readFully(final InputStream in, final long deadline)
+        throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buf = new byte[BUFFER_SIZE];
+        int cnt;
+        while ((cnt = in.read(buf)) != -1) {
+            if (System.nanoTime() > deadline) {
+                throw new IOException("Timeout while reading from remote cache");
+            }
+            out.write(buf, 0, cnt);
+        }
+        return out.toByteArray();
+    }
+
+    private void disable(final IOException e) {
+        if (!disabled) {
+            disabled = true;
+            LOG.warn("Remote cache {} not available -- disabled for this build: {}",
+                baseUri, e.toString());
+        }
+    }
+
+}
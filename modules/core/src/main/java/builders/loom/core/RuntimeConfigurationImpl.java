@@ -26,13 +26,16 @@ public class RuntimeConfigurationImpl implements RuntimeConfiguration {
     private final boolean cacheEnabled;
     private final String version;
     private final boolean moduleBuild;
+    private final int workerCount;
 
     public RuntimeConfigurationImpl(final Path projectBaseDir, final boolean cacheEnabled,
-                                    final String version, final boolean moduleBuild) {
+                                    final String version, final boolean moduleBuild,
+                                    final int workerCount) {
         this.projectBaseDir = projectBaseDir;
         this.cacheEnabled = cacheEnabled;
         this.version = version;
         this.moduleBuild = moduleBuild;
+        this.workerCount = workerCount;
     }
 
     @Override
@@ -55,4 +58,11 @@ public class RuntimeConfigurationImpl implements RuntimeConfiguration {
         return moduleBuild;
     }
 
+    /**
+     * Maximum number of tasks executed concurrently.
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.LoomPaths;
+import builders.loom.api.Module;
+
+/**
+ * Watches the source and resource directories of modules and translates file changes into
+ * changed products.
+ */
+public class SourceWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SourceWatcher.class);
+
+    // wait for this quiet period before reporting changes (editors often write multiple files)
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private static final Map<Path, String> WATCHED_PRODUCTS = Map.of(
+        LoomPaths.SRC_MAIN, "source",
+        LoomPaths.SRC_TEST, "testSource",
+        LoomPaths.RES_MAIN, "resources",
+        LoomPaths.RES_TEST, "testResources"
+    );
+
+    private final WatchService watchService;
+    private final Map<WatchKey, WatchedDir> watchedDirs = new HashMap<>();
+
+    public SourceWatcher(final Collection<Module> modules) {
+        try {
+            watchService = modules.stream()
+                .findFirst()
+                .map(m -> m.getPath().getFileSystem())
+                .orElseThrow(() -> new IllegalStateException("No modules to watch"))
+                .newWatchService();
+
+            for (final Module module : modules) {
+                for (final Map.Entry<Path, String> entry : WATCHED_PRODUCTS.entrySet()) {
+                    watchRoot(module, entry.getValue(),
+                        module.getPath().resolve(entry.getKey()));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        LOG.debug("Watching {} directories", watchedDirs.size());
+    }
+
+    /**
+     * Watches the given source root -- or, if it doesn't exist (yet), its nearest existing
+     * parent directory to notice when it gets created.
+     *
+     * @return true if the source root exists and is watched
+     */
+    private boolean watchRoot(final Module module, final String productId, final Path root)
+        throws IOException {
+
+        Path dir = root;
+        while (!Files.isDirectory(dir)) {
+            dir = dir.getParent();
+        }
+
+        if (dir.equals(root)) {
+            registerRecursive(module, productId, root);
+            return true;
+        }
+
+        register(new WatchedDir(module, null, dir));
+
+        // the next directory might have been created before the watch has been registered
+        final Path next = dir.resolve(dir.relativize(root).getName(0));
+        return Files.isDirectory(next) && watchRoot(module, productId, root);
+    }
+
+    private void registerRecursive(final Module module, final String productId, final Path dir)
+        throws IOException {
+
+        final Set<Path> dirs;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            dirs = paths.filter(Files::isDirectory).collect(Collectors.toSet());
+        }
+
+        for (final Path d : dirs) {
+            register(new WatchedDir(module, productId, d));
+        }
+    }
+
+    private void register(final WatchedDir watchedDir) throws IOException {
+        final WatchKey key = watchedDir.dir.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirs.put(key, watchedDir);
+    }
+
+    /**
+     * Blocks until files have been changed.
+     *
+     * @return the ids of the changed products per module
+     */
+    public Map<Module, Set<String>> awaitChanges() throws InterruptedException {
+        final Map<Module, Set<String>> changedProducts = new HashMap<>();
+
+        WatchKey key = watchService.take();
+        while (key != null) {
+            processEvents(key, changedProducts);
+            key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        LOG.info("Changed products: {}", changedProducts);
+
+        return changedProducts;
+    }
+
+    private void processEvents(final WatchKey key, final Map<Module, Set<String>> changes) {
+        final WatchedDir watchedDir = watchedDirs.get(key);
+
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (watchedDir == null) {
+                continue;
+            }
+
+            LOG.debug("File event {} in {}: {}", event.kind(), watchedDir.dir, event.context());
+
+            try {
+                if (watchedDir.productId == null) {
+                    processParentEvent(watchedDir, event, changes);
+                } else {
+                    processSourceEvent(watchedDir, event, changes);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        if (!key.reset()) {
+            // directory has been deleted
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void processSourceEvent(final WatchedDir watchedDir, final WatchEvent<?> event,
+                                    final Map<Module, Set<String>> changes) throws IOException {
+
+        changes.computeIfAbsent(watchedDir.module, (m) -> new HashSet<>())
+            .add(watchedDir.productId);
+
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+            // new directories (and their subdirectories) have to be watched as well
+            final Path child = watchedDir.dir.resolve((Path) event.context());
+            if (Files.isDirectory(child)) {
+                registerRecursive(watchedDir.module, watchedDir.productId, child);
+            }
+        }
+    }
+
+    // a directory on the way to a source root that didn't exist yet might have been created
+    private void processParentEvent(final WatchedDir watchedDir, final WatchEvent<?> event,
+                                    final Map<Module, Set<String>> changes) throws IOException {
+
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+            final Path child = watchedDir.dir.resolve((Path) event.context());
+            final Module module = watchedDir.module;
+            for (final Map.Entry<Path, String> entry : WATCHED_PRODUCTS.entrySet()) {
+                final Path root = module.getPath().resolve(entry.getKey());
+                if (root.startsWith(child) && watchRoot(module, entry.getValue(), root)) {
+                    changes.computeIfAbsent(module, (m) -> new HashSet<>())
+                        .add(entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private static final class WatchedDir {
+
+        private final Module module;
+
+        // null for parent directories of source roots that don't exist (yet)
+        private final String productId;
+        private final Path dir;
+
+        WatchedDir(final Module module, final String productId, final Path dir) {
+            this.module = module;
+            this.productId = productId;
+            this.dir = dir;
+        }
+
+    }
+
+}
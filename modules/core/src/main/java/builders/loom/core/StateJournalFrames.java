@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import builders.loom.api.product.ManagedGenericProduct;
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.api.product.OutputInfo;
+
+/**
+ * Binary format of the {@link StateStore} journal -- every frame consists of the payload
+ * length, the CRC32 of the payload and the payload (the change of one task's state).
+ */
+final class StateJournalFrames {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_SIZE = 8;
+
+    private StateJournalFrames() {
+    }
+
+    /**
+     * Reads the next frame -- empty if the buffer contains no complete and valid frame.
+     */
+    static Optional<Frame> read(final ByteBuffer buf) {
+        try {
+            return readPayload(buf).map(StateJournalFrames::decode);
+        } catch (final BufferUnderflowException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<ByteBuffer> readPayload(final ByteBuffer buf) {
+        if (buf.remaining() < HEADER_SIZE) {
+            return Optional.empty();
+        }
+
+        final int length = buf.getInt();
+        final int crc = buf.getInt();
+        if (length <= 0 || length > buf.remaining()) {
+            return Optional.empty();
+        }
+
+        final ByteBuffer payload = buf.slice();
+        payload.limit(length);
+        buf.position(buf.position() + length);
+
+        return crc(payload.duplicate()) == crc ? Optional.of(payload) : Optional.empty();
+    }
+
+    private static Frame decode(final ByteBuffer payload) {
+        final byte type = payload.get();
+        final String key = readString(payload);
+
+        switch (type) {
+            case PUT:
+                final String signature = readString(payload);
+                return new Frame(key, signature, decodeProduct(payload));
+            case REMOVE:
+                return new Frame(key, null, null);
+            default:
+                throw new IllegalStateException("Unknown state journal frame type: " + type);
+        }
+    }
+
+    private static ManagedProduct decodeProduct(final ByteBuffer payload) {
+        final String checksum = readString(payload);
+        final String outputInfoName = readNullableString(payload);
+        final String outputInfoArtifact = readNullableString(payload);
+
+        final Map<String, List<String>> properties = new LinkedHashMap<>();
+        final int propertyCount = payload.getInt();
+        for (int i = 0; i < propertyCount; i++) {
+            final String name = readString(payload);
+            final int valueCount = payload.getInt();
+            final List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(readString(payload));
+            }
+            properties.put(name, values);
+        }
+
+        final OutputInfo outputInfo = outputInfoName == null ? null
+            : outputInfoArtifact == null ? new OutputInfo(outputInfoName)
+            : new OutputInfo(outputInfoName, Paths.get(outputInfoArtifact));
+
+        return new ManagedGenericProduct(properties, checksum, outputInfo);
+    }
+
+    /**
+     * Writes a frame of the given state -- a {@code null} product removes the state.
+     *
+     * @return the size of the frame
+     */
+    static int write(final FileChannel out, final String key, final String signature,
+                     final ManagedProduct product) throws IOException {
+        final byte[] payload = encode(key, signature, product);
+
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length)
+            .putInt(payload.length)
+            .putInt(crc(ByteBuffer.wrap(payload)))
+            .put(payload);
+        frame.flip();
+
+        while (frame.hasRemaining()) {
+            out.write(frame);
+        }
+        return frame.limit();
+    }
+
+    private static int crc(final ByteBuffer data) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] encode(final String key, final String signature,
+                                 final ManagedProduct product) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeByte(product == null ? REMOVE : PUT);
+            writeString(out, key);
+            if (product != null) {
+                writeString(out, signature);
+                encodeProduct(out, product);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static void encodeProduct(final DataOutputStream out, final ManagedProduct product)
+        throws IOException {
+        writeString(out, product.checksum());
+
+        final Optional<OutputInfo> outputInfo = product.getOutputInfo();
+        writeNullableString(out, outputInfo.map(OutputInfo::getName).orElse(null));
+        writeNullableString(out, outputInfo.map(OutputInfo::getArtifact)
+            .map(Path::toString).orElse(null));
+
+        final Map<String, List<String>> properties = product.getProperties();
+        out.writeInt(properties.size());
+        for (final Map.Entry<String, List<String>> property : properties.entrySet()) {
+            writeString(out, property.getKey());
+            out.writeInt(property.getValue().size());
+            for (final String value : property.getValue()) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String str)
+        throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeNullableString(final DataOutputStream out, final String str)
+        throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            writeString(out, str);
+        }
+    }
+
+    private static String readString(final ByteBuffer buf) {
+        final int length = buf.getInt();
+        if (length < 0 || length > buf.remaining()) {
+            throw new IllegalStateException("Invalid string length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readNullableString(final ByteBuffer buf) {
+        return buf.get() != 0 ? readString(buf) : null;
+    }
+
+    /**
+     * A change of a task's state -- the product is {@code null} if the state was removed.
+     */
+    static final class Frame {
+
+        private final String key;
+        private final String signature;
+        private final ManagedProduct product;
+
+        Frame(final String key, final String signature, final ManagedProduct product) {
+            this.key = key;
+            this.signature = signature;
+            this.product = product;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getSignature() {
+            return signature;
+        }
+
+        ManagedProduct getProduct() {
+            return product;
+        }
+
+    }
+
+}
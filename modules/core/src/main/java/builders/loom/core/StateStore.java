@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.util.FileUtil;
+
+/**
+ * Journal of the signatures and products of the last task executions -- a single
+ * append-only file per project instead of several small files per task.
+ * <p>
+ * Every change is one frame (length, CRC32, payload) -- a task's signature and product are
+ * committed (or removed) atomically. On load, the journal is read (memory mapped) up to the
+ * first incomplete or corrupt frame; a torn write of a crashed build just loses that change.
+ * The journal is compacted on close once it contains more outdated than current frames.
+ */
+final class StateStore implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StateStore.class);
+
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private final Path journalFile;
+    private final Map<String, State> states = new LinkedHashMap<>();
+    private final Map<String, Integer> frameSizes = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long journalSize;
+    private long liveSize;
+    private boolean tornTail;
+
+    private StateStore(final Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    static StateStore open(final Path journalFile) {
+        final StateStore stateStore = new StateStore(journalFile);
+        try {
+            stateStore.load();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stateStore;
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final long fileSize = channel.size();
+        if (fileSize > 0) {
+            final MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            for (Optional<StateJournalFrames.Frame> frame = StateJournalFrames.read(buf);
+                 frame.isPresent(); frame = StateJournalFrames.read(buf)) {
+                apply(frame.get(), (int) (buf.position() - journalSize));
+                journalSize = buf.position();
+            }
+        }
+
+        if (journalSize < fileSize) {
+            LOG.warn("Discarding {} bytes of incomplete state journal {}",
+                fileSize - journalSize, journalFile);
+            tornTail = true;
+        }
+
+        // new frames overwrite an incomplete tail
+        channel.position(journalSize);
+
+        // record the access for the cache garbage collection
+        FileUtil.touch(journalFile);
+    }
+
+    private void apply(final StateJournalFrames.Frame frame, final int frameSize) {
+        if (frame.getProduct() == null) {
+            setState(frame.getKey(), null, 0);
+        } else {
+            setState(frame.getKey(), new State(frame.getSignature(), frame.getProduct()),
+                frameSize);
+        }
+    }
+
+    private void setState(final String key, final State state, final int frameSize) {
+        final Integer oldFrameSize = state == null
+            ? frameSizes.remove(key) : frameSizes.put(key, frameSize);
+        liveSize += frameSize - (oldFrameSize != null ? oldFrameSize : 0);
+
+        if (state == null) {
+            states.remove(key);
+        } else {
+            states.put(key, state);
+        }
+    }
+
+    synchronized Optional<String> getSignature(final String key) {
+        return Optional.ofNullable(states.get(key)).map((s) -> s.signature);
+    }
+
+    synchronized Optional<ManagedProduct> getProduct(final String key) {
+        return Optional.ofNullable(states.get(key)).map((s) -> s.product);
+    }
+
+    /**
+     * Commits the signature and product of a task execution.
+     */
+    synchronized void put(final String key, final String signature,
+                          final ManagedProduct product) {
+        final int frameSize = append(key, signature, product);
+        setState(key, new State(signature, product), frameSize);
+    }
+
+    /**
+     * Removes the state of a task -- before its outputs are changed.
+     */
+    synchronized void remove(final String key) {
+        if (states.containsKey(key)) {
+            append(key, null, null);
+            setState(key, null, 0);
+        }
+    }
+
+    private int append(final String key, final String signature,
+                       final ManagedProduct product) {
+        try {
+            final int frameSize = StateJournalFrames.write(channel, key, signature, product);
+            journalSize += frameSize;
+            return frameSize;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (tornTail || journalSize > MIN_COMPACTION_SIZE && journalSize > 2 * liveSize) {
+            compact();
+        }
+    }
+
+    // the mapped journal may still be locked (Windows) -- compaction is retried on next close
+    private void compact() {
+        final Path tmpFile = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            for (final Map.Entry<String, State> entry : states.entrySet()) {
+                StateJournalFrames.write(out, entry.getKey(), entry.getValue().signature,
+                    entry.getValue().product);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(tmpFile, journalFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("Compacted state journal {} from {} to {} bytes",
+                journalFile, journalSize, liveSize);
+        } catch (final IOException e) {
+            LOG.debug("Compaction of state journal {} failed: {}", journalFile, e.toString());
+        }
+    }
+
+    private static final class State {
+
+        private final String signature;
+        private final ManagedProduct product;
+
+        State(final String signature, final ManagedProduct product) {
+            this.signature = signature;
+            this.product = product;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.LoomPaths;
+import builders.loom.api.RuntimeConfiguration;
+import builders.loom.util.serialize.Record;
+import builders.loom.util.serialize.SimpleSerializer;
+
+/**
+ * Execution times of tasks recorded in earlier builds -- used to prioritize long running
+ * task chains.
+ */
+class TaskDurationHistory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskDurationHistory.class);
+
+    // unknown tasks count as 1 ms -- keeps the number of remaining tasks as tie-breaker
+    private static final long DEFAULT_DURATION = 1_000_000;
+
+    private final Path historyFile;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    TaskDurationHistory(final RuntimeConfiguration runtimeConfiguration) {
+        historyFile = LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
+            .resolve(Paths.get(LoomVersion.getVersion(), "task-durations"));
+    }
+
+    @SuppressWarnings("checkstyle:illegalcatch")
+    void load() {
+        if (Files.notExists(historyFile)) {
+            return;
+        }
+
+        try {
+            SimpleSerializer.read(historyFile, (e) ->
+                durations.put(e.getFields().get(0), Long.valueOf(e.getFields().get(1))));
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable task duration history " + historyFile, e);
+            durations.clear();
+        }
+    }
+
+    long estimate(final String taskName) {
+        return durations.getOrDefault(taskName, DEFAULT_DURATION);
+    }
+
+    void record(final String taskName, final long duration) {
+        durations.put(taskName, Math.max(DEFAULT_DURATION, duration));
+    }
+
+    void persist() {
+        try {
+            Files.createDirectories(historyFile.getParent());
+            SimpleSerializer.write(historyFile, durations.entrySet(),
+                (e) -> new Record(e.getKey(), Long.toString(e.getValue())));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -16,12 +16,6 @@
 
 package builders.loom.core;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -31,13 +25,12 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import builders.loom.api.LoomPaths;
 import builders.loom.api.ProductPromise;
-import builders.loom.api.RuntimeConfiguration;
 import builders.loom.api.UsedProducts;
 import builders.loom.api.product.ManagedProduct;
+import builders.loom.core.jfr.EventScope;
+import builders.loom.core.jfr.LoomEvents;
 import builders.loom.core.plugin.ConfiguredTask;
-import builders.loom.util.FileUtil;
 import builders.loom.util.Hashing;
 import builders.loom.util.SkipChecksumUtil;
 
@@ -45,20 +38,24 @@ class TaskExecutionPrediction {
 
     private static final Logger LOG = LoggerFactory.getLogger(TaskExecutionPrediction.class);
 
-    private final RuntimeConfiguration runtimeConfiguration;
+    private static final String PREVENT_SKIP = "PREVENT-SKIP:";
+
     private final ConfiguredTask configuredTask;
     private final UsedProducts usedProducts;
     private final String signature;
-    private final Path sigFile;
 
-    TaskExecutionPrediction(final RuntimeConfiguration runtimeConfiguration,
-                            final ConfiguredTask configuredTask,
+    TaskExecutionPrediction(final ConfiguredTask configuredTask,
                             final UsedProducts usedProducts) {
-        this.runtimeConfiguration = runtimeConfiguration;
         this.configuredTask = configuredTask;
         this.usedProducts = usedProducts;
-        signature = calcSignature();
-        sigFile = buildFileName();
+
+        final EventScope checksumEvent = LoomEvents.checksum(
+            configuredTask.getBuildContext().getModuleName(), configuredTask.getName());
+        try {
+            signature = calcSignature();
+        } finally {
+            checksumEvent.finish();
+        }
     }
 
     @SuppressWarnings("checkstyle:illegalcatch")
@@ -76,7 +73,7 @@ class TaskExecutionPrediction {
         // Prevent skipping tasks by default
         if (skipHints.isEmpty() && !configuredTask.isGoal()) {
             LOG.debug("No skip hints configured -- don't skip");
-            return "PREVENT-SKIP:" + SkipChecksumUtil.never();
+            return PREVENT_SKIP + SkipChecksumUtil.never().get();
         }
 
         final List<String> checksumParts = new ArrayList<>(skipHints);
@@ -111,52 +108,16 @@ class TaskExecutionPrediction {
         return hash;
     }
 
-    boolean canSkipTask() {
-        if (Files.notExists(sigFile)) {
-            return false;
-        }
-
-        try {
-            final String signatureLastRun = FileUtil.readToString(sigFile);
-
-            final boolean equals = signatureLastRun.equals(signature);
-            LOG.info("Last run: {} - current: {}; equals: {}", signatureLastRun, signature, equals);
-            return equals;
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
-
-    }
-
-    private Path buildFileName() {
-        final Path file = LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
-            .resolve(Paths.get(LoomVersion.getVersion(), "execution-prevention", "checksums",
-                configuredTask.getBuildContext().getModuleName(),
-                configuredTask.getProvidedProduct() + ".sig"));
-
-        try {
-            Files.createDirectories(file.getParent());
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
-
-        return file;
+    String getSignature() {
+        return signature;
     }
 
-    void clearSignature() {
-        try {
-            Files.deleteIfExists(sigFile);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
-
-    void commitSignature() {
-        try {
-            FileUtil.writeStringToFile(sigFile, signature, StandardOpenOption.CREATE_NEW);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    /**
+     * Checks if the signature may match a later run -- not the case for tasks without skip
+     * hints.
+     */
+    boolean isRepeatable() {
+        return !signature.startsWith(PREVENT_SKIP);
     }
 
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.BuildSettings;
+import builders.loom.api.JavaVersion;
+import builders.loom.api.LoomPaths;
+import builders.loom.api.RuntimeConfiguration;
+import builders.loom.core.LoomVersion;
+import builders.loom.util.serialize.Record;
+import builders.loom.util.serialize.SimpleSerializer;
+
+/**
+ * Parsed configurations of all modules, stored in one file (instead of one file per module).
+ * <p>
+ * Each record is (cache name, type, key, value) -- an entry is only used if the hash of
+ * the config file matches.
+ */
+public final class ConfigCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigCache.class);
+
+    private static final String HASH = "hash";
+    private static final String PLUGIN = "plugin";
+    private static final String MODULE_NAME = "moduleName";
+    private static final String JAVA_PLATFORM_VERSION = "javaPlatformVersion";
+    private static final String SETTING = "setting";
+    private static final String MODULE_COMPILE_DEPENDENCY = "moduleCompileDependency";
+    private static final String COMPILE_DEPENDENCY = "compileDependency";
+    private static final String TEST_DEPENDENCY = "testDependency";
+
+    // field positions within a record
+    private static final int NAME_FIELD = 0;
+    private static final int TYPE_FIELD = 1;
+    private static final int KEY_FIELD = 2;
+    private static final int VALUE_FIELD = 3;
+
+    private final Path cacheFile;
+    private final boolean enabled;
+    private final Map<String, Entry> cachedEntries = new HashMap<>();
+
+    // entries used by this build -- only those are persisted
+    private final Map<String, Entry> usedEntries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    public ConfigCache(final RuntimeConfiguration runtimeConfiguration) {
+        this(LoomPaths.loomDir(runtimeConfiguration.getProjectBaseDir())
+                .resolve(Paths.get(LoomVersion.getVersion(), "config-cache")),
+            runtimeConfiguration.isCacheEnabled());
+    }
+
+    ConfigCache(final Path cacheFile, final boolean enabled) {
+        this.cacheFile = cacheFile;
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("checkstyle:illegalcatch")
+    public void load() {
+        if (!enabled || Files.notExists(cacheFile)) {
+            return;
+        }
+
+        final Map<String, EntryBuilder> builders = new LinkedHashMap<>();
+
+        try {
+            SimpleSerializer.read(cacheFile, (e) -> {
+                final List<String> fields = e.getFields();
+                builders.computeIfAbsent(fields.get(NAME_FIELD), (n) -> new EntryBuilder())
+                    .add(fields.get(TYPE_FIELD), fields.get(KEY_FIELD), fields.get(VALUE_FIELD));
+            });
+
+            for (final Map.Entry<String, EntryBuilder> entry : builders.entrySet()) {
+                cachedEntries.put(entry.getKey(), entry.getValue().build());
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable config cache " + cacheFile, e);
+            cachedEntries.clear();
+        }
+    }
+
+    Optional<BuildConfigImpl> get(final String cacheName, final String configHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        final Entry entry = cachedEntries.get(cacheName);
+        if (entry == null || !entry.configHash.equals(configHash)) {
+            return Optional.empty();
+        }
+
+        usedEntries.put(cacheName, entry);
+        return Optional.of(entry.buildConfig);
+    }
+
+    void put(final String cacheName, final String configHash,
+             final BuildConfigImpl buildConfig) {
+        if (enabled) {
+            usedEntries.put(cacheName, new Entry(configHash, buildConfig));
+            modified = true;
+        }
+    }
+
+    /**
+     * Writes the cache if entries have been added or removed.
+     */
+    public void persist() {
+        if (!enabled || !modified && usedEntries.keySet().equals(cachedEntries.keySet())) {
+            return;
+        }
+
+        final List<Record> records = new ArrayList<>();
+        usedEntries.forEach((name, entry) -> entry.writeTo(name, records));
+
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            SimpleSerializer.write(cacheFile, records, (r) -> r);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        LOG.debug("Wrote config cache with {} entries", usedEntries.size());
+    }
+
+    private static final class Entry {
+
+        private final String configHash;
+        private final BuildConfigImpl buildConfig;
+
+        Entry(final String configHash, final BuildConfigImpl buildConfig) {
+            this.configHash = configHash;
+            this.buildConfig = buildConfig;
+        }
+
+        void writeTo(final String name, final List<Record> records) {
+            final BuildSettings buildSettings = buildConfig.getBuildSettings();
+
+            records.add(new Record(name, HASH, null, configHash));
+            buildConfig.getPlugins().forEach((p) -> records.add(
+                new Record(name, PLUGIN, null, p)));
+            if (buildSettings.getModuleName() != null) {
+                records.add(new Record(name, MODULE_NAME, null, buildSettings.getModuleName()));
+            }
+            records.add(new Record(name, JAVA_PLATFORM_VERSION, null,
+                buildSettings.getJavaPlatformVersion().name()));
+            buildConfig.getSettings().forEach((k, v) -> records.add(
+                new Record(name, SETTING, k, v)));
+            buildConfig.getModuleCompileDependencies().forEach((d) -> records.add(
+                new Record(name, MODULE_COMPILE_DEPENDENCY, null, d)));
+            buildConfig.getCompileDependencies().forEach((d) -> records.add(
+                new Record(name, COMPILE_DEPENDENCY, null, d)));
+            buildConfig.getTestDependencies().forEach((d) -> records.add(
+                new Record(name, TEST_DEPENDENCY, null, d)));
+        }
+
+    }
+
+    private static final class EntryBuilder {
+
+        private final Set<String> plugins = new LinkedHashSet<>();
+        private final Map<String, String> settings = new LinkedHashMap<>();
+        private final Set<String> moduleCompileDependencies = new LinkedHashSet<>();
+        private final Set<String> compileDependencies = new LinkedHashSet<>();
+        private final Set<String> testDependencies = new LinkedHashSet<>();
+        private String configHash;
+        private String moduleName;
+        private JavaVersion javaPlatformVersion;
+
+        @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+        void add(final String type, final String key, final String value) {
+            switch (type) {
+                case HASH:
+                    configHash = value;
+                    break;
+                case PLUGIN:
+                    plugins.add(value);
+                    break;
+                case MODULE_NAME:
+                    moduleName = value;
+                    break;
+                case JAVA_PLATFORM_VERSION:
+                    javaPlatformVersion = JavaVersion.valueOf(value);
+                    break;
+                case SETTING:
+                    settings.put(key, value);
+                    break;
+                case MODULE_COMPILE_DEPENDENCY:
+                    moduleCompileDependencies.add(value);
+                    break;
+                case COMPILE_DEPENDENCY:
+                    compileDependencies.add(value);
+                    break;
+                case TEST_DEPENDENCY:
+                    testDependencies.add(value);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown config cache record type: " + type);
+            }
+        }
+
+        Entry build() {
+            if (configHash == null) {
+                throw new IllegalStateException("Config cache entry without hash");
+            }
+
+            return new Entry(configHash, new BuildConfigImpl(plugins,
+                new BuildSettingsImpl(moduleName, javaPlatformVersion), settings,
+                moduleCompileDependencies, compileDependencies, testDependencies));
+        }
+
+    }
+
+}
@@ -19,23 +19,17 @@ package builders.loom.core.config;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
-import builders.loom.api.LoomPaths;
 import builders.loom.api.ModuleBuildConfig;
-import builders.loom.core.LoomVersion;
-import builders.loom.core.RuntimeConfigurationImpl;
 import builders.loom.util.Hasher;
 
 public final class ConfigReader {
@@ -45,74 +39,33 @@ public final class ConfigReader {
     private ConfigReader() {
     }
 
-    public static ModuleBuildConfig readConfig(final RuntimeConfigurationImpl runtimeConfig,
+    public static ModuleBuildConfig readConfig(final ConfigCache configCache,
                                                final Path buildFile, final String cacheName) {
 
         if (!Files.isRegularFile(buildFile)) {
             throw new IllegalArgumentException("No module.yml found");
         }
 
+        final byte[] configData;
         try {
-            final byte[] configData = Files.readAllBytes(buildFile);
-
-            final BuildConfigImpl buildConfig;
-            if (!runtimeConfig.isCacheEnabled()) {
-                buildConfig = parseConfig(configData);
-                LOG.debug("Working with parsed config: {}", buildConfig);
-            } else {
-                final Path cachePath = LoomPaths.loomDir(runtimeConfig.getProjectBaseDir())
-                    .resolve(Paths.get(LoomVersion.getVersion(), cacheName));
-
-                buildConfig = parseAndCacheConfig(configData, cachePath);
-                LOG.debug("Working with cached config: {}", buildConfig);
-            }
-
-            return buildConfig;
+            configData = Files.readAllBytes(buildFile);
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
-    }
-
-    private static BuildConfigImpl parseAndCacheConfig(final byte[] configData,
-                                                       final Path cachePath) throws IOException {
-        final byte[] configHash = new Hasher().putBytes(configData).hash();
-
-        Files.createDirectories(cachePath);
 
-        final Path hashFile = cachePath.resolve(Paths.get("config.hash"));
-        final Path cacheFile = cachePath.resolve(Paths.get("config.cache"));
+        final String configHash = new Hasher().putBytes(configData).hashHex();
 
-        BuildConfigImpl buildConfig = readConfigFromCache(configHash, hashFile, cacheFile);
-
-        if (buildConfig == null) {
-            buildConfig = parseConfig(configData);
-            writeConfigCache(configHash, hashFile, cacheFile, buildConfig);
+        final Optional<BuildConfigImpl> cachedConfig = configCache.get(cacheName, configHash);
+        if (cachedConfig.isPresent()) {
+            LOG.debug("Working with cached config: {}", cachedConfig.get());
+            return cachedConfig.get();
         }
 
-        return buildConfig;
-    }
+        final BuildConfigImpl buildConfig = parseConfig(configData);
+        configCache.put(cacheName, configHash, buildConfig);
+        LOG.debug("Working with parsed config: {}", buildConfig);
 
-    @SuppressWarnings({"checkstyle:returncount", "checkstyle:illegalcatch"})
-    private static BuildConfigImpl readConfigFromCache(final byte[] configHash,
-                                                       final Path hashFile, final Path cacheFile)
-        throws IOException {
-
-        if (Files.notExists(hashFile) || Files.notExists(cacheFile)) {
-            return null;
-        }
-
-        final byte[] configHashFromCache = Files.readAllBytes(hashFile);
-        if (!Arrays.equals(configHash, configHashFromCache)) {
-            return null;
-        }
-
-        try (ObjectInputStream out = new ObjectInputStream(
-            Files.newInputStream(cacheFile))) {
-            return (BuildConfigImpl) out.readObject();
-        } catch (final Exception e) {
-            LOG.warn(e.getMessage(), e);
-            return null;
-        }
+        return buildConfig;
     }
 
     private static BuildConfigImpl parseConfig(final byte[] data) {
@@ -125,17 +78,4 @@ public final class ConfigReader {
         }
     }
 
-    private static void writeConfigCache(final byte[] configHash, final Path hashFile,
-                                         final Path cacheFile,
-                                         final BuildConfigImpl buildConfig) throws IOException {
-        Files.deleteIfExists(hashFile);
-
-        try (ObjectOutputStream out =
-                 new ObjectOutputStream(Files.newOutputStream(cacheFile))) {
-            out.writeObject(buildConfig);
-        }
-
-        Files.write(hashFile, configHash);
-    }
-
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+/**
+ * A started flight recorder event.
+ */
+@FunctionalInterface
+public interface EventScope {
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param outcome result of the recorded activity (may be {@code null})
+     */
+    void finish(String outcome);
+
+    default void finish() {
+        finish(null);
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.nio.file.Path;
+
+/**
+ * Flight recording of a build -- written to the given file when stopped (or the JVM exits).
+ */
+public interface FlightRecording {
+
+    /**
+     * Starts a recording with the JDK's "default" settings, extended by all Loom events.
+     */
+    static FlightRecording start(final Path file) {
+        return LoomEvents.support()
+            .orElseThrow(() -> new IllegalStateException("JDK Flight Recorder (module jdk.jfr) "
+                + "is not available in this Java runtime"))
+            .startRecording(file);
+    }
+
+    /**
+     * Stops the recording and writes it to its destination.
+     *
+     * @return the destination file
+     */
+    Path stop();
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import builders.loom.api.DependencyResolverService;
+import builders.loom.api.DependencyScope;
+import builders.loom.api.RuntimeConfiguration;
+import builders.loom.api.service.ResolvedArtifact;
+
+/**
+ * Emits a flight recorder event for each dependency resolution of the decorated service.
+ */
+public class JfrDependencyResolverService implements DependencyResolverService {
+
+    private final DependencyResolverService delegate;
+
+    public JfrDependencyResolverService(final DependencyResolverService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setRuntimeConfiguration(final RuntimeConfiguration runtimeConfiguration) {
+        delegate.setRuntimeConfiguration(runtimeConfiguration);
+    }
+
+    @Override
+    public void setRepositoryPath(final Path repositoryPath) {
+        delegate.setRepositoryPath(repositoryPath);
+    }
+
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    @Override
+    public List<Path> resolveMainArtifacts(final List<String> deps, final DependencyScope scope) {
+        final EventScope event = LoomEvents.dependencyResolution(scope.name(), deps.size());
+        String outcome = "failed";
+        try {
+            final List<Path> artifacts = delegate.resolveMainArtifacts(deps, scope);
+            outcome = artifacts.size() + " artifacts";
+            return artifacts;
+        } finally {
+            event.finish(outcome);
+        }
+    }
+
+    @Override
+    public List<ResolvedArtifact> resolveArtifacts(final List<String> deps,
+                                                   final DependencyScope scope,
+                                                   final boolean withSources) {
+        final EventScope event = LoomEvents.dependencyResolution(scope.name(), deps.size());
+        String outcome = "failed";
+        try {
+            final List<ResolvedArtifact> artifacts =
+                delegate.resolveArtifacts(deps, scope, withSources);
+            outcome = artifacts.size() + " artifacts";
+            return artifacts;
+        } finally {
+            event.finish(outcome);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.nio.file.Path;
+
+/**
+ * Flight recorder integration -- implemented by the classes of the {@code jfr} source set
+ * that are only compiled and loaded if the {@code jdk.jfr} module is available.
+ */
+interface JfrSupport {
+
+    EventScope job(String moduleName, String taskName);
+
+    EventScope productWait(String moduleName, String productModuleName, String productId);
+
+    EventScope skipCheck(String moduleName, String taskName);
+
+    EventScope checksum(String moduleName, String taskName);
+
+    EventScope dependencyResolution(String scope, int dependencyCount);
+
+    FlightRecording startRecording(Path file);
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.jfr;
+
+import java.util.Optional;
+
+/**
+ * Entry point for emitting Loom specific JDK Flight Recorder events.
+ * <p>
+ * The events are only created if the runtime provides the {@code jdk.jfr} module (and Loom was
+ * built with it) -- otherwise all methods return a no-op scope. Events are cheap as long as no
+ * recording is running.
+ */
+public final class LoomEvents {
+
+    private static final String JFR_SUPPORT_CLASS = "builders.loom.core.jfr.JfrEvents";
+
+    private static final JfrSupport SUPPORT = loadSupport();
+
+    private static final EventScope NOOP = (outcome) -> { };
+
+    private LoomEvents() {
+    }
+
+    private static JfrSupport loadSupport() {
+        if (!ModuleLayer.boot().findModule("jdk.jfr").isPresent()) {
+            return null;
+        }
+
+        try {
+            return (JfrSupport) Class.forName(JFR_SUPPORT_CLASS)
+                .getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException e) {
+            // Loom was built without jdk.jfr
+            return null;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return SUPPORT != null;
+    }
+
+    static Optional<JfrSupport> support() {
+        return Optional.ofNullable(SUPPORT);
+    }
+
+    public static EventScope job(final String moduleName, final String taskName) {
+        return SUPPORT != null ? SUPPORT.job(moduleName, taskName) : NOOP;
+    }
+
+    public static EventScope productWait(final String moduleName,
+                                         final String productModuleName,
+                                         final String productId) {
+        return SUPPORT != null
+            ? SUPPORT.productWait(moduleName, productModuleName, productId)
+            : NOOP;
+    }
+
+    public static EventScope skipCheck(final String moduleName, final String taskName) {
+        return SUPPORT != null ? SUPPORT.skipCheck(moduleName, taskName) : NOOP;
+    }
+
+    public static EventScope checksum(final String moduleName, final String taskName) {
+        return SUPPORT != null ? SUPPORT.checksum(moduleName, taskName) : NOOP;
+    }
+
+    public static EventScope dependencyResolution(final String scope,
+                                                  final int dependencyCount) {
+        return SUPPORT != null ? SUPPORT.dependencyResolution(scope, dependencyCount) : NOOP;
+    }
+
+}
@@ -16,21 +16,28 @@
 
 package builders.loom.core.misc;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Directed acyclic graph -- all operations are linear in the number of vertices and edges.
+ */
 public class DirectedGraph<T> {
 
-    private final Map<T, Vertex<T>> vertices = new HashMap<>();
+    private final Map<T, Vertex<T>> vertices = new LinkedHashMap<>();
 
     public DirectedGraph() {
     }
@@ -67,19 +74,24 @@ public class DirectedGraph<T> {
         return resolve(Collections.singletonList(dest));
     }
 
+    /**
+     * Resolves the given destinations and all nodes reachable from them.
+     *
+     * @return the resolved nodes -- each node is listed after all of its reachable nodes
+     */
     public List<T> resolve(final Collection<T> destinations) {
         checkCycle();
 
-        final Set<Vertex<T>> collect = new LinkedHashSet<>();
+        final Map<Vertex<T>, Colour> colours = new HashMap<>();
+        final List<T> collect = new ArrayList<>();
         for (final T dest : destinations) {
             final Vertex<T> destVertex = vertices.get(dest);
             if (destVertex == null) {
                 throw new IllegalArgumentException("Unknown vertex <" + dest + ">");
             }
-            doCollect(collect, destVertex.getOutgoing());
-            collect.add(destVertex);
+            visit(destVertex, colours, v -> collect.add(v.getValue()));
         }
-        return collect.stream().map(Vertex::getValue).collect(Collectors.toList());
+        return collect;
     }
 
     public List<T> resolve(final Predicate<T> predicated) {
@@ -91,26 +103,92 @@ public class DirectedGraph<T> {
         return resolve(requested);
     }
 
-    private void doCollect(final Set<Vertex<T>> collect, final List<Vertex<T>> destinations) {
-        for (final Vertex<T> dest : destinations) {
-            doCollect(collect, dest.getOutgoing());
+    /**
+     * Calculates the nodes reachable from each node (transitive closure) in one pass. The
+     * closure of a node is built from the already calculated closures of its direct successors.
+     *
+     * @return the reachable nodes (excluding the node itself) of every node
+     */
+    public Map<T, Set<T>> resolveAll() {
+        final Map<Vertex<T>, Colour> colours = new HashMap<>();
+        final Map<T, Set<T>> closures = new HashMap<>();
+
+        for (final Vertex<T> vertex : vertices.values()) {
+            visit(vertex, colours, v -> {
+                final Set<T> closure = new HashSet<>();
+                for (final Vertex<T> outgoing : v.getOutgoing()) {
+                    if (closure.add(outgoing.getValue())) {
+                        closure.addAll(closures.get(outgoing.getValue()));
+                    }
+                }
+                closures.put(v.getValue(), closure);
+            });
         }
-        collect.addAll(destinations);
+
+        return closures;
     }
 
     private void checkCycle() {
-        vertices.values().forEach(v -> checkCycle(v, new LinkedList<>()));
+        final Map<Vertex<T>, Colour> colours = new HashMap<>();
+        vertices.values().forEach(v -> visit(v, colours, finished -> { }));
     }
 
-    private void checkCycle(final Vertex<T> vertex, final LinkedList<Vertex<T>> visited) {
-        if (visited.contains(vertex)) {
-            throw new IllegalStateException("Graph has cyclic dependencies: <" + vertex
-                + "> already seen");
+    /**
+     * Depth-first search (iterative, to support deep graphs). Vertices on the current path are
+     * GREY, completely visited ones BLACK -- reaching a GREY vertex again means a cycle.
+     *
+     * @param finished called for every vertex after all of its successors (post-order)
+     */
+    private void visit(final Vertex<T> start, final Map<Vertex<T>, Colour> colours,
+                       final Consumer<Vertex<T>> finished) {
+        if (colours.containsKey(start)) {
+            return;
         }
 
-        visited.add(vertex);
-        vertex.getOutgoing().forEach(n -> checkCycle(n, visited));
-        visited.removeLast();
+        final Deque<Vertex<T>> path = new ArrayDeque<>();
+        final Deque<Iterator<Vertex<T>>> pending = new ArrayDeque<>();
+
+        colours.put(start, Colour.GREY);
+        path.push(start);
+        pending.push(start.getOutgoing().iterator());
+
+        while (!path.isEmpty()) {
+            final Iterator<Vertex<T>> successors = pending.peek();
+            if (successors.hasNext()) {
+                final Vertex<T> next = successors.next();
+                final Colour colour = colours.get(next);
+                if (colour == Colour.GREY) {
+                    throw new IllegalStateException("Graph has cyclic dependencies: "
+                        + describeCycle(path, next));
+                }
+                if (colour == null) {
+                    colours.put(next, Colour.GREY);
+                    path.push(next);
+                    pending.push(next.getOutgoing().iterator());
+                }
+            } else {
+                pending.pop();
+                final Vertex<T> vertex = path.pop();
+                colours.put(vertex, Colour.BLACK);
+                finished.accept(vertex);
+            }
+        }
+    }
+
+    private static <T> String describeCycle(final Deque<Vertex<T>> path, final Vertex<T> vertex) {
+        final List<Vertex<T>> cycle = new ArrayList<>();
+        cycle.add(vertex);
+        for (final Vertex<T> v : path) {
+            cycle.add(v);
+            if (v == vertex) {
+                break;
+            }
+        }
+        Collections.reverse(cycle);
+
+        return cycle.stream()
+            .map(v -> "<" + v + ">")
+            .collect(Collectors.joining(" -> "));
     }
 
     @Override
@@ -118,6 +196,10 @@ public class DirectedGraph<T> {
         return vertices.keySet().stream().map(Object::toString).collect(Collectors.joining(", "));
     }
 
+    private enum Colour {
+        GREY, BLACK
+    }
+
     static final class Vertex<T> {
 
         private final T value;
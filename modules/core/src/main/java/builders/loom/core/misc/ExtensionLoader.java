@@ -20,6 +20,8 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,12 +34,23 @@ public final class ExtensionLoader {
 
     private static final Logger LOG = LoggerFactory.getLogger(ExtensionLoader.class);
 
+    // extensions are loaded only once per JVM -- keeps classes (and JIT) warm within a daemon
+    private static final Map<String, Class<?>> LOADED_EXTENSIONS = new ConcurrentHashMap<>();
+
     private ExtensionLoader() {
     }
 
     public static Class<?> loadExtension(final Path baseDir, final String extensionName,
                                          final String extensionClassname) {
 
+        return LOADED_EXTENSIONS.computeIfAbsent(
+            baseDir.toAbsolutePath() + "/" + extensionName + "/" + extensionClassname,
+            (k) -> doLoadExtension(baseDir, extensionName, extensionClassname));
+    }
+
+    private static Class<?> doLoadExtension(final Path baseDir, final String extensionName,
+                                            final String extensionClassname) {
+
         final URL pluginJarUrl = findExtensionUrl(baseDir, extensionName);
 
         // Note that plugin dependencies are specified in MANIFEST.MF
@@ -64,13 +77,14 @@ public final class ExtensionLoader {
     }
 
     private static URL findExtensionUrl(final Path baseDir, final String name) {
+        return ClassLoaderUtil.toUrl(findExtensionJar(baseDir, name));
+    }
+
+    public static Path findExtensionJar(final Path baseDir, final String name) {
         final String loomVersion = LoomVersion.getVersion();
         final Path libraryPath = baseDir.resolve(Paths.get("library", "loom-" + loomVersion));
         final Path pluginDir = libraryPath.resolve(name);
-        final Path pluginFile =
-            pluginDir.resolve(String.format("loom-%s-%s.jar", name, loomVersion));
-
-        return ClassLoaderUtil.toUrl(pluginFile);
+        return pluginDir.resolve(String.format("loom-%s-%s.jar", name, loomVersion));
     }
 
     private static ClassLoader getPlatformClassLoader() {
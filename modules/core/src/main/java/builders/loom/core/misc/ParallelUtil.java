@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.misc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+public final class ParallelUtil {
+
+    private ParallelUtil() {
+    }
+
+    /**
+     * Applies the function to all elements in parallel (one thread per core at most).
+     * Threads inherit the context class loader of the caller.
+     *
+     * @param name used for naming the threads
+     * @return the results in the order of the elements
+     */
+    public static <T, R> List<R> map(final String name, final Collection<T> elements,
+                                     final Function<T, R> function) {
+
+        final int threads = Math.min(elements.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            final List<R> results = new ArrayList<>(elements.size());
+            for (final T element : elements) {
+                results.add(function.apply(element));
+            }
+            return results;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder()
+                .withNameFormat(name + "-%d")
+                .withDaemon(true)
+                .build());
+
+        try {
+            final List<Future<R>> futures = new ArrayList<>(elements.size());
+            for (final T element : elements) {
+                futures.add(executor.submit(() -> function.apply(element)));
+            }
+
+            final List<R> results = new ArrayList<>(elements.size());
+            for (final Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
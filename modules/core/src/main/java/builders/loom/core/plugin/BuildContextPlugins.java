@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.plugin;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import builders.loom.api.BuildConfigWithSettings;
+import builders.loom.api.BuildContext;
+
+/**
+ * The plugins of a build context. Plugins are initialized lazily -- only if a product they
+ * provide (according to their descriptor) is needed by the build.
+ */
+public class BuildContextPlugins {
+
+    private final PluginLoader pluginLoader;
+    private final Map<String, String> availablePlugins;
+    private final BuildContext buildContext;
+    private final TaskRegistryImpl taskRegistry;
+    private final Set<String> pendingPlugins;
+    private final Set<String> acceptedSettings = new HashSet<>();
+
+    public BuildContextPlugins(final PluginLoader pluginLoader,
+                               final Map<String, String> availablePlugins,
+                               final Set<String> pluginNames,
+                               final BuildContext buildContext) {
+        for (final String pluginName : pluginNames) {
+            if (!availablePlugins.containsKey(pluginName)) {
+                throw new IllegalArgumentException("Unknown plugin: " + pluginName);
+            }
+        }
+
+        this.pluginLoader = pluginLoader;
+        this.availablePlugins = availablePlugins;
+        this.buildContext = buildContext;
+        taskRegistry = new TaskRegistryImpl(buildContext);
+        pendingPlugins = new TreeSet<>(pluginNames);
+    }
+
+    public TaskRegistryImpl getTaskRegistry() {
+        return taskRegistry;
+    }
+
+    /**
+     * Initializes all pending plugins that may provide one of the given products. Plugins
+     * without descriptor are always initialized.
+     *
+     * @return true if any plugin has been initialized
+     */
+    public synchronized boolean initPluginsProviding(final Set<String> productIds) {
+        final List<String> plugins = pendingPlugins.stream()
+            .filter(p -> pluginLoader.readProvidedProducts(p)
+                .map(products -> products.stream().anyMatch(productIds::contains))
+                .orElse(true))
+            .collect(Collectors.toList());
+
+        plugins.forEach(this::initPlugin);
+
+        return !plugins.isEmpty();
+    }
+
+    /**
+     * Initializes all pending plugins.
+     *
+     * @return true if any plugin has been initialized
+     */
+    public synchronized boolean initAllPlugins() {
+        final List<String> plugins = new ArrayList<>(pendingPlugins);
+        plugins.forEach(this::initPlugin);
+        return !plugins.isEmpty();
+    }
+
+    private void initPlugin(final String pluginName) {
+        acceptedSettings.addAll(pluginLoader.initPlugin(availablePlugins, pluginName,
+            buildContext.getConfig(), taskRegistry));
+        pendingPlugins.remove(pluginName);
+    }
+
+    /**
+     * Validates the tasks and settings of the initialized plugins -- settings of plugins that
+     * haven't been initialized are accepted as is.
+     */
+    public synchronized void validate() {
+        pluginLoader.validateConfiguredTasks(taskRegistry);
+
+        if (buildContext.getConfig() instanceof BuildConfigWithSettings) {
+            final BuildConfigWithSettings config =
+                (BuildConfigWithSettings) buildContext.getConfig();
+
+            final Set<String> settings = new HashSet<>(acceptedSettings);
+            config.getSettings().keySet().stream()
+                .filter(k -> pendingPlugins.stream().anyMatch(p -> k.startsWith(p + ".")))
+                .forEach(settings::add);
+
+            pluginLoader.validateSettings(config, settings);
+        }
+    }
+
+}
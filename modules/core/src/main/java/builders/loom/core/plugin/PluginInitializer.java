@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.plugin;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import builders.loom.core.misc.ParallelUtil;
+
+/**
+ * Initializes the plugins of all build contexts -- lazily, only those providing products
+ * needed by the build. Plugins of independent build contexts are initialized in parallel.
+ */
+public class PluginInitializer {
+
+    private final List<BuildContextPlugins> contextPlugins = new ArrayList<>();
+
+    public void add(final BuildContextPlugins plugins) {
+        contextPlugins.add(plugins);
+    }
+
+    /**
+     * Initializes the plugins providing the given products and (transitively) all products
+     * used by their tasks. The tasks are validated once all needed plugins are initialized.
+     */
+    public void initPluginsProviding(final Set<String> productIds) {
+        final Set<String> neededProducts = new HashSet<>(productIds);
+        do {
+            collectNeededProducts(neededProducts);
+        } while (initPlugins(p -> p.initPluginsProviding(neededProducts)));
+
+        // unknown product or incomplete plugin descriptor
+        if (!providedProducts().containsAll(productIds)) {
+            initPlugins(BuildContextPlugins::initAllPlugins);
+        }
+
+        validate();
+    }
+
+    public void initAllPlugins() {
+        if (initPlugins(BuildContextPlugins::initAllPlugins)) {
+            validate();
+        }
+    }
+
+    // adds the products (transitively) needed by the registered tasks providing neededProducts
+    private void collectNeededProducts(final Set<String> neededProducts) {
+        final List<ConfiguredTask> configuredTasks = configuredTasks();
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (final ConfiguredTask configuredTask : configuredTasks) {
+                if (neededProducts.contains(configuredTask.getProvidedProduct())) {
+                    changed |= neededProducts.addAll(configuredTask.getUsedProducts());
+                    changed |= neededProducts.addAll(configuredTask.getOptionallyUsedProducts());
+                    changed |= neededProducts.addAll(configuredTask.getImportedProducts());
+                    changed |= neededProducts.addAll(configuredTask.getImportedAllProducts());
+                }
+            }
+        }
+    }
+
+    private boolean initPlugins(final Predicate<BuildContextPlugins> initializer) {
+        final List<Boolean> initialized =
+            ParallelUtil.map("plugin-init", contextPlugins, initializer::test);
+
+        return initialized.contains(Boolean.TRUE);
+    }
+
+    // tasks of plugins initialized in an earlier round may use products of later rounds
+    private void validate() {
+        contextPlugins.forEach(BuildContextPlugins::validate);
+    }
+
+    private Set<String> providedProducts() {
+        return configuredTasks().stream()
+            .map(ConfiguredTask::getProvidedProduct)
+            .collect(Collectors.toSet());
+    }
+
+    private List<ConfiguredTask> configuredTasks() {
+        return contextPlugins.stream()
+            .flatMap(p -> p.getTaskRegistry().configuredTasks().stream())
+            .collect(Collectors.toList());
+    }
+
+}
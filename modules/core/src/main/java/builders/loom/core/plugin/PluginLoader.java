@@ -16,14 +16,23 @@
 
 package builders.loom.core.plugin;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -42,30 +51,56 @@ public class PluginLoader {
 
     private static final Logger LOG = LoggerFactory.getLogger(PluginLoader.class);
 
+    private static final String DESCRIPTOR = "loom-plugin.properties";
+
     private final Path loomBaseDir = SystemUtil.determineLoomBaseDir();
-    private final Map<String, Class<?>> pluginClasses = new HashMap<>();
+    private final Map<String, Class<?>> pluginClasses = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Set<String>>> pluginProducts = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the products a plugin may provide from its descriptor -- without loading the plugin.
+     *
+     * @return the product ids or empty if the plugin has no descriptor
+     */
+    public Optional<Set<String>> readProvidedProducts(final String pluginName) {
+        return pluginProducts.computeIfAbsent(pluginName, this::readDescriptor);
+    }
 
-    public void initPlugins(final Map<String, String> availablePlugins,
-                            final Set<String> pluginsToInitialize,
-                            final BuildConfig moduleConfig,
-                            final TaskRegistryImpl taskRegistry) {
+    private Optional<Set<String>> readDescriptor(final String pluginName) {
+        final Path pluginJar =
+            ExtensionLoader.findExtensionJar(loomBaseDir, "plugin-" + pluginName);
 
-        final Set<String> acceptedSettings = new HashSet<>();
-        for (final String plugin : pluginsToInitialize) {
-            acceptedSettings.addAll(initPlugin(availablePlugins, plugin, moduleConfig,
-                taskRegistry));
+        if (Files.notExists(pluginJar)) {
+            return Optional.empty();
         }
 
-        validateConfiguredTasks(taskRegistry);
-
-        if (moduleConfig instanceof BuildConfigWithSettings) {
-            validateSettings((BuildConfigWithSettings) moduleConfig, acceptedSettings);
+        final Properties properties = new Properties();
+        try (JarFile jarFile = new JarFile(pluginJar.toFile())) {
+            final JarEntry entry = jarFile.getJarEntry(DESCRIPTOR);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try (InputStream in = jarFile.getInputStream(entry)) {
+                properties.load(in);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
+
+        return Optional.of(Arrays.stream(properties.getProperty("products", "").split(","))
+            .map(String::trim)
+            .filter(p -> !p.isEmpty())
+            .collect(Collectors.toSet()));
     }
 
-    private Set<String> initPlugin(final Map<String, String> availablePlugins,
-                                   final String pluginName, final BuildConfig config,
-                                   final TaskRegistryImpl taskRegistry) {
+    /**
+     * Initializes the plugin and lets it register its tasks.
+     *
+     * @return the settings accepted by the plugin
+     */
+    Set<String> initPlugin(final Map<String, String> availablePlugins,
+                           final String pluginName, final BuildConfig config,
+                           final TaskRegistryImpl taskRegistry) {
 
         final Plugin plugin = getPlugin(availablePlugins, pluginName);
 
@@ -139,7 +174,7 @@ public class PluginLoader {
         return configuredPluginSettings;
     }
 
-    private void validateConfiguredTasks(final TaskRegistryLookup taskRegistry) {
+    void validateConfiguredTasks(final TaskRegistryLookup taskRegistry) {
         final Set<String> providedProducts = taskRegistry.configuredTasks().stream()
             .map(ConfiguredTask::getProvidedProduct)
             .collect(Collectors.toSet());
@@ -156,8 +191,8 @@ public class PluginLoader {
         }
     }
 
-    private void validateSettings(final BuildConfigWithSettings moduleConfig,
-                                  final Set<String> configuredPluginSettings) {
+    void validateSettings(final BuildConfigWithSettings moduleConfig,
+                          final Set<String> configuredPluginSettings) {
         final Set<String> unknownSettings = new HashSet<>(moduleConfig.getSettings().keySet());
         unknownSettings.removeAll(configuredPluginSettings);
 
@@ -51,4 +51,14 @@ public class ProductRepositoryImpl implements ProductRepository {
 
     }
 
+    /**
+     * Replaces an already registered product by a new (uncompleted) one -- used for executing
+     * a task again.
+     */
+    public void resetProduct(final String moduleName, final String productId) {
+        if (products.replace(productId, new ProductPromise(moduleName, productId)) == null) {
+            throw new IllegalStateException("Product <" + productId + "> not registered");
+        }
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Proxy of a service that is built on its first use -- the service class and its dependencies
+ * aren't loaded if no task needs the service.
+ */
+final class LazyService<T> implements InvocationHandler {
+
+    private final String serviceName;
+    private final Supplier<T> serviceSupplier;
+
+    // the service is built by a task's thread, which may have changed its context class loader
+    private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+    private volatile T service;
+
+    private LazyService(final String serviceName, final Supplier<T> serviceSupplier) {
+        this.serviceName = serviceName;
+        this.serviceSupplier = serviceSupplier;
+    }
+
+    static <T> T proxy(final Class<T> serviceInterface, final String serviceName,
+                       final Supplier<T> serviceSupplier) {
+        return serviceInterface.cast(Proxy.newProxyInstance(serviceInterface.getClassLoader(),
+            new Class<?>[]{serviceInterface}, new LazyService<>(serviceName, serviceSupplier)));
+    }
+
+    private T getService() {
+        T s = service;
+        if (s == null) {
+            synchronized (this) {
+                s = service;
+                if (s == null) {
+                    s = buildService();
+                    service = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    private T buildService() {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(contextClassLoader);
+        try {
+            return serviceSupplier.get();
+        } finally {
+            thread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:illegalthrows")
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+        throws Throwable {
+
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+
+        try {
+            return method.invoke(getService(), args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object invokeObjectMethod(final Object proxy, final Method method,
+                                      final Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "LazyService{" + serviceName + "}";
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+}
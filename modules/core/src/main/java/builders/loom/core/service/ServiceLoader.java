@@ -28,12 +28,16 @@ import builders.loom.api.DownloadProgressEmitter;
 import builders.loom.api.DownloadProgressEmitterAware;
 import builders.loom.api.LoomPaths;
 import builders.loom.api.Service;
+import builders.loom.core.BuildTrace;
 import builders.loom.core.DownloadProgressEmitterBridge;
 import builders.loom.core.LoomVersion;
 import builders.loom.core.ProgressMonitor;
 import builders.loom.core.RuntimeConfigurationImpl;
+import builders.loom.core.jfr.JfrDependencyResolverService;
+import builders.loom.core.jfr.LoomEvents;
 import builders.loom.core.misc.ExtensionLoader;
 import builders.loom.util.Preconditions;
+import builders.loom.util.Stopwatch;
 import builders.loom.util.SystemUtil;
 
 public class ServiceLoader {
@@ -43,22 +47,34 @@ public class ServiceLoader {
     private final Path loomBaseDir = SystemUtil.determineLoomBaseDir();
     private final RuntimeConfigurationImpl runtimeConfiguration;
     private final DownloadProgressEmitter downloadProgressEmitter;
+    private final BuildTrace buildTrace;
     private final ServiceRegistryImpl serviceRegistry;
 
     public ServiceLoader(final RuntimeConfigurationImpl runtimeConfiguration,
-                         final ProgressMonitor progressMonitor) {
+                         final ProgressMonitor progressMonitor,
+                         final BuildTrace buildTrace) {
         this.runtimeConfiguration = runtimeConfiguration;
         this.downloadProgressEmitter = new DownloadProgressEmitterBridge(progressMonitor);
+        this.buildTrace = buildTrace;
 
         this.serviceRegistry = new ServiceRegistryImpl();
     }
 
+    /**
+     * Registers the services -- they're built once they're used for the first time.
+     */
     public ServiceRegistryImpl initServices() {
         serviceRegistry.setDependencyResolverService(
-            buildService("service-maven",
-                "builders.loom.service.maven.MavenService",
-                DependencyResolverService.class)
-        );
+            LazyService.proxy(DependencyResolverService.class, "service-maven", () -> {
+                final DependencyResolverService dependencyResolverService =
+                    buildService("service-maven",
+                        "builders.loom.service.maven.MavenService",
+                        DependencyResolverService.class);
+
+                return LoomEvents.isAvailable()
+                    ? new JfrDependencyResolverService(dependencyResolverService)
+                    : dependencyResolverService;
+            }));
 
         return serviceRegistry;
     }
@@ -66,6 +82,9 @@ public class ServiceLoader {
     private <T extends Service> T buildService(final String serviceName,
                                                final String serviceClassname,
                                                final Class<T> serviceInterface) {
+        final Stopwatch sw = new Stopwatch();
+        final long start = System.nanoTime();
+
         final Service service = getService(serviceName, serviceClassname);
         service.setRuntimeConfiguration(runtimeConfiguration);
 
@@ -82,7 +101,8 @@ public class ServiceLoader {
 
         service.init();
 
-        LOG.info("Service {} initialized", serviceName);
+        LOG.info("Service {} initialized in {}", serviceName, sw);
+        buildTrace.record("init", "init " + serviceName, start);
 
         return serviceInterface.cast(service);
     }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.product.ManagedGenericProduct;
+
+public class CacheManagerTest {
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        final Path projectDir = Files.createTempDirectory("CacheManagerTest");
+        final Path versionDir = projectDir.resolve(".loom").resolve(LoomVersion.getVersion());
+        final Path otherVersionDir =
+            Files.createDirectories(projectDir.resolve(".loom/0.9.0/execution-prevention"));
+        final Path expiredFile = Files.createDirectories(versionDir.resolve("checkstyle/foo"))
+            .resolve("checkstyle.cache");
+        Files.write(expiredFile, new byte[] {1});
+        Files.setLastModifiedTime(expiredFile, daysAgo(60));
+
+        final Path jarFile = Files.createDirectories(
+            projectDir.resolve("build/products/foo/jar")).resolve("foo.jar");
+        final OutputCache outputCache = new OutputCache(
+            versionDir.resolve(OutputCache.CACHE_DIR), projectDir, "foo", "jar", null);
+
+        // two entries of 10 KB each -- only the most recently used one fits
+        Files.write(jarFile, new byte[10_000]);
+        outputCache.store("old", new ManagedGenericProduct("jarFile", jarFile.toString(),
+            "old", null));
+        Files.write(jarFile, new byte[10_001]);
+        outputCache.store("new", new ManagedGenericProduct("jarFile", jarFile.toString(),
+            "new", null));
+
+        final Path entries = versionDir.resolve(OutputCache.CACHE_DIR)
+            .resolve(OutputCache.ENTRIES_DIR).resolve("foo/jar");
+        Files.setLastModifiedTime(entries.resolve("old"), daysAgo(2));
+        Files.setLastModifiedTime(entries.resolve("new"), daysAgo(1));
+        outputCache.touch("old");
+
+        final CacheManager cacheManager =
+            new CacheManager(projectDir, 15_000, Duration.ofDays(30));
+        assertTrue(cacheManager.isCollectionDue());
+        assertTrue(cacheManager.collect() > 0);
+        assertFalse(cacheManager.isCollectionDue());
+
+        assertFalse(Files.exists(otherVersionDir));
+        assertFalse(Files.exists(expiredFile.getParent()));
+        assertFalse(Files.exists(entries.resolve("new")));
+
+        Files.delete(jarFile);
+        assertTrue(outputCache.restore("old").isPresent());
+        assertEquals(10_000, Files.size(jarFile));
+    }
+
+    private static FileTime daysAgo(final int days) {
+        return FileTime.from(Instant.now().minus(Duration.ofDays(days)));
+    }
+
+}
@@ -18,8 +18,16 @@ package builders.loom.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
@@ -55,4 +63,106 @@ public class DirectedGraphTest {
         assertThrows(IllegalStateException.class, () -> graph.resolve("foo"));
     }
 
+    @Test
+    public void cycleIsReported() {
+        final DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addNode("foo");
+        graph.addNode("bar");
+        graph.addNode("baz");
+
+        graph.addEdge("foo", "bar");
+        graph.addEdge("bar", "baz");
+        graph.addEdge("baz", "bar");
+
+        final IllegalStateException e =
+            assertThrows(IllegalStateException.class, () -> graph.resolveAll());
+        assertTrue(e.getMessage().contains("<bar> -> <baz> -> <bar>"), e.getMessage());
+    }
+
+    @Test
+    public void resolveAll() {
+        final DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addNode("app");
+        graph.addNode("web");
+        graph.addNode("service");
+        graph.addNode("util");
+
+        graph.addEdge("app", "web");
+        graph.addEdge("app", "service");
+        graph.addEdge("web", "util");
+        graph.addEdge("service", "util");
+
+        final Map<String, Set<String>> closures = graph.resolveAll();
+        assertEquals(Set.of("web", "service", "util"), closures.get("app"));
+        assertEquals(Set.of("util"), closures.get("web"));
+        assertEquals(Set.of(), closures.get("util"));
+    }
+
+    // layers of vertices, each connected to several vertices of the layer below -- the number
+    // of paths grows exponentially with the number of layers
+    @Test
+    public void diamondHeavyGraph() {
+        final int layers = 50;
+        final int width = 60;
+        final int fanOut = 5;
+
+        final DirectedGraph<String> graph = new DirectedGraph<>();
+        final List<String> nodes = new ArrayList<>();
+        final Map<String, List<String>> edges = new HashMap<>();
+        for (int n = 0; n < layers * width; n++) {
+            final int layer = n / width;
+            final int i = n % width;
+            final String node = layer + "/" + i;
+            graph.addNode(node);
+            nodes.add(node);
+            edges.put(node, new ArrayList<>());
+            for (int j = 0; layer > 0 && j < fanOut; j++) {
+                final String dest = (layer - 1) + "/" + ((i + j * 7) % width);
+                graph.addEdge(node, dest);
+                edges.get(node).add(dest);
+            }
+        }
+
+        final List<String> resolved = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> graph.resolve((n) -> n.startsWith((layers - 1) + "/")));
+
+        assertEquals(layers * width, resolved.size());
+        assertTopologicalOrder(edges, resolved);
+
+        final Map<String, Set<String>> closures =
+            assertTimeoutPreemptively(Duration.ofSeconds(10), graph::resolveAll);
+        assertEquals(nodes.size(), closures.size());
+        assertEquals(Set.of(), closures.get("0/0"));
+        assertTrue(closures.get((layers - 1) + "/0").contains("0/0"));
+    }
+
+    @Test
+    public void deepGraph() {
+        final int depth = 10_000;
+
+        final DirectedGraph<Integer> graph = new DirectedGraph<>();
+        for (int i = 0; i < depth; i++) {
+            graph.addNode(i);
+            if (i > 0) {
+                graph.addEdge(i, i - 1);
+            }
+        }
+
+        final List<Integer> resolved = graph.resolve(depth - 1);
+        assertEquals(depth, resolved.size());
+        assertEquals(Integer.valueOf(0), resolved.get(0));
+        assertEquals(Integer.valueOf(depth - 1), resolved.get(depth - 1));
+    }
+
+    private static void assertTopologicalOrder(final Map<String, List<String>> edges,
+                                               final List<String> resolved) {
+        final Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            positions.put(resolved.get(i), i);
+        }
+
+        edges.forEach((node, dests) -> dests.forEach(dest ->
+            assertTrue(positions.get(dest) < positions.get(node), dest + " before " + node)));
+    }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.FileTreeSnapshot;
+import builders.loom.util.ProductChecksumUtil;
+
+public class FileTreeSnapshotServiceImplTest {
+
+    @Test
+    public void snapshotAndUpdate() throws Exception {
+        final Path rootDir = Files.createTempDirectory("FileTreeSnapshotServiceImplTest");
+        final Path fooFile = Files.createDirectories(rootDir.resolve("foo")).resolve("Foo.java");
+        final Path barFile = rootDir.resolve("Bar.java");
+        Files.write(fooFile, new byte[] {1});
+        Files.write(barFile, new byte[] {2});
+
+        final FileTreeSnapshotServiceImpl service = new FileTreeSnapshotServiceImpl();
+        final FileTreeSnapshot snapshot = service.snapshot(rootDir);
+
+        assertEquals(List.of(barFile, fooFile), snapshot.getFiles());
+        assertEquals(1, snapshot.getAttributes(fooFile).size());
+        assertEquals(ProductChecksumUtil.recursiveContentChecksum(rootDir),
+            snapshot.getContentChecksum());
+
+        // memoized until updated
+        Files.delete(barFile);
+        assertEquals(2, service.snapshot(rootDir).getFiles().size());
+        assertEquals(List.of(fooFile), service.update(rootDir).getFiles());
+        assertEquals(List.of(fooFile), service.snapshot(rootDir).getFiles());
+
+        assertTrue(service.snapshot(rootDir.resolve("missing")).getFiles().isEmpty());
+    }
+
+}
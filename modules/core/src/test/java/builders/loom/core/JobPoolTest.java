@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.GoalTask;
+import builders.loom.api.JavaVersion;
+import builders.loom.api.Module;
+import builders.loom.api.TaskResult;
+import builders.loom.api.TaskStatus;
+import builders.loom.core.config.BuildConfigImpl;
+import builders.loom.core.config.BuildSettingsImpl;
+import builders.loom.core.plugin.ConfiguredTask;
+import builders.loom.core.plugin.ProductRepositoryImpl;
+import builders.loom.core.plugin.TaskRegistryImpl;
+
+public class JobPoolTest {
+
+    // guards against a hanging pool only
+    private static final Duration HANG_TIMEOUT = Duration.ofMinutes(1);
+
+    @Test
+    public void failingDispatchAbortsBuild() {
+        // compileJava uses the product of provideSource -- dispatching compileJava fails
+        final TestModule module = new TestModule();
+        module.registerTask("provideSource", "source", set());
+        module.registerTask("compileJava", "compilation", set("source"));
+
+        final Job source = new TestJob(module, "provideSource");
+        final Job compilation = new TestJob(module, "compileJava") {
+            @Override
+            void markQueued() {
+                throw new IllegalStateException("dispatch failed");
+            }
+        };
+
+        final JobPool jobPool = new JobPool(new ProgressMonitor() { }, 1);
+        jobPool.submitAll(List.of(source, compilation), job -> 0);
+
+        final BuildException e = assertTimeoutPreemptively(HANG_TIMEOUT,
+            () -> assertThrows(BuildException.class, jobPool::shutdown));
+        assertEquals("dispatch failed", e.getCause().getMessage());
+    }
+
+    // registry checks for null elements -- not supported by Set.of()
+    private static Set<String> set(final String... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    private static final class TestModule {
+
+        private final Module module = new Module("mod", Paths.get("mod"),
+            new BuildConfigImpl(Set.of(), new BuildSettingsImpl("mod", JavaVersion.JAVA_9),
+                Map.of(), Set.of(), Set.of(), Set.of()));
+        private final TaskRegistryImpl taskRegistry = new TaskRegistryImpl(module);
+        private final ProductRepositoryImpl productRepository = new ProductRepositoryImpl();
+        private final ProductRepositories productRepositories =
+            new ProductRepositories(Map.of(module, productRepository));
+
+        void registerTask(final String taskName, final String providedProduct,
+                          final Set<String> usedProducts) {
+            taskRegistry.registerTask("java", taskName, () -> new GoalTask(set()),
+                providedProduct, false, usedProducts, set(), set(), set(), List.of(), "");
+            productRepository.createProduct(module.getModuleName(), providedProduct);
+        }
+
+        ConfiguredTask configuredTask(final String taskName) {
+            return taskRegistry.configuredTasks().stream()
+                .filter(ct -> ct.getName().equals(taskName))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        }
+
+    }
+
+    /**
+     * Completes its product without running the task.
+     */
+    private static class TestJob extends Job {
+
+        TestJob(final TestModule testModule, final String taskName) {
+            super(taskName, testModule.module,
+                new RuntimeConfigurationImpl(Paths.get("."), false, null, true, 1), null,
+                testModule.configuredTask(taskName), testModule.productRepository, Map.of(),
+                testModule.productRepositories, null, BuildTrace.disabled(), null, null, null);
+        }
+
+        @Override
+        public TaskStatus call() {
+            getProvidedProductPromise().complete(TaskResult.empty());
+            return TaskStatus.EMPTY;
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.BuildContext;
+import builders.loom.api.GoalTask;
+import builders.loom.api.JavaVersion;
+import builders.loom.api.Module;
+import builders.loom.api.ProductPromise;
+import builders.loom.core.config.BuildConfigImpl;
+import builders.loom.core.config.BuildSettingsImpl;
+import builders.loom.core.plugin.ConfiguredTask;
+import builders.loom.core.plugin.ProductRepositoryImpl;
+import builders.loom.core.plugin.TaskRegistryImpl;
+
+/**
+ * Job setup for a synthetic build of 1000 modules -- each module depends on its 5 predecessors.
+ */
+public class JobScaleTest {
+
+    private static final int MODULES = 1000;
+    private static final int DEPENDENCIES = 5;
+    private static final int TASKS = 3;
+
+    // provided products of all tasks, "source" and "compilation" used within the module
+    private static final int LOOKUPS_PER_MODULE = TASKS + 2;
+
+    @Test
+    public void thousandModules() {
+        final SyntheticModules modules = new SyntheticModules();
+        final List<Job> jobs = buildJobs(modules);
+
+        // every product is looked up in the repository of its module only -- no scanning
+        // of other modules, regardless of the build size
+        int expectedLookups = 0;
+        for (int i = 0; i < MODULES; i++) {
+            expectedLookups += LOOKUPS_PER_MODULE + Math.min(i, DEPENDENCIES);
+        }
+        assertEquals(expectedLookups, modules.lookups.get());
+
+        final JobGraph jobGraph = new JobGraph(jobs);
+        assertEquals(MODULES * TASKS, jobGraph.topologicalOrder().size());
+
+        final Job lastCompilation = jobs.stream()
+            .filter(job -> job.getName().equals("mod" + (MODULES - 1) + " > compileJava"))
+            .findFirst().orElseThrow(IllegalStateException::new);
+        assertEquals(DEPENDENCIES + 1, jobGraph.getUpstream(lastCompilation).size());
+    }
+
+    private static List<Job> buildJobs(final SyntheticModules modules) {
+        final RuntimeConfigurationImpl runtimeConfiguration =
+            new RuntimeConfigurationImpl(Paths.get("."), false, null, true, 1);
+
+        final ProductRepositories productRepositories =
+            new ProductRepositories(modules.repositories);
+
+        final List<Job> jobs = new ArrayList<>();
+        modules.taskRegistries.forEach((module, taskRegistry) -> {
+            for (final ConfiguredTask configuredTask : taskRegistry.configuredTasks()) {
+                jobs.add(new Job(module.getModuleName() + " > " + configuredTask.getName(),
+                    module, runtimeConfiguration, null, configuredTask,
+                    modules.repositories.get(module), Map.of(), productRepositories, null,
+                    BuildTrace.disabled(), null, null, null));
+            }
+        });
+
+        return jobs;
+    }
+
+    private static final class SyntheticModules {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final Map<BuildContext, ProductRepositoryImpl> repositories = new HashMap<>();
+        private final Map<Module, TaskRegistryImpl> taskRegistries = new HashMap<>();
+
+        SyntheticModules() {
+            for (int i = 0; i < MODULES; i++) {
+                final Set<String> moduleDeps = new HashSet<>();
+                for (int j = Math.max(0, i - DEPENDENCIES); j < i; j++) {
+                    moduleDeps.add("mod" + j);
+                }
+                addModule("mod" + i, moduleDeps);
+            }
+        }
+
+        private void addModule(final String moduleName, final Set<String> moduleDeps) {
+            final Module module = new Module(moduleName, Paths.get(moduleName),
+                new BuildConfigImpl(Set.of(), new BuildSettingsImpl(moduleName,
+                    JavaVersion.JAVA_9), Map.of(), moduleDeps, Set.of(), Set.of()));
+
+            final TaskRegistryImpl taskRegistry = new TaskRegistryImpl(module);
+            registerTask(taskRegistry, "provideSource", "source", set(), set());
+            registerTask(taskRegistry, "compileJava", "compilation", set("source"),
+                set("compilation"));
+            registerTask(taskRegistry, "assembleJar", "jar", set("compilation"), set());
+
+            final ProductRepositoryImpl productRepository = new ProductRepositoryImpl() {
+                @Override
+                public Optional<ProductPromise> lookup(final String productId) {
+                    lookups.incrementAndGet();
+                    return super.lookup(productId);
+                }
+            };
+            for (final ConfiguredTask configuredTask : taskRegistry.configuredTasks()) {
+                productRepository.createProduct(moduleName, configuredTask.getProvidedProduct());
+            }
+
+            repositories.put(module, productRepository);
+            taskRegistries.put(module, taskRegistry);
+        }
+
+        private static void registerTask(final TaskRegistryImpl taskRegistry,
+                                         final String taskName, final String providedProduct,
+                                         final Set<String> usedProducts,
+                                         final Set<String> importedProducts) {
+            taskRegistry.registerTask("java", taskName, () -> new GoalTask(set()),
+                providedProduct, false, usedProducts, set(), importedProducts, set(),
+                List.of(), "");
+        }
+
+        // registry checks for null elements -- not supported by Set.of()
+        private static Set<String> set(final String... elements) {
+            return new HashSet<>(Arrays.asList(elements));
+        }
+
+    }
+
+}
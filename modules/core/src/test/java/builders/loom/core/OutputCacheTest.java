@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.product.ManagedGenericProduct;
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.cacheserver.CacheServer;
+import builders.loom.util.FileUtil;
+
+public class OutputCacheTest {
+
+    @Test
+    public void restoreDeletedOutputs() throws Exception {
+        final Path projectDir = Files.createTempDirectory("OutputCacheTest");
+        final Path classesDir = Files.createDirectories(
+            projectDir.resolve("build/products/foo/compilation/main/com/example"));
+        Files.write(classesDir.resolve("Foo.class"), new byte[] {1, 2, 3});
+        Files.createDirectories(classesDir.resolve("empty"));
+
+        final ManagedProduct product = new ManagedGenericProduct(Map.of(
+            "classesDir", List.of(projectDir.resolve("build/products/foo/compilation/main")
+                .toString()),
+            "srcDir", List.of(projectDir.resolve("src/main/java").toString())),
+            "checksum", null);
+
+        final OutputCache outputCache = new OutputCache(projectDir.resolve(".loom/cache"),
+            projectDir, "foo", "compilation", null);
+        outputCache.store("sig", product);
+
+        FileUtil.deleteDirectoryRecursively(projectDir.resolve("build"), true);
+        assertFalse(outputCache.outputsPresent(product));
+        assertFalse(outputCache.restore("otherSig").isPresent());
+
+        final ManagedProduct restored = outputCache.restore("sig").get();
+        assertEquals(product.getProperties(), restored.getProperties());
+        assertEquals("checksum", restored.checksum());
+        assertTrue(outputCache.outputsPresent(restored));
+        assertTrue(Files.isDirectory(classesDir.resolve("empty")));
+
+        // changes must not reach the cached object
+        outputCache.detach(restored);
+        Files.write(classesDir.resolve("Foo.class"), new byte[] {4});
+        outputCache.restore("sig");
+        assertEquals(3, Files.size(classesDir.resolve("Foo.class")));
+    }
+
+    @Test
+    public void restoreFromRemoteCache() throws Exception {
+        try (final CacheServer server = new CacheServer(0,
+            Files.createTempDirectory("OutputCacheTest"))) {
+
+            server.start();
+
+            final Path ciDir = Files.createTempDirectory("OutputCacheTest");
+            final Path jarFile = Files.createDirectories(
+                ciDir.resolve("build/products/foo/jar")).resolve("foo.jar");
+            Files.write(jarFile, new byte[] {1, 2, 3});
+
+            new OutputCache(ciDir.resolve(".loom/cache"), ciDir, "foo", "jar",
+                new RemoteCache(server.getUri(), true, 1000))
+                .store("sig", new ManagedGenericProduct("jarFile", jarFile.toString(),
+                    "checksum", null));
+
+            // other workspace with read-only access
+            final Path devDir = Files.createTempDirectory("OutputCacheTest");
+            final ManagedProduct restored = new OutputCache(devDir.resolve(".loom/cache"),
+                devDir, "foo", "jar", new RemoteCache(server.getUri(), false, 1000))
+                .restore("sig").get();
+
+            final Path restoredJar = Paths.get(restored.getProperty("jarFile"));
+            assertEquals(devDir.resolve("build/products/foo/jar/foo.jar"), restoredJar);
+            assertEquals(3, Files.size(restoredJar));
+        }
+    }
+
+    @Test
+    public void slowRemoteCacheIsDisabled() throws Exception {
+        try (final CacheServer server = new CacheServer(0,
+            Files.createTempDirectory("OutputCacheTest"))) {
+
+            server.setResponseDelay(2000);
+            server.start();
+
+            final Path projectDir = Files.createTempDirectory("OutputCacheTest");
+            final RemoteCache remoteCache = new RemoteCache(server.getUri(), true, 100);
+            final OutputCache outputCache = new OutputCache(projectDir.resolve(".loom/cache"),
+                projectDir, "foo", "jar", remoteCache);
+
+            assertFalse(outputCache.restore("sig").isPresent());
+            assertFalse(remoteCache.isPushEnabled());
+        }
+    }
+
+    @Test
+    public void rejectForgedRemoteObject() throws Exception {
+        final Path dir = Files.createTempDirectory("OutputCacheTest");
+        final Path file = Files.write(dir.resolve("foo.jar"), new byte[] {1, 2, 3});
+        final OutputObjectStore objectStore = new OutputObjectStore(dir.resolve("objects"));
+
+        // SHA-256, independent of loom.hash.algorithm
+        final String hash = objectStore.store(file);
+        assertEquals("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81", hash);
+
+        final String otherHash = hash.replace('0', '1');
+        assertThrows(IOException.class, () -> objectStore.importObject(otherHash,
+            new ByteArrayInputStream(new byte[] {4})));
+        assertFalse(Files.exists(objectStore.objectFile(otherHash)));
+    }
+
+}
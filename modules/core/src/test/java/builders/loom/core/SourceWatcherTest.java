@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.LoomPaths;
+import builders.loom.api.Module;
+import builders.loom.core.config.BuildConfigImpl;
+
+public class SourceWatcherTest {
+
+    // guards against missed changes -- awaitChanges() would block forever
+    private static final Duration HANG_TIMEOUT = Duration.ofMinutes(1);
+
+    @Test
+    public void newDirectoryIsWatched() throws Exception {
+        final Path moduleDir = Files.createTempDirectory("SourceWatcherTest");
+        final Path srcDir = Files.createDirectories(moduleDir.resolve(LoomPaths.SRC_MAIN));
+        final Module module = new Module("test", moduleDir, new BuildConfigImpl());
+
+        try (SourceWatcher sourceWatcher = new SourceWatcher(List.of(module))) {
+            final Path pkg = Files.createDirectory(srcDir.resolve("pkg"));
+            assertEquals(Map.of(module, Set.of("source")), awaitChanges(sourceWatcher));
+
+            Files.write(pkg.resolve("Foo.java"), List.of("class Foo {}"));
+            assertEquals(Map.of(module, Set.of("source")), awaitChanges(sourceWatcher));
+        }
+    }
+
+    @Test
+    public void newSourceRootIsWatched() throws Exception {
+        final Path moduleDir = Files.createTempDirectory("SourceWatcherTest");
+        Files.createDirectories(moduleDir.resolve(LoomPaths.SRC_MAIN));
+        final Module module = new Module("test", moduleDir, new BuildConfigImpl());
+
+        try (SourceWatcher sourceWatcher = new SourceWatcher(List.of(module))) {
+            final Path pkg = Files.createDirectories(moduleDir.resolve(LoomPaths.SRC_TEST)
+                .resolve("pkg"));
+            assertEquals(Map.of(module, Set.of("testSource")), awaitChanges(sourceWatcher));
+
+            Files.write(pkg.resolve("FooTest.java"), List.of("class FooTest {}"));
+            assertEquals(Map.of(module, Set.of("testSource")), awaitChanges(sourceWatcher));
+        }
+    }
+
+    private static Map<Module, Set<String>> awaitChanges(final SourceWatcher sourceWatcher) {
+        return assertTimeoutPreemptively(HANG_TIMEOUT, sourceWatcher::awaitChanges);
+    }
+
+}
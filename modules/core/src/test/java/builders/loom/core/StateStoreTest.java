@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.product.ManagedGenericProduct;
+import builders.loom.api.product.ManagedProduct;
+import builders.loom.api.product.OutputInfo;
+
+public class StateStoreTest {
+
+    @Test
+    public void recoverFromTornWrite() throws Exception {
+        final Path journal = Files.createTempDirectory("StateStoreTest").resolve("journal");
+
+        try (StateStore stateStore = StateStore.open(journal)) {
+            stateStore.put("foo#jar", "sig1", new ManagedGenericProduct(
+                Map.of("jarFile", List.of("build/foo.jar")), "checksum1",
+                new OutputInfo("Jar", Paths.get("build/foo.jar"))));
+            stateStore.put("bar#jar", "sig2", new ManagedGenericProduct(
+                "jarFile", "build/bar.jar", "checksum2", null));
+            stateStore.remove("bar#jar");
+        }
+
+        // incomplete frame of a crashed build
+        Files.write(journal, new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        try (StateStore stateStore = StateStore.open(journal)) {
+            assertEquals(Optional.of("sig1"), stateStore.getSignature("foo#jar"));
+            final ManagedProduct product = stateStore.getProduct("foo#jar").get();
+            assertEquals("checksum1", product.checksum());
+            assertEquals(List.of("build/foo.jar"), product.getProperties().get("jarFile"));
+            assertEquals(Paths.get("build/foo.jar"), product.getOutputInfo().get().getArtifact());
+            assertFalse(stateStore.getSignature("bar#jar").isPresent());
+
+            stateStore.put("baz#jar", "sig3", new ManagedGenericProduct(
+                "jarFile", "build/baz.jar", "checksum3", null));
+        }
+
+        try (StateStore stateStore = StateStore.open(journal)) {
+            assertEquals(Optional.of("sig1"), stateStore.getSignature("foo#jar"));
+            assertEquals(Optional.of("sig3"), stateStore.getSignature("baz#jar"));
+        }
+    }
+
+}
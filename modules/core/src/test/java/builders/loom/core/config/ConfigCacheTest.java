@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.JavaVersion;
+
+public class ConfigCacheTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        final Path cacheFile = Files.createTempDirectory("ConfigCacheTest").resolve("cache");
+
+        final BuildConfigImpl foo = new BuildConfigImpl(Set.of("java", "junit"),
+            new BuildSettingsImpl("com.example.foo", JavaVersion.JAVA_9),
+            Map.of("junit.version", "5", "java.lint", ""), Set.of("bar"),
+            Set.of("org.slf4j:slf4j-api:1.7.25"), Set.of());
+
+        final ConfigCache writeCache = new ConfigCache(cacheFile, true);
+        writeCache.load();
+        writeCache.put("foo", "fooHash", foo);
+        writeCache.put("bar", "barHash", new BuildConfigImpl());
+        writeCache.persist();
+
+        final ConfigCache readCache = new ConfigCache(cacheFile, true);
+        readCache.load();
+
+        final BuildConfigImpl cachedFoo = readCache.get("foo", "fooHash").get();
+        assertEquals(foo.getPlugins(), cachedFoo.getPlugins());
+        assertEquals("com.example.foo", cachedFoo.getBuildSettings().getModuleName());
+        assertEquals(JavaVersion.JAVA_9, cachedFoo.getBuildSettings().getJavaPlatformVersion());
+        assertEquals(foo.getSettings(), cachedFoo.getSettings());
+        assertEquals(foo.getModuleCompileDependencies(),
+            cachedFoo.getModuleCompileDependencies());
+        assertEquals(foo.getCompileDependencies(), cachedFoo.getCompileDependencies());
+        assertEquals(foo.getTestDependencies(), cachedFoo.getTestDependencies());
+
+        assertNull(readCache.get("bar", "barHash").get().getBuildSettings().getModuleName());
+
+        // changed config file
+        assertFalse(readCache.get("foo", "otherHash").isPresent());
+    }
+
+    @Test
+    public void unusedEntriesAreDropped() throws Exception {
+        final Path cacheFile = Files.createTempDirectory("ConfigCacheTest").resolve("cache");
+
+        final ConfigCache writeCache = new ConfigCache(cacheFile, true);
+        writeCache.put("foo", "fooHash", new BuildConfigImpl());
+        writeCache.put("bar", "barHash", new BuildConfigImpl());
+        writeCache.persist();
+
+        final ConfigCache secondBuild = new ConfigCache(cacheFile, true);
+        secondBuild.load();
+        secondBuild.get("foo", "fooHash");
+        secondBuild.persist();
+
+        final ConfigCache thirdBuild = new ConfigCache(cacheFile, true);
+        thirdBuild.load();
+        assertEquals(List.of(true, false), List.of(
+            thirdBuild.get("foo", "fooHash").isPresent(),
+            thirdBuild.get("bar", "barHash").isPresent()));
+    }
+
+    @Test
+    public void renamedModuleIsPersisted() throws Exception {
+        final Path cacheFile = Files.createTempDirectory("ConfigCacheTest").resolve("cache");
+
+        final ConfigCache writeCache = new ConfigCache(cacheFile, true);
+        writeCache.put("foo", "fooHash", new BuildConfigImpl());
+        writeCache.put("bar", "barHash", new BuildConfigImpl());
+        writeCache.persist();
+
+        // same number of modules, bar renamed to baz (unchanged config)
+        final ConfigCache secondBuild = new ConfigCache(cacheFile, true);
+        secondBuild.load();
+        secondBuild.get("foo", "fooHash");
+        secondBuild.get("baz", "barHash");
+        secondBuild.put("baz", "barHash", new BuildConfigImpl());
+        secondBuild.persist();
+
+        final ConfigCache thirdBuild = new ConfigCache(cacheFile, true);
+        thirdBuild.load();
+        assertEquals(List.of(true, false, true), List.of(
+            thirdBuild.get("foo", "fooHash").isPresent(),
+            thirdBuild.get("bar", "barHash").isPresent(),
+            thirdBuild.get("baz", "barHash").isPresent()));
+    }
+
+}
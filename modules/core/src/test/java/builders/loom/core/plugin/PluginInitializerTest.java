@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.core.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import builders.loom.api.BuildConfig;
+import builders.loom.api.GoalTask;
+import builders.loom.api.JavaVersion;
+import builders.loom.api.Module;
+import builders.loom.core.config.BuildConfigImpl;
+import builders.loom.core.config.BuildSettingsImpl;
+
+public class PluginInitializerTest {
+
+    @Test
+    public void productTwoProvidersAway() {
+        final FakePluginLoader pluginLoader = new FakePluginLoader();
+        // report -> test (used) -> compilation (used), report -> coverage (optionally used)
+        pluginLoader.plugin("report", "report", set("test"), set("coverage"));
+        pluginLoader.plugin("test", "test", set("compilation"), set());
+        pluginLoader.plugin("java", "compilation", set(), set());
+        pluginLoader.plugin("coverage", "coverage", set(), set());
+        pluginLoader.plugin("pmd", "pmdReport", set("compilation"), set());
+
+        final Module module = new Module("mod", Paths.get("mod"),
+            new BuildConfigImpl(pluginLoader.plugins.keySet(),
+                new BuildSettingsImpl("mod", JavaVersion.JAVA_9),
+                Map.of(), Set.of(), Set.of(), Set.of()));
+
+        final PluginInitializer pluginInitializer = new PluginInitializer();
+        pluginInitializer.add(new BuildContextPlugins(pluginLoader, pluginLoader.classNames,
+            pluginLoader.plugins.keySet(), module));
+
+        pluginInitializer.initPluginsProviding(Set.of("report"));
+
+        assertEquals(Set.of("report", "test", "java", "coverage"),
+            pluginLoader.initializedPlugins);
+    }
+
+    // registry checks for null elements -- not supported by Set.of()
+    private static Set<String> set(final String... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    private static final class FakePluginLoader extends PluginLoader {
+
+        private final Map<String, String> classNames = new HashMap<>();
+        private final Map<String, List<Set<String>>> plugins = new HashMap<>();
+        private final Set<String> initializedPlugins = ConcurrentHashMap.newKeySet();
+
+        void plugin(final String pluginName, final String providedProduct,
+                    final Set<String> usedProducts, final Set<String> optionallyUsedProducts) {
+            classNames.put(pluginName, pluginName);
+            plugins.put(pluginName,
+                List.of(set(providedProduct), usedProducts, optionallyUsedProducts));
+        }
+
+        @Override
+        public Optional<Set<String>> readProvidedProducts(final String pluginName) {
+            return Optional.of(plugins.get(pluginName).get(0));
+        }
+
+        @Override
+        Set<String> initPlugin(final Map<String, String> availablePlugins,
+                               final String pluginName, final BuildConfig config,
+                               final TaskRegistryImpl taskRegistry) {
+            final List<Set<String>> products = plugins.get(pluginName);
+            taskRegistry.registerTask(pluginName, pluginName, () -> new GoalTask(set()),
+                products.get(0).iterator().next(), false, products.get(1), products.get(2),
+                set(), set(), List.of(), "");
+            initializedPlugins.add(pluginName);
+            return Set.of();
+        }
+
+    }
+
+}
@@ -17,6 +17,7 @@
 package builders.loom.log;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.Marker;
@@ -28,10 +29,10 @@ import org.slf4j.helpers.MessageFormatter;
 public class LoomLogger implements Logger {
 
     private final String name;
-    private final List<LogAppender> logAppenders;
+    private final Supplier<List<LogAppender>> logAppenders;
     private final LogFilter logFilter;
 
-    LoomLogger(final String name, final List<LogAppender> logAppenders,
+    LoomLogger(final String name, final Supplier<List<LogAppender>> logAppenders,
                final LogFilter logFilter) {
         this.name = name;
         this.logAppenders = logAppenders;
@@ -525,7 +526,7 @@ public class LoomLogger implements Logger {
     }
 
     private void append(final LogEvent message) {
-        logAppenders.forEach(logAppender -> logAppender.append(message));
+        logAppenders.get().forEach(logAppender -> logAppender.append(message));
     }
 
 }
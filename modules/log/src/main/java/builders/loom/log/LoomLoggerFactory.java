@@ -26,12 +26,14 @@ import org.slf4j.Logger;
 public class LoomLoggerFactory implements ILoggerFactory {
 
     private final LogFilter logFilter = new LogFilter();
-    private List<LogAppender> logAppenders;
+
+    // loggers always use the appenders of the current (re-)start -- see daemon mode
+    private volatile List<LogAppender> logAppenders = List.of();
     private Path logFile;
 
     @Override
     public Logger getLogger(final String name) {
-        return new LoomLogger(name, logAppenders, logFilter);
+        return new LoomLogger(name, () -> logAppenders, logFilter);
     }
 
     public void setLogFile(final Path logFile) {
@@ -43,7 +45,10 @@ public class LoomLoggerFactory implements ILoggerFactory {
     }
 
     public void stop() {
-        for (final LogAppender logAppender : logAppenders) {
+        final List<LogAppender> appenders = logAppenders;
+        logAppenders = List.of();
+
+        for (final LogAppender logAppender : appenders) {
             try {
                 logAppender.close();
             } catch (final IOException e) {
@@ -141,8 +141,7 @@ public class CheckstyleTask extends AbstractModuleTask implements RepositoryPath
         final Path srcDir = Paths.get(sourceTree.get().getProperty("srcDir"));
 
         // Checkstyle doesn't support module-info.java, so skip it
-        return Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
+        return getFileTreeSnapshotService().snapshot(srcDir).getFiles().stream()
             .filter(f -> !f.getFileName().toString().equals(LoomPaths.MODULE_INFO_JAVA))
             .map(Path::toFile)
             .collect(Collectors.toList());
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import builders.loom.util.Hasher;
+import builders.loom.util.Hashing;
+
+/**
+ * The information of a class file required for incremental compilation -- read from its
+ * constant pool and member declarations.
+ * <p>
+ * The ABI hash covers the class declaration and its non-private, non-synthetic fields and
+ * methods (including generic signatures, thrown exceptions and annotations) -- but no method
+ * bodies. Compile-time constants are hashed separately, as they are inlined by javac and
+ * therefore leave no trace in the constant pool of their users.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class ClassFileInfo {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_MODULE = 0x8000;
+
+    // tags of annotation element values referencing a constant
+    private static final String CONSTANT_VALUE_TAGS = "BCDFIJSZs";
+
+    // length of the target info of type annotations outside of method bodies -- by target type
+    // (-1 for targets only allowed within the Code attribute)
+    private static final int[] TARGET_INFO_LENGTH = {
+        1, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+        2, 2, 2, 0, 0, 0, 1, 2,
+    };
+
+    private final String name;
+    private final String abiHash;
+    private final String constantsHash;
+    private final boolean local;
+    private final List<String> supertypes;
+    private final Set<String> dependencies;
+
+    ClassFileInfo(final String name, final String abiHash, final String constantsHash,
+                  final boolean local, final List<String> supertypes,
+                  final Set<String> dependencies) {
+        this.name = name;
+        this.abiHash = abiHash;
+        this.constantsHash = constantsHash;
+        this.local = local;
+        this.supertypes = supertypes;
+        this.dependencies = dependencies;
+    }
+
+    static ClassFileInfo read(final Path classFile) {
+        try {
+            return read(Files.readAllBytes(classFile));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ClassFileInfo read(final byte[] data) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        final ConstantPool pool = ConstantPool.read(in);
+        final Set<String> dependencies = pool.referencedClasses();
+
+        final int accessFlags = in.readUnsignedShort();
+        final String name = pool.className(in.readUnsignedShort());
+        final int superClass = in.readUnsignedShort();
+
+        final List<String> supertypes = new ArrayList<>();
+        if (superClass != 0) {
+            supertypes.add(pool.className(superClass));
+        }
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            supertypes.add(pool.className(in.readUnsignedShort()));
+        }
+
+        final Reader reader = new Reader(pool, name);
+        reader.put(Integer.toString(accessFlags), name);
+        supertypes.forEach(reader::put);
+
+        reader.readMembers(in, true);
+        reader.readMembers(in, false);
+        reader.readAttributes(in, null, true);
+
+        dependencies.remove(name);
+
+        // the module declaration has no bodies -- no need to pick its attributes apart
+        final String abiHash = (accessFlags & ACC_MODULE) != 0
+            ? new Hasher().putBytes(data).hashHex()
+            : reader.abi.hashHex();
+
+        return new ClassFileInfo(name, abiHash,
+            reader.constants.isEmpty() ? "" : Hashing.hash(reader.constants), reader.local,
+            Collections.unmodifiableList(supertypes), Collections.unmodifiableSet(dependencies));
+    }
+
+    /**
+     * The binary name in internal form, e.g. {@code foo/Bar$Baz}.
+     */
+    String getName() {
+        return name;
+    }
+
+    String getAbiHash() {
+        return abiHash;
+    }
+
+    /**
+     * Hash of the compile-time constants -- empty if the class doesn't declare any.
+     */
+    String getConstantsHash() {
+        return constantsHash;
+    }
+
+    /**
+     * Anonymous or local class -- not accessible outside of its enclosing method.
+     */
+    boolean isLocal() {
+        return local;
+    }
+
+    List<String> getSupertypes() {
+        return supertypes;
+    }
+
+    Set<String> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Hashes the members and attributes of a class -- constant pool references are resolved,
+     * as the constant pool layout changes with every method body.
+     */
+    private static final class Reader {
+
+        private final ConstantPool pool;
+        private final String className;
+        private final Hasher abi = new Hasher();
+        private final List<String> constants = new ArrayList<>();
+        private boolean local;
+
+        Reader(final ConstantPool pool, final String className) {
+            this.pool = pool;
+            this.className = className;
+        }
+
+        void readMembers(final DataInputStream in, final boolean fields) throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final int accessFlags = in.readUnsignedShort();
+                final String memberName = utf8(in);
+                final String descriptor = utf8(in);
+
+                if ((accessFlags & (ACC_PRIVATE | ACC_SYNTHETIC)) != 0) {
+                    skipAttributes(in);
+                } else {
+                    put(Integer.toString(accessFlags), memberName, descriptor);
+                    readAttributes(in, fields ? memberName : null, false);
+                }
+            }
+        }
+
+        void readAttributes(final DataInputStream in, final String fieldName,
+                            final boolean classLevel) throws IOException {
+
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final String attributeName = utf8(in);
+                final byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                final DataInputStream attribute =
+                    new DataInputStream(new ByteArrayInputStream(data));
+
+                switch (attributeName) {
+                    case "ConstantValue":
+                        if (fieldName != null) {
+                            constants.add(fieldName);
+                            constants.add(String.valueOf(
+                                pool.constantValue(attribute.readUnsignedShort())));
+                        }
+                        break;
+                    case "InnerClasses":
+                        if (classLevel) {
+                            readInnerClasses(attribute);
+                        }
+                        break;
+                    case "EnclosingMethod":
+                        if (classLevel) {
+                            local = true;
+                        }
+                        break;
+                    default:
+                        readAbiAttribute(attributeName, attribute);
+                }
+            }
+        }
+
+        private void readAbiAttribute(final String attributeName, final DataInputStream in)
+            throws IOException {
+
+            switch (attributeName) {
+                case "Signature":
+                    put(attributeName, utf8(in));
+                    break;
+                case "Exceptions":
+                    put(attributeName);
+                    for (int i = in.readUnsignedShort(); i > 0; i--) {
+                        put(pool.className(in.readUnsignedShort()));
+                    }
+                    break;
+                case "AnnotationDefault":
+                    put(attributeName);
+                    readElementValue(in);
+                    break;
+                default:
+                    readAnnotationAttribute(attributeName, in);
+            }
+        }
+
+        private void readAnnotationAttribute(final String attributeName,
+                                             final DataInputStream in) throws IOException {
+
+            switch (attributeName) {
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    put(attributeName);
+                    readAnnotations(in);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                case "RuntimeInvisibleParameterAnnotations":
+                    put(attributeName);
+                    for (int i = in.readUnsignedByte(); i > 0; i--) {
+                        put(";");
+                        readAnnotations(in);
+                    }
+                    break;
+                case "RuntimeVisibleTypeAnnotations":
+                case "RuntimeInvisibleTypeAnnotations":
+                    put(attributeName);
+                    readTypeAnnotations(in);
+                    break;
+                default:
+            }
+        }
+
+        private static void skipAttributes(final DataInputStream in) throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                in.readUnsignedShort();
+                in.skipBytes(in.readInt());
+            }
+        }
+
+        // only the declaration of this class and its member classes -- not the referenced ones
+        private void readInnerClasses(final DataInputStream in) throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final int inner = in.readUnsignedShort();
+                final int outer = in.readUnsignedShort();
+                in.readUnsignedShort();
+                final int accessFlags = in.readUnsignedShort();
+
+                final String innerName = pool.className(inner);
+                if (innerName.equals(className)
+                    || outer != 0 && pool.className(outer).equals(className)) {
+                    put("InnerClass", innerName, Integer.toString(accessFlags));
+                }
+            }
+        }
+
+        private void readAnnotations(final DataInputStream in) throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                readAnnotation(in);
+            }
+        }
+
+        private void readAnnotation(final DataInputStream in) throws IOException {
+            put("@", utf8(in));
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                put(utf8(in));
+                readElementValue(in);
+            }
+        }
+
+        private void readElementValue(final DataInputStream in) throws IOException {
+            final char tag = (char) in.readUnsignedByte();
+            put(String.valueOf(tag));
+
+            switch (tag) {
+                case 'e':
+                    put(utf8(in), utf8(in));
+                    break;
+                case 'c':
+                    put(utf8(in));
+                    break;
+                case '@':
+                    readAnnotation(in);
+                    break;
+                case '[':
+                    final int length = in.readUnsignedShort();
+                    put(Integer.toString(length));
+                    for (int i = 0; i < length; i++) {
+                        readElementValue(in);
+                    }
+                    break;
+                default:
+                    if (CONSTANT_VALUE_TAGS.indexOf(tag) == -1) {
+                        throw new IOException("Unknown annotation element value tag " + tag);
+                    }
+                    put(String.valueOf(pool.constantValue(in.readUnsignedShort())));
+            }
+        }
+
+        // target info and type path don't reference the constant pool -- hashed as they are
+        private void readTypeAnnotations(final DataInputStream in) throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final int targetType = in.readUnsignedByte();
+                final int targetInfoLength = targetType < TARGET_INFO_LENGTH.length
+                    ? TARGET_INFO_LENGTH[targetType] : -1;
+                if (targetInfoLength < 0) {
+                    throw new IOException("Unexpected type annotation target " + targetType);
+                }
+
+                final byte[] target = new byte[1 + targetInfoLength];
+                target[0] = (byte) targetType;
+                in.readFully(target, 1, targetInfoLength);
+                abi.putBytes(target);
+
+                final byte[] typePath = new byte[in.readUnsignedByte() * 2];
+                in.readFully(typePath);
+                abi.putBytes(typePath);
+
+                readAnnotation(in);
+            }
+        }
+
+        private String utf8(final DataInputStream in) throws IOException {
+            return pool.utf8(in.readUnsignedShort());
+        }
+
+        void put(final String... strings) {
+            for (final String str : strings) {
+                abi.putString(str).putByte((byte) 0);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+
+/**
+ * The class files written by javac -- per source file.
+ */
+final class ClassOutputs {
+
+    private final Map<Path, Set<Path>> classFiles = new HashMap<>();
+    private boolean untracked;
+
+    /**
+     * Records the class files written through the given file manager.
+     */
+    JavaFileManager record(final JavaFileManager fileManager) {
+        return new RecordingFileManager(fileManager, this);
+    }
+
+    void add(final FileObject sibling, final JavaFileObject classFile) {
+        if (sibling == null || !"file".equals(sibling.toUri().getScheme())) {
+            untracked = true;
+            return;
+        }
+        classFiles.computeIfAbsent(Paths.get(sibling.toUri()), k -> new LinkedHashSet<>())
+            .add(Paths.get(classFile.toUri()));
+    }
+
+    /**
+     * Class files without (known) source file have been written -- e.g. by annotation
+     * processors.
+     */
+    boolean isUntracked() {
+        return untracked;
+    }
+
+    List<ClassFileInfo> readClassFiles(final Path srcFile) {
+        return classFiles.getOrDefault(srcFile.toAbsolutePath().normalize(),
+            Collections.emptySet())
+            .stream()
+            .map(ClassFileInfo::read)
+            .collect(Collectors.toList());
+    }
+
+    private static final class RecordingFileManager
+        extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final ClassOutputs outputs;
+
+        RecordingFileManager(final JavaFileManager fileManager,
+                             final ClassOutputs outputs) {
+            super(fileManager);
+            this.outputs = outputs;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                                   final JavaFileObject.Kind kind,
+                                                   final FileObject sibling)
+            throws IOException {
+
+            final JavaFileObject file =
+                super.getJavaFileForOutput(location, className, kind, sibling);
+            if (kind == JavaFileObject.Kind.CLASS) {
+                outputs.add(sibling, file);
+            }
+            return file;
+        }
+
+    }
+
+}
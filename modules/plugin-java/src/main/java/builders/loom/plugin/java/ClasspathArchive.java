@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * An opened and indexed classpath archive (jar file) -- shared by all javac and javadoc
+ * invocations of the process, so the archives of the dependencies are opened and indexed once
+ * instead of by every compile and javadoc task (and in every build of a daemon).
+ * <p>
+ * An archive is opened again if its size or modification time changed. Replaced archives
+ * aren't closed explicitly, as running compilations may still read them -- they are closed
+ * once they are garbage collected.
+ */
+final class ClasspathArchive {
+
+    private static final Map<Path, ClasspathArchive> ARCHIVES = new ConcurrentHashMap<>();
+    private static final long MAX_IDLE_TIME = TimeUnit.HOURS.toMillis(1);
+    private static final String VERSIONS_DIR = "META-INF/versions/";
+
+    private final Path file;
+    private final long size;
+    private final long lastModified;
+    private final JarFile jarFile;
+    private final List<String> entryNames;
+    private final boolean multiRelease;
+    private final Map<Integer, Map<String, List<ClasspathArchiveFileObject>>> views =
+        new ConcurrentHashMap<>();
+    private volatile long lastUsed;
+
+    private ClasspathArchive(final Path file, final BasicFileAttributes attrs)
+        throws IOException {
+
+        this.file = file;
+        size = attrs.size();
+        lastModified = attrs.lastModifiedTime().toMillis();
+        jarFile = new JarFile(file.toFile());
+
+        final List<String> names = new ArrayList<>();
+        for (final ZipEntry entry : Collections.list(jarFile.entries())) {
+            final String name = entry.getName();
+            if (name.endsWith(JavaFileObject.Kind.CLASS.extension)
+                || name.endsWith(JavaFileObject.Kind.SOURCE.extension)) {
+                names.add(name);
+            }
+        }
+        entryNames = names;
+        multiRelease = isMultiRelease(jarFile);
+    }
+
+    private static boolean isMultiRelease(final JarFile jarFile) throws IOException {
+        final Manifest manifest = jarFile.getManifest();
+        return manifest != null && Boolean.parseBoolean(
+            manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE));
+    }
+
+    /**
+     * Returns the (cached) archive of the given jar file.
+     */
+    static ClasspathArchive of(final Path file) throws IOException {
+        final Path key = file.toAbsolutePath().normalize();
+        final BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class);
+        final long now = System.currentTimeMillis();
+
+        final ClasspathArchive archive;
+        try {
+            archive = ARCHIVES.compute(key, (k, cached) -> {
+                if (cached != null && cached.size == attrs.size()
+                    && cached.lastModified == attrs.lastModifiedTime().toMillis()) {
+                    return cached;
+                }
+                try {
+                    return new ClasspathArchive(k, attrs);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        archive.lastUsed = now;
+        ARCHIVES.values().removeIf(a -> now - a.lastUsed > MAX_IDLE_TIME);
+
+        return archive;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    JarFile getJarFile() {
+        return jarFile;
+    }
+
+    /**
+     * Lists the files of the given package as seen by a compilation for the given release
+     * (versioned entries of multi-release jars).
+     *
+     * @param packageName the package name in internal form, e.g. {@code foo/bar}
+     */
+    List<JavaFileObject> list(final String packageName, final Set<JavaFileObject.Kind> kinds,
+                              final boolean recurse, final int release) {
+
+        final Map<String, List<ClasspathArchiveFileObject>> packages =
+            views.computeIfAbsent(multiRelease ? release : 0, this::index);
+
+        final List<JavaFileObject> files = new ArrayList<>();
+        packages.forEach((name, packageFiles) -> {
+            if (name.equals(packageName) || recurse
+                && (packageName.isEmpty() || name.startsWith(packageName + "/"))) {
+                for (final ClasspathArchiveFileObject packageFile : packageFiles) {
+                    if (kinds.contains(packageFile.getKind())) {
+                        files.add(packageFile);
+                    }
+                }
+            }
+        });
+        return files;
+    }
+
+    // package name -> files -- the highest version (not newer than release) of each file
+    private Map<String, List<ClasspathArchiveFileObject>> index(final int release) {
+        final Map<String, String> entries = new HashMap<>();
+        final Map<String, Integer> versions = new HashMap<>();
+
+        for (final String entryName : entryNames) {
+            String path = entryName;
+            int version = 0;
+
+            if (entryName.startsWith(VERSIONS_DIR)) {
+                final int slash = entryName.indexOf('/', VERSIONS_DIR.length());
+                if (!multiRelease || slash == -1) {
+                    continue;
+                }
+                try {
+                    version = Integer.parseInt(
+                        entryName.substring(VERSIONS_DIR.length(), slash));
+                } catch (final NumberFormatException e) {
+                    continue;
+                }
+                if (version > release) {
+                    continue;
+                }
+                path = entryName.substring(slash + 1);
+            }
+
+            final Integer existing = versions.get(path);
+            if (existing == null || existing < version) {
+                versions.put(path, version);
+                entries.put(path, entryName);
+            }
+        }
+
+        final Map<String, List<ClasspathArchiveFileObject>> packages = new HashMap<>();
+        entries.forEach((path, entryName) -> {
+            final int slash = path.lastIndexOf('/');
+            final String packageName = slash == -1 ? "" : path.substring(0, slash);
+            packages.computeIfAbsent(packageName, p -> new ArrayList<>())
+                .add(new ClasspathArchiveFileObject(this, path, entryName));
+        });
+        return packages;
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * Serves the jar files of the classpath from the process wide {@link ClasspathArchive}s
+ * instead of opening and indexing them for every compilation -- directories of the classpath
+ * are still served by the given file manager (and take precedence over jar files).
+ * <p>
+ * Implements {@link StandardJavaFileManager}, as javadoc requires one.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+final class ClasspathArchiveFileManager
+    extends ForwardingJavaFileManager<StandardJavaFileManager>
+    implements StandardJavaFileManager {
+
+    private final List<ClasspathArchive> archives = new ArrayList<>();
+    private final int release;
+
+    /**
+     * Takes the jar files of the classpath of the given file manager.
+     *
+     * @param release the Java release to compile for (relevant for multi-release jars)
+     */
+    ClasspathArchiveFileManager(final StandardJavaFileManager fileManager, final int release)
+        throws IOException {
+
+        super(fileManager);
+        this.release = release;
+
+        final Iterable<? extends Path> classPath =
+            fileManager.getLocationAsPaths(StandardLocation.CLASS_PATH);
+
+        if (classPath != null) {
+            final List<Path> directories = new ArrayList<>();
+            for (final Path entry : classPath) {
+                if (Files.isRegularFile(entry)) {
+                    archives.add(ClasspathArchive.of(entry));
+                } else {
+                    directories.add(entry);
+                }
+            }
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, directories);
+        }
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(final Location location, final String packageName,
+                                         final Set<JavaFileObject.Kind> kinds,
+                                         final boolean recurse) throws IOException {
+
+        final Iterable<JavaFileObject> files =
+            super.list(location, packageName, kinds, recurse);
+
+        if (location != StandardLocation.CLASS_PATH || archives.isEmpty()) {
+            return files;
+        }
+
+        final List<JavaFileObject> result = new ArrayList<>();
+        files.forEach(result::add);
+
+        final String internalName = packageName.replace('.', '/');
+        for (final ClasspathArchive archive : archives) {
+            result.addAll(archive.list(internalName, kinds, recurse, release));
+        }
+
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(final Location location, final JavaFileObject file) {
+        if (file instanceof ClasspathArchiveFileObject) {
+            return ((ClasspathArchiveFileObject) file).getBinaryName();
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public boolean isSameFile(final FileObject a, final FileObject b) {
+        if (a instanceof ClasspathArchiveFileObject || b instanceof ClasspathArchiveFileObject) {
+            return a.equals(b);
+        }
+        return super.isSameFile(a, b);
+    }
+
+    @Override
+    public boolean contains(final Location location, final FileObject file) throws IOException {
+        if (file instanceof ClasspathArchiveFileObject) {
+            return location == StandardLocation.CLASS_PATH;
+        }
+        return super.contains(location, file);
+    }
+
+    @Override
+    public boolean hasLocation(final Location location) {
+        return location == StandardLocation.CLASS_PATH && !archives.isEmpty()
+            || super.hasLocation(location);
+    }
+
+    @Override
+    public Iterable<? extends JavaFileObject> getJavaFileObjectsFromFiles(
+        final Iterable<? extends File> files) {
+        return fileManager.getJavaFileObjectsFromFiles(files);
+    }
+
+    // deprecated since Java 13
+    @Override
+    @SuppressWarnings("deprecation")
+    public Iterable<? extends JavaFileObject> getJavaFileObjectsFromPaths(
+        final Iterable<? extends Path> paths) {
+        return fileManager.getJavaFileObjectsFromPaths(paths);
+    }
+
+    // overrides the replacement (since Java 13) of the Iterable variant -- no @Override, as it
+    // doesn't exist in Java 9
+    public Iterable<? extends JavaFileObject> getJavaFileObjectsFromPaths(
+        final Collection<? extends Path> paths) {
+        return fileManager.getJavaFileObjectsFromPaths(paths);
+    }
+
+    @Override
+    public Iterable<? extends JavaFileObject> getJavaFileObjectsFromStrings(
+        final Iterable<String> names) {
+        return fileManager.getJavaFileObjectsFromStrings(names);
+    }
+
+    @Override
+    public Iterable<? extends JavaFileObject> getJavaFileObjects(final File... files) {
+        return fileManager.getJavaFileObjects(files);
+    }
+
+    @Override
+    public Iterable<? extends JavaFileObject> getJavaFileObjects(final Path... paths) {
+        return fileManager.getJavaFileObjects(paths);
+    }
+
+    @Override
+    public Iterable<? extends JavaFileObject> getJavaFileObjects(final String... names) {
+        return fileManager.getJavaFileObjects(names);
+    }
+
+    @Override
+    public void setLocation(final Location location, final Iterable<? extends File> files)
+        throws IOException {
+        fileManager.setLocation(location, files);
+    }
+
+    @Override
+    public void setLocationFromPaths(final Location location,
+                                     final Collection<? extends Path> paths)
+        throws IOException {
+        fileManager.setLocationFromPaths(location, paths);
+    }
+
+    @Override
+    public void setLocationForModule(final Location location, final String moduleName,
+                                     final Collection<? extends Path> paths)
+        throws IOException {
+        fileManager.setLocationForModule(location, moduleName, paths);
+    }
+
+    @Override
+    public Iterable<? extends File> getLocation(final Location location) {
+        return fileManager.getLocation(location);
+    }
+
+    @Override
+    public Iterable<? extends Path> getLocationAsPaths(final Location location) {
+        return fileManager.getLocationAsPaths(location);
+    }
+
+    @Override
+    public Path asPath(final FileObject file) {
+        if (file instanceof ClasspathArchiveFileObject) {
+            throw new IllegalArgumentException("Not a file system path: " + file);
+        }
+        return fileManager.asPath(file);
+    }
+
+    @Override
+    public void setPathFactory(final PathFactory pathFactory) {
+        fileManager.setPathFactory(pathFactory);
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.tools.JavaFileObject;
+
+/**
+ * A (read-only) class or source file of a {@link ClasspathArchive}.
+ */
+final class ClasspathArchiveFileObject implements JavaFileObject {
+
+    private final ClasspathArchive archive;
+    private final String path;
+    private final String entryName;
+    private final Kind kind;
+
+    ClasspathArchiveFileObject(final ClasspathArchive archive, final String path,
+                               final String entryName) {
+        this.archive = archive;
+        this.path = path;
+        this.entryName = entryName;
+        kind = path.endsWith(Kind.CLASS.extension) ? Kind.CLASS : Kind.SOURCE;
+    }
+
+    @Override
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public URI toUri() {
+        try {
+            return new URI("jar", archive.getFile().toUri() + "!/" + entryName, null);
+        } catch (final URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The binary name of the class, e.g. {@code foo.Bar$Baz}.
+     */
+    String getBinaryName() {
+        return path.substring(0, path.length() - kind.extension.length())
+            .replace('/', '.');
+    }
+
+    @Override
+    public String getName() {
+        return archive + "(" + entryName + ")";
+    }
+
+    @Override
+    public boolean isNameCompatible(final String simpleName, final Kind fileKind) {
+        final String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return kind == fileKind && (simpleName + fileKind.extension).equals(fileName);
+    }
+
+    @Override
+    public NestingKind getNestingKind() {
+        return null;
+    }
+
+    @Override
+    public Modifier getAccessLevel() {
+        return null;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+        return archive.getJarFile().getInputStream(entry());
+    }
+
+    @Override
+    public CharSequence getCharContent(final boolean ignoreEncodingErrors) throws IOException {
+        try (InputStream in = openInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public Reader openReader(final boolean ignoreEncodingErrors) throws IOException {
+        return new InputStreamReader(openInputStream(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Writer openWriter() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean delete() {
+        return false;
+    }
+
+    @Override
+    public long getLastModified() {
+        return entry().getTime();
+    }
+
+    private ZipEntry entry() {
+        return archive.getJarFile().getEntry(entryName);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ClasspathArchiveFileObject that = (ClasspathArchiveFileObject) o;
+        return archive == that.archive && entryName.equals(that.entryName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(archive.getFile(), entryName);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+import builders.loom.api.JavaVersion;
+
+/**
+ * The parameters of a single javac run.
+ */
+final class CompileParameters {
+
+    private final Collection<Path> classpath;
+    private final boolean modulePath;
+    private final JavaVersion release;
+    private final ClassOutputs outputs;
+
+    /**
+     * @param classpath the dependencies -- on the class path or the module path
+     * @param modulePath compile with the module path (module-info.java)
+     * @param release the release to cross compile for -- null for the current one
+     * @param outputs collects the class files written by javac
+     */
+    CompileParameters(final Collection<Path> classpath, final boolean modulePath,
+                      final JavaVersion release, final ClassOutputs outputs) {
+        this.classpath = classpath;
+        this.modulePath = modulePath;
+        this.release = release;
+        this.outputs = outputs;
+    }
+
+    Collection<Path> getClasspath() {
+        return classpath;
+    }
+
+    boolean isModulePath() {
+        return modulePath;
+    }
+
+    JavaVersion getRelease() {
+        return release;
+    }
+
+    ClassOutputs getOutputs() {
+        return outputs;
+    }
+
+}
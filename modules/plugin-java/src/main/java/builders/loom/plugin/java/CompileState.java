@@ -0,0 +1,249 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The state of the last compilation of a module -- the sources with their class files and the
+ * ABI and dependencies of each class.
+ */
+final class CompileState {
+
+    private static final int VERSION = 2;
+
+    private final String structureChecksum;
+    private final Map<String, Source> sources = new HashMap<>();
+    private final Map<String, ClassFileInfo> classes = new HashMap<>();
+    private String outputChecksum;
+
+    CompileState(final String structureChecksum) {
+        this.structureChecksum = structureChecksum;
+    }
+
+    static Optional<CompileState> load(final Path stateFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(stateFile)))) {
+
+            if (in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+
+            final CompileState state = new CompileState(in.readUTF());
+            state.outputChecksum = in.readUTF();
+
+            for (int i = in.readInt(); i > 0; i--) {
+                state.sources.put(in.readUTF(), new Source(in.readUTF(), readStrings(in)));
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                final ClassFileInfo classFileInfo = new ClassFileInfo(in.readUTF(),
+                    in.readUTF(), in.readUTF(), in.readBoolean(), readStrings(in),
+                    new HashSet<>(readStrings(in)));
+                state.classes.put(classFileInfo.getName(), classFileInfo);
+            }
+
+            return Optional.of(state);
+        } catch (final NoSuchFileException | EOFException e) {
+            return Optional.empty();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void save(final Path stateFile) {
+        final Path tmpFile = Paths.get(stateFile + ".tmp");
+
+        try {
+            Files.createDirectories(stateFile.getParent());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmpFile)))) {
+
+                out.writeInt(VERSION);
+                out.writeUTF(structureChecksum);
+                out.writeUTF(outputChecksum);
+
+                out.writeInt(sources.size());
+                for (final Map.Entry<String, Source> entry : sources.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().digest);
+                    writeStrings(out, entry.getValue().classNames);
+                }
+
+                // only dependencies between the classes of this module are relevant
+                out.writeInt(classes.size());
+                for (final ClassFileInfo classFileInfo : classes.values()) {
+                    out.writeUTF(classFileInfo.getName());
+                    out.writeUTF(classFileInfo.getAbiHash());
+                    out.writeUTF(classFileInfo.getConstantsHash());
+                    out.writeBoolean(classFileInfo.isLocal());
+                    writeStrings(out, classFileInfo.getSupertypes());
+                    final List<String> dependencies = new ArrayList<>();
+                    for (final String dependency : classFileInfo.getDependencies()) {
+                        if (classes.containsKey(dependency)) {
+                            dependencies.add(dependency);
+                        }
+                    }
+                    writeStrings(out, dependencies);
+                }
+            }
+
+            Files.move(tmpFile, stateFile,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Collection<String> strings)
+        throws IOException {
+        out.writeInt(strings.size());
+        for (final String str : strings) {
+            out.writeUTF(str);
+        }
+    }
+
+    String getStructureChecksum() {
+        return structureChecksum;
+    }
+
+    String getOutputChecksum() {
+        return outputChecksum;
+    }
+
+    void setOutputChecksum(final String outputChecksum) {
+        this.outputChecksum = outputChecksum;
+    }
+
+    Map<String, String> getSourceDigests() {
+        final Map<String, String> digests = new HashMap<>();
+        sources.forEach((source, state) -> digests.put(source, state.digest));
+        return digests;
+    }
+
+    void putSource(final String source, final String digest, final List<ClassFileInfo> classFiles) {
+        final List<String> classNames = new ArrayList<>();
+        for (final ClassFileInfo classFileInfo : classFiles) {
+            classNames.add(classFileInfo.getName());
+            classes.put(classFileInfo.getName(), classFileInfo);
+        }
+        sources.put(source, new Source(digest, classNames));
+    }
+
+    /**
+     * Removes the source and its classes from this state.
+     *
+     * @return the (previous) classes of the source
+     */
+    List<ClassFileInfo> removeSource(final String source) {
+        final List<ClassFileInfo> removed = new ArrayList<>();
+        final Source state = sources.remove(source);
+        if (state != null) {
+            for (final String className : state.classNames) {
+                final ClassFileInfo classFileInfo = classes.remove(className);
+                if (classFileInfo != null) {
+                    removed.add(classFileInfo);
+                }
+            }
+        }
+        return removed;
+    }
+
+    Optional<ClassFileInfo> getClass(final String className) {
+        return Optional.ofNullable(classes.get(className));
+    }
+
+    /**
+     * The given classes and all their (transitive) subtypes -- users of inherited members only
+     * reference the subtype.
+     */
+    Set<String> withSubtypes(final Set<String> classNames) {
+        final Set<String> result = new HashSet<>(classNames);
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (final ClassFileInfo classFileInfo : classes.values()) {
+                if (!result.contains(classFileInfo.getName())
+                    && classFileInfo.getSupertypes().stream().anyMatch(result::contains)) {
+                    result.add(classFileInfo.getName());
+                    added = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The sources of all classes that depend on one of the given classes.
+     */
+    Set<String> dependentSources(final Set<String> classNames) {
+        final Set<String> result = new HashSet<>();
+        for (final Map.Entry<String, Source> entry : sources.entrySet()) {
+            for (final String className : entry.getValue().classNames) {
+                final ClassFileInfo classFileInfo = classes.get(className);
+                if (classFileInfo != null
+                    && classFileInfo.getDependencies().stream().anyMatch(classNames::contains)) {
+                    result.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Source {
+
+        private final String digest;
+        private final List<String> classNames;
+
+        Source(final String digest, final List<String> classNames) {
+            this.digest = digest;
+            this.classNames = classNames;
+        }
+
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The constant pool of a class file -- UTF8, numeric, class and string constants are kept,
+ * all other entries are skipped.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int MAX_TAG = 20;
+
+    // length of the skipped entries (after their tag) -- by tag
+    private static final int[] SKIP_LENGTH = new int[MAX_TAG + 1];
+
+    private static final Pattern TYPE_PATTERN = Pattern.compile("L([^;<>\\[\\s]+)[;<]");
+
+    static {
+        // field/method/interface method ref, name and type, dynamic, invoke dynamic
+        for (final int tag : new int[] {9, 10, 11, 12, 17, 18}) {
+            SKIP_LENGTH[tag] = 4;
+        }
+
+        // method handle
+        SKIP_LENGTH[15] = 3;
+
+        // method type, module, package
+        for (final int tag : new int[] {16, 19, 20}) {
+            SKIP_LENGTH[tag] = 2;
+        }
+    }
+
+    private final Object[] entries;
+
+    private ConstantPool(final Object[] entries) {
+        this.entries = entries;
+    }
+
+    static ConstantPool read(final DataInputStream in) throws IOException {
+        final Object[] entries = new Object[in.readUnsignedShort()];
+
+        int index = 1;
+        while (index < entries.length) {
+            final int tag = in.readUnsignedByte();
+            entries[index] = readEntry(in, tag);
+
+            // long and double constants take two slots
+            index += tag == LONG || tag == DOUBLE ? 2 : 1;
+        }
+
+        return new ConstantPool(entries);
+    }
+
+    private static Object readEntry(final DataInputStream in, final int tag) throws IOException {
+        final Object entry;
+        switch (tag) {
+            case UTF8:
+                entry = in.readUTF();
+                break;
+            case INTEGER:
+                entry = in.readInt();
+                break;
+            case FLOAT:
+                entry = in.readFloat();
+                break;
+            case LONG:
+                entry = in.readLong();
+                break;
+            case DOUBLE:
+                entry = in.readDouble();
+                break;
+            case CLASS:
+                entry = new ClassRef(in.readUnsignedShort());
+                break;
+            case STRING:
+                entry = new StringRef(in.readUnsignedShort());
+                break;
+            default:
+                if (tag > MAX_TAG || SKIP_LENGTH[tag] == 0) {
+                    throw new IOException("Unknown constant pool tag " + tag);
+                }
+                in.skipBytes(SKIP_LENGTH[tag]);
+                entry = null;
+        }
+        return entry;
+    }
+
+    String utf8(final int index) {
+        return (String) entries[index];
+    }
+
+    String className(final int index) {
+        return utf8(((ClassRef) entries[index]).nameIndex);
+    }
+
+    /**
+     * The value of a numeric or string constant.
+     */
+    Object constantValue(final int index) {
+        final Object value = entries[index];
+        return value instanceof StringRef ? entries[((StringRef) value).utf8Index] : value;
+    }
+
+    /**
+     * The classes referenced by this constant pool -- directly or by (array, member or generic)
+     * descriptors.
+     */
+    Set<String> referencedClasses() {
+        final Set<String> classes = new HashSet<>();
+        for (int i = 1; i < entries.length; i++) {
+            if (entries[i] instanceof ClassRef) {
+                final String className = className(i);
+                if (className.charAt(0) != '[') {
+                    classes.add(className);
+                }
+            } else if (entries[i] instanceof String) {
+                addTypes(classes, (String) entries[i]);
+            }
+        }
+        return classes;
+    }
+
+    private static void addTypes(final Set<String> types, final String str) {
+        if (str.indexOf(';') == -1) {
+            return;
+        }
+
+        final Matcher matcher = TYPE_PATTERN.matcher(str);
+        while (matcher.find()) {
+            types.add(matcher.group(1));
+        }
+    }
+
+    private static final class ClassRef {
+
+        private final int nameIndex;
+
+        ClassRef(final int nameIndex) {
+            this.nameIndex = nameIndex;
+        }
+
+    }
+
+    private static final class StringRef {
+
+        private final int utf8Index;
+
+        StringRef(final int utf8Index) {
+            this.utf8Index = utf8Index;
+        }
+
+    }
+
+}
@@ -53,8 +53,9 @@ public class DependencyResolverTask extends ArtifactResolverTask {
             "classpath",
             artifacts.stream().map(Path::toString).collect(Collectors.toList())
         );
-        return new ManagedGenericProduct(properties, ProductChecksumUtil.metaChecksum(artifacts),
-            null);
+        // content based -- the checksum must not depend on the location of the repository
+        return new ManagedGenericProduct(properties,
+            ProductChecksumUtil.contentChecksum(artifacts.stream()), null);
     }
 
 }
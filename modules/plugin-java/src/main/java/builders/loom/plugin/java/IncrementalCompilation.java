@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.FileTreeSnapshot;
+
+/**
+ * Compiles the changed sources and (repeatedly) the sources that depend on classes whose ABI
+ * changed -- updating the given compile state.
+ */
+final class IncrementalCompilation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalCompilation.class);
+
+    private final CompileState state;
+    private final Path buildDir;
+    private final FileTreeSnapshot srcSnapshot;
+    private final Map<String, Path> sources = new HashMap<>();
+
+    // the classes of sources to be compiled -- before they have been compiled
+    private final Map<String, ClassFileInfo> previousClasses = new HashMap<>();
+
+    IncrementalCompilation(final CompileState state, final Path buildDir,
+                           final FileTreeSnapshot srcSnapshot) {
+        this.state = state;
+        this.buildDir = buildDir;
+        this.srcSnapshot = srcSnapshot;
+
+        for (final Path srcFile : srcSnapshot.getFiles()) {
+            sources.put(srcSnapshot.getRootDir().relativize(srcFile).toString(), srcFile);
+        }
+    }
+
+    /**
+     * @param moduleInfo module-info.java -- compiled with every batch, as it makes the batch a
+     *                   module compilation
+     * @return false, if a full compilation is required
+     */
+    boolean compile(final Optional<Path> moduleInfo, final BatchCompiler compiler)
+        throws IOException, InterruptedException {
+
+        final Optional<String> moduleInfoSource =
+            moduleInfo.map(f -> srcSnapshot.getRootDir().relativize(f).toString());
+        final Set<String> compiled = new HashSet<>();
+        Set<String> toCompile = changedSources();
+
+        while (!toCompile.isEmpty()) {
+            moduleInfoSource.ifPresent(toCompile::add);
+
+            final Optional<Set<String>> changedClasses = compileBatch(toCompile, compiler);
+            if (!changedClasses.isPresent()) {
+                return false;
+            }
+
+            compiled.addAll(toCompile);
+
+            toCompile = state.dependentSources(state.withSubtypes(changedClasses.get()));
+            toCompile.removeAll(compiled);
+
+            if (!toCompile.isEmpty()) {
+                LOG.info("ABI of {} changed -- compile {} dependent sources",
+                    changedClasses.get(), toCompile.size());
+            }
+        }
+
+        return true;
+    }
+
+    // the classes of removed sources are removed right away
+    private Set<String> changedSources() throws IOException {
+        final Map<String, String> previousDigests = state.getSourceDigests();
+
+        final Set<String> changed = sources.entrySet().stream()
+            .filter(e -> !srcSnapshot.getContentHash(e.getValue())
+                .equals(previousDigests.get(e.getKey())))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(HashSet::new));
+
+        final Set<String> removed = new HashSet<>(previousDigests.keySet());
+        removed.removeAll(sources.keySet());
+
+        LOG.info("Incremental compilation of {} changed and {} removed sources",
+            changed.size(), removed.size());
+
+        for (final String source : removed) {
+            removeClasses(source);
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return the classes whose ABI changed -- empty, if a full compilation is required
+     */
+    private Optional<Set<String>> compileBatch(final Set<String> toCompile,
+                                               final BatchCompiler compiler)
+        throws IOException, InterruptedException {
+
+        for (final String source : toCompile) {
+            removeClasses(source);
+        }
+
+        final List<Path> srcFiles = toCompile.stream()
+            .map(sources::get)
+            .collect(Collectors.toList());
+
+        LOG.debug("Compile {} java files incrementally", srcFiles.size());
+
+        final ClassOutputs outputs = compiler.compile(srcFiles);
+        if (outputs.isUntracked()) {
+            return Optional.empty();
+        }
+
+        final Set<String> changedClasses = new HashSet<>();
+        boolean constantsChanged = false;
+        for (final String source : toCompile) {
+            constantsChanged |= putSource(source, outputs, changedClasses);
+        }
+        constantsChanged |= removePreviousClasses(changedClasses);
+
+        return constantsChanged ? Optional.empty() : Optional.of(changedClasses);
+    }
+
+    // true, if compile-time constants changed -- they have been inlined by their users
+    private boolean putSource(final String source, final ClassOutputs outputs,
+                              final Set<String> changedClasses) {
+
+        final Path srcFile = sources.get(source);
+        final List<ClassFileInfo> classFiles = outputs.readClassFiles(srcFile);
+        boolean constantsChanged = false;
+
+        for (final ClassFileInfo classFile : classFiles) {
+            final ClassFileInfo previous = previousClasses.remove(classFile.getName());
+            if (previous == null) {
+                continue;
+            }
+            if (!previous.getConstantsHash().equals(classFile.getConstantsHash())) {
+                LOG.info("Constants of {} changed -- compile all sources", classFile.getName());
+                constantsChanged = true;
+            } else if (!previous.getAbiHash().equals(classFile.getAbiHash())) {
+                changedClasses.add(classFile.getName());
+            }
+        }
+
+        state.putSource(source, srcSnapshot.getContentHash(srcFile), classFiles);
+        return constantsChanged;
+    }
+
+    // classes that are gone -- true, if they declared compile-time constants
+    private boolean removePreviousClasses(final Set<String> changedClasses) {
+        boolean constantsRemoved = false;
+
+        for (final ClassFileInfo previous : previousClasses.values()) {
+            if (!previous.getConstantsHash().isEmpty()) {
+                LOG.info("Constants of {} removed -- compile all sources", previous.getName());
+                constantsRemoved = true;
+            }
+            changedClasses.add(previous.getName());
+        }
+        previousClasses.clear();
+
+        return constantsRemoved;
+    }
+
+    private void removeClasses(final String source) throws IOException {
+        for (final ClassFileInfo classFile : state.removeSource(source)) {
+            Files.deleteIfExists(buildDir.resolve(classFile.getName() + ".class"));
+            previousClasses.put(classFile.getName(), classFile);
+        }
+    }
+
+    /**
+     * Compiles a batch of sources.
+     */
+    @FunctionalInterface
+    interface BatchCompiler {
+
+        ClassOutputs compile(List<Path> srcFiles) throws IOException, InterruptedException;
+
+    }
+
+}
@@ -17,49 +17,59 @@
 package builders.loom.plugin.java;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.tools.DiagnosticListener;
-import javax.tools.JavaCompiler;
-import javax.tools.JavaFileObject;
-import javax.tools.StandardJavaFileManager;
-import javax.tools.StandardLocation;
-import javax.tools.ToolProvider;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import builders.loom.api.AbstractModuleTask;
 import builders.loom.api.CompileTarget;
+import builders.loom.api.FileTreeSnapshot;
 import builders.loom.api.JavaVersion;
 import builders.loom.api.LoomPaths;
+import builders.loom.api.RepositoryPathAware;
 import builders.loom.api.TaskResult;
 import builders.loom.api.product.ManagedGenericProduct;
+import builders.loom.api.product.ManagedProduct;
 import builders.loom.api.product.Product;
+import builders.loom.util.FileDigestCache;
 import builders.loom.util.FileUtil;
-import builders.loom.util.ProductChecksumUtil;
+import builders.loom.util.Hasher;
+import builders.loom.util.Hashing;
 
-public class JavaCompileTask extends AbstractModuleTask {
+public class JavaCompileTask extends AbstractModuleTask implements RepositoryPathAware {
 
     private static final Logger LOG = LoggerFactory.getLogger(JavaCompileTask.class);
 
     private final CompileTarget compileTarget;
+    private final boolean abiOnly;
     private final String sourceProductId;
+    private Path repositoryPath;
 
     public JavaCompileTask(final CompileTarget compileTarget) {
+        this(compileTarget, false);
+    }
+
+    /**
+     * @param abiOnly compile only the ABI of the sources (stubs without method bodies) -- for
+     *                the compilation of dependent modules, which can start before the sources
+     *                of this module are compiled completely
+     */
+    public JavaCompileTask(final CompileTarget compileTarget, final boolean abiOnly) {
         this.compileTarget = Objects.requireNonNull(compileTarget);
+        this.abiOnly = abiOnly;
 
         switch (compileTarget) {
             case MAIN:
@@ -73,18 +83,95 @@ public class JavaCompileTask extends AbstractModuleTask {
         }
     }
 
+    @Override
+    public void setRepositoryPath(final Path repositoryPath) {
+        this.repositoryPath = repositoryPath;
+    }
+
     @Override
     public TaskResult run() throws Exception {
         final Optional<Product> sourceTreeProduct =
             useProduct(sourceProductId, Product.class);
 
         final Path buildDir = resolveBuildDir();
+        final Optional<Path> stateFile = resolveStateFile();
 
         if (!sourceTreeProduct.isPresent()) {
             FileUtil.deleteDirectoryRecursively(buildDir, true);
+            deleteStateFile(stateFile);
             return TaskResult.empty();
         }
 
+        final Path srcDir = Paths.get(sourceTreeProduct.get().getProperty("srcDir"));
+        final Optional<CompileState> state = compileSourceTree(buildDir,
+            getFileTreeSnapshotService().snapshot(srcDir), stateFile);
+
+        final FileTreeSnapshot outputSnapshot = getFileTreeSnapshotService().update(buildDir);
+        if (abiOnly) {
+            return TaskResult.done(newProduct(buildDir, abiChecksum(outputSnapshot)));
+        }
+
+        final String outputChecksum = outputSnapshot.getContentChecksum();
+
+        if (state.isPresent()) {
+            state.get().setOutputChecksum(outputChecksum);
+            state.get().save(stateFile.get());
+        }
+
+        return TaskResult.done(newProduct(buildDir, outputChecksum));
+    }
+
+    /**
+     * Compiles the sources -- incrementally, if possible.
+     *
+     * @return the state for the next incremental compilation
+     */
+    private Optional<CompileState> compileSourceTree(final Path buildDir,
+                                                     final FileTreeSnapshot srcSnapshot,
+                                                     final Optional<Path> stateFile)
+        throws IOException, InterruptedException {
+
+        final Set<Path> classpath = resolveClasspath();
+        final List<Path> srcFiles = srcSnapshot.getFiles();
+
+        final Optional<JavaVersion> crossCompileVersion = crossCompileVersion();
+        final Optional<Path> moduleInfo = moduleInfo(srcFiles);
+
+        // Case 4 (see compile) isn't supported incrementally
+        final boolean incremental = stateFile.isPresent()
+            && !(moduleInfo.isPresent() && crossCompileVersion.isPresent());
+
+        final String structureChecksum = incremental
+            ? structureChecksum(classpath, srcSnapshot, moduleInfo, crossCompileVersion)
+            : null;
+
+        CompileState state = incremental
+            ? loadState(stateFile.get(), structureChecksum, buildDir).orElse(null)
+            : null;
+
+        // a failed compilation invalidates the state of the last one
+        deleteStateFile(stateFile);
+
+        if (state != null && !compileIncrementally(state, buildDir, classpath, srcSnapshot,
+            moduleInfo, crossCompileVersion)) {
+            state = null;
+        }
+
+        if (state == null) {
+            FileUtil.createOrCleanDirectory(buildDir);
+
+            final ClassOutputs outputs = new ClassOutputs();
+            compile(buildDir, classpath, srcFiles, outputs);
+
+            if (incremental) {
+                state = newState(structureChecksum, srcSnapshot, outputs);
+            }
+        }
+
+        return Optional.ofNullable(state);
+    }
+
+    private Set<Path> resolveClasspath() throws InterruptedException {
         final Set<Path> classpath = new LinkedHashSet<>();
 
         switch (compileTarget) {
@@ -92,68 +179,197 @@ public class JavaCompileTask extends AbstractModuleTask {
                 useProduct("compileDependencies", Product.class)
                     .map(p -> p.getProperties("classpath"))
                     .ifPresent(p -> p.forEach(c -> classpath.add(Paths.get(c))));
-
-                for (final String module : getModuleConfig().getModuleCompileDependencies()) {
-                    useProduct(module, "compileDependencies", Product.class)
-                        .map(p -> p.getProperties("classpath"))
-                        .ifPresent(p -> p.forEach(c -> classpath.add(Paths.get(c))));
-                }
                 break;
             case TEST:
-                useProduct("compilation", Product.class)
+                useProduct("compilationAbi", Product.class)
                     .map(p -> Paths.get(p.getProperty("classesDir")))
                     .ifPresent(classpath::add);
 
                 useProduct("testDependencies", Product.class)
                     .map(p -> p.getProperties("classpath"))
                     .ifPresent(p -> p.forEach(c -> classpath.add(Paths.get(c))));
-
-                for (final String module : getModuleConfig().getModuleCompileDependencies()) {
-                    useProduct(module, "compileDependencies", Product.class)
-                        .map(p -> p.getProperties("classpath"))
-                        .ifPresent(p -> p.forEach(c -> classpath.add(Paths.get(c))));
-                }
                 break;
             default:
                 throw new IllegalStateException("Unknown compileTarget " + compileTarget);
         }
 
-        final Path srcDir = Paths.get(sourceTreeProduct.get().getProperty("srcDir"));
-        final List<Path> srcFiles = Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
-            .collect(Collectors.toList());
-
-        FileUtil.createOrCleanDirectory(buildDir);
+        for (final String module : getModuleConfig().getModuleCompileDependencies()) {
+            useProduct(module, "compileDependencies", Product.class)
+                .map(p -> p.getProperties("classpath"))
+                .ifPresent(p -> p.forEach(c -> classpath.add(Paths.get(c))));
+        }
 
-        compile(buildDir, classpath, srcFiles);
+        return classpath;
+    }
 
-        return TaskResult.done(newProduct(buildDir));
+    private static void deleteStateFile(final Optional<Path> stateFile) throws IOException {
+        if (stateFile.isPresent()) {
+            Files.deleteIfExists(stateFile.get());
+        }
     }
 
     private Path resolveBuildDir() {
+        return resolveBuildDir(abiOnly);
+    }
+
+    private Path resolveBuildDir(final boolean abi) {
         // TODO another workaround for non-functional MODULE_PATH
         return LoomPaths.buildDir(getRuntimeConfiguration().getProjectBaseDir())
-            .resolve(Paths.get("compilation", compileTarget.name().toLowerCase(),
-                getBuildContext().getModuleName()));
+            .resolve(Paths.get(abi ? "compilation-abi" : "compilation",
+                compileTarget.name().toLowerCase(), getBuildContext().getModuleName()));
     }
 
+    // stubs are always compiled completely
+    private Optional<Path> resolveStateFile() {
+        if (abiOnly || !getRuntimeConfiguration().isCacheEnabled()) {
+            return Optional.empty();
+        }
 
-    // read: http://blog.ltgt.net/most-build-tools-misuse-javac/
-    private void compile(final Path buildDir, final Collection<Path> classpath,
-                         final List<Path> srcFiles)
-        throws IOException, InterruptedException {
-
-        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        final DiagnosticListener<JavaFileObject> diag = new DiagnosticLogListener(LOG);
+        return Optional.of(repositoryPath
+            .resolve(getBuildContext().getModuleName())
+            .resolve(compileTarget.name().toLowerCase())
+            .resolve("compile.state"));
+    }
 
-        final Optional<JavaVersion> crossCompileVersion =
-            configuredPlatformVersion(getModuleConfig().getBuildSettings().getJavaPlatformVersion())
+    private Optional<JavaVersion> crossCompileVersion() {
+        return configuredPlatformVersion(
+            getModuleConfig().getBuildSettings().getJavaPlatformVersion())
             .map(JavaVersion::ofVersion)
-            .filter(v -> !JavaVersion.current().equals(v));
+            .filter(v -> v.getNumericVersion() != JavaVersion.currentNumericVersion());
+    }
 
-        final Optional<Path> moduleInfoOpt = srcFiles.stream()
+    private static Optional<Path> moduleInfo(final List<Path> srcFiles) {
+        return srcFiles.stream()
             .filter(f -> f.getFileName().toString().equals(LoomPaths.MODULE_INFO_JAVA))
             .findFirst();
+    }
+
+    /**
+     * Checksum of everything but the sources that affects the compilation -- a change requires
+     * a full compilation.
+     */
+    private String structureChecksum(final Collection<Path> classpath,
+                                     final FileTreeSnapshot srcSnapshot,
+                                     final Optional<Path> moduleInfo,
+                                     final Optional<JavaVersion> crossCompileVersion)
+        throws InterruptedException {
+
+        final List<String> parts = new ArrayList<>();
+        parts.add(Runtime.version().toString());
+        parts.addAll(JavacWrapper.buildOptions(crossCompileVersion.orElse(null)));
+        parts.add(moduleInfo.map(srcSnapshot::getContentHash).orElse("no module-info"));
+
+        // compilations of this project only matter by their ABI
+        final Map<Path, String> abiChecksums = new HashMap<>();
+        final List<Path> dependencies = new ArrayList<>();
+        for (final String moduleName : getModuleConfig().getModuleCompileDependencies()) {
+            useProduct(moduleName, "compilationAbi", ManagedProduct.class)
+                .ifPresent(p -> {
+                    final Path classesDir = Paths.get(p.getProperty("classesDir"));
+                    abiChecksums.put(classesDir, p.checksum());
+                    dependencies.add(classesDir);
+                });
+        }
+        if (compileTarget == CompileTarget.TEST) {
+            useProduct("compilationAbi", ManagedProduct.class)
+                .ifPresent(p -> abiChecksums.put(Paths.get(p.getProperty("classesDir")),
+                    p.checksum()));
+        }
+        dependencies.addAll(classpath);
+
+        for (final Path dependency : dependencies) {
+            parts.add(dependency.toString());
+            if (abiChecksums.containsKey(dependency)) {
+                parts.add(abiChecksums.get(dependency));
+            } else if (Files.isDirectory(dependency)) {
+                parts.add(getFileTreeSnapshotService().snapshot(dependency).getContentChecksum());
+            } else if (Files.exists(dependency)) {
+                parts.add(Hasher.toHex(FileDigestCache.digestOf(dependency)));
+            }
+        }
+
+        return Hashing.hash(parts);
+    }
+
+    // the state is only usable if the classes haven't been changed since (e.g. restored)
+    private Optional<CompileState> loadState(final Path stateFile, final String structureChecksum,
+                                             final Path buildDir) {
+        final Optional<CompileState> state = CompileState.load(stateFile);
+
+        if (!state.isPresent()) {
+            LOG.debug("No state of a previous compilation -- compile all sources");
+        }
+
+        return state.filter(s -> isUpToDate(s, structureChecksum, buildDir));
+    }
+
+    private boolean isUpToDate(final CompileState state, final String structureChecksum,
+                               final Path buildDir) {
+        if (!state.getStructureChecksum().equals(structureChecksum)) {
+            LOG.info("Classpath, compiler or module-info changed -- compile all sources");
+            return false;
+        }
+
+        if (!state.getOutputChecksum().equals(
+            getFileTreeSnapshotService().update(buildDir).getContentChecksum())) {
+            LOG.info("Classes changed since the last compilation -- compile all sources");
+            return false;
+        }
+
+        return true;
+    }
+
+    private static CompileState newState(final String structureChecksum,
+                                         final FileTreeSnapshot srcSnapshot,
+                                         final ClassOutputs outputs) {
+        if (outputs.isUntracked()) {
+            LOG.info("Classes without source file (generated sources?) -- "
+                + "incremental compilation disabled");
+            return null;
+        }
+
+        final CompileState state = new CompileState(structureChecksum);
+        for (final Path srcFile : srcSnapshot.getFiles()) {
+            state.putSource(srcSnapshot.getRootDir().relativize(srcFile).toString(),
+                srcSnapshot.getContentHash(srcFile), outputs.readClassFiles(srcFile));
+        }
+        return state;
+    }
+
+    /**
+     * @return false, if a full compilation is required
+     * @see IncrementalCompilation
+     */
+    private boolean compileIncrementally(final CompileState state, final Path buildDir,
+                                         final Collection<Path> classpath,
+                                         final FileTreeSnapshot srcSnapshot,
+                                         final Optional<Path> moduleInfo,
+                                         final Optional<JavaVersion> crossCompileVersion)
+        throws IOException, InterruptedException {
+
+        // unchanged classes are looked up in the build dir -- implicitly for module compilations
+        final Collection<Path> compileClasspath = new ArrayList<>();
+        if (!moduleInfo.isPresent()) {
+            compileClasspath.add(buildDir);
+        }
+        compileClasspath.addAll(classpath);
+
+        return new IncrementalCompilation(state, buildDir, srcSnapshot).compile(moduleInfo,
+            srcFiles -> {
+                final ClassOutputs outputs = new ClassOutputs();
+                compileSources(buildDir, srcFiles, new CompileParameters(compileClasspath,
+                    moduleInfo.isPresent(), crossCompileVersion.orElse(null), outputs));
+                return outputs;
+            });
+    }
+
+    // read: http://blog.ltgt.net/most-build-tools-misuse-javac/
+    private void compile(final Path buildDir, final Collection<Path> classpath,
+                         final List<Path> srcFiles, final ClassOutputs outputs)
+        throws IOException, InterruptedException {
+
+        final Optional<JavaVersion> crossCompileVersion = crossCompileVersion();
+        final Optional<Path> moduleInfoOpt = moduleInfo(srcFiles);
 
         // Handle these cases:
         // Case 1 -- pure Java 9 compile with module-info.java --> MODULE_PATH
@@ -172,8 +388,8 @@ public class JavaCompileTask extends AbstractModuleTask {
                 // First, compile everything with current Java release
 
                 LOG.debug("Compile {} java files (with module path)", srcFiles.size());
-                compileSources(buildDir, classpath, srcFiles, compiler, diag,
-                    true, null);
+                compileSources(buildDir, srcFiles,
+                    new CompileParameters(classpath, true, null, outputs));
 
                 // Case 4 - 2nd step
                 // Then, compile everything but the module-info with requested Version
@@ -184,12 +400,13 @@ public class JavaCompileTask extends AbstractModuleTask {
 
                 LOG.debug("Compile {} java files (Cross Compile for Java {})",
                     srcFilesWithoutModuleInfo.size(), crossCompileVersion.get());
-                compileSources(buildDir, classpath, srcFilesWithoutModuleInfo, compiler, diag,
-                    false, crossCompileVersion.get());
+                compileSources(buildDir, srcFilesWithoutModuleInfo,
+                    new CompileParameters(classpath, false, crossCompileVersion.get(), outputs));
             } else {
                 // Case 1
                 LOG.debug("Compile {} java files (with module path)", srcFiles.size());
-                compileSources(buildDir, classpath, srcFiles, compiler, diag, true, null);
+                compileSources(buildDir, srcFiles,
+                    new CompileParameters(classpath, true, null, outputs));
             }
         } else {
             // Case 2 or 3
@@ -197,12 +414,13 @@ public class JavaCompileTask extends AbstractModuleTask {
                 // Case 3
                 LOG.debug("Compile {} java files (Cross Compile for Java {})",
                     srcFiles.size(), crossCompileVersion.get());
-                compileSources(buildDir, classpath, srcFiles, compiler, diag, false,
-                    crossCompileVersion.get());
+                compileSources(buildDir, srcFiles,
+                    new CompileParameters(classpath, false, crossCompileVersion.get(), outputs));
             } else {
                 // Case 2
                 LOG.debug("Compile {} java files (with classpath)", srcFiles.size());
-                compileSources(buildDir, classpath, srcFiles, compiler, diag, false, null);
+                compileSources(buildDir, srcFiles,
+                    new CompileParameters(classpath, false, null, outputs));
             }
         }
     }
@@ -210,7 +428,7 @@ public class JavaCompileTask extends AbstractModuleTask {
     private static Optional<String> configuredPlatformVersion(final JavaVersion version) {
         Objects.requireNonNull(version, "versionString required");
 
-        final int parsedJavaSpecVersion = JavaVersion.current().getNumericVersion();
+        final int parsedJavaSpecVersion = JavaVersion.currentNumericVersion();
         final int platformVersion = version.getNumericVersion();
 
         if (platformVersion == parsedJavaSpecVersion) {
@@ -220,30 +438,10 @@ public class JavaCompileTask extends AbstractModuleTask {
         return Optional.of(String.valueOf(platformVersion));
     }
 
-    private StandardJavaFileManager newFileManager(
-        final Path buildDir, final JavaCompiler compiler,
-        final DiagnosticListener<JavaFileObject> diagnosticListener,
-        final boolean useModulePath, final Collection<Path> classpath)
-        throws IOException, InterruptedException {
-
-        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(
-            diagnosticListener, null, StandardCharsets.UTF_8);
-
-        fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT,
-            Collections.singletonList(buildDir));
-
-        if (useModulePath) {
-            buildModulePath(buildDir, classpath, fileManager);
-        } else {
-            buildClassPath(classpath, fileManager);
-        }
-
-        return fileManager;
-    }
+    private List<Path> buildModulePath(final Path buildDir, final Collection<Path> classpath)
+        throws InterruptedException {
 
-    private void buildModulePath(final Path buildDir, final Collection<Path> classpath,
-                                 final StandardJavaFileManager fileManager)
-        throws InterruptedException, IOException {
+        final List<Path> modulePath = new ArrayList<>();
 
         // Wait until other modules have delivered their compilations to module path
         for (final String moduleName : getModuleConfig().getModuleCompileDependencies()) {
@@ -260,80 +458,83 @@ public class JavaCompileTask extends AbstractModuleTask {
 */
 
             // workaround - step 1/2
-            getUsedProducts().getAndWaitProduct(moduleName, "compilation");
+            final Optional<Product> compilationAbi =
+                useProduct(moduleName, "compilationAbi", Product.class);
+
+            // the stubs of dependencies (exploded modules) -- not the shared parent directory,
+            // as it contains the stubs of this module (written concurrently by compileJavaAbi)
+            if (compileTarget == CompileTarget.MAIN) {
+                compilationAbi
+                    .map(p -> Paths.get(p.getProperty("classesDir")))
+                    .ifPresent(modulePath::add);
+            }
         }
 
         // workaround - step 2/2
-        final List<Path> modulePath = new ArrayList<>();
-        modulePath.add(buildDir.getParent());
+        if (compileTarget == CompileTarget.TEST) {
+            modulePath.add(buildDir.getParent());
+        }
         modulePath.addAll(classpath);
-        fileManager.setLocationFromPaths(StandardLocation.MODULE_PATH, modulePath);
         LOG.debug("Modulepath: {}", modulePath);
+        return modulePath;
     }
 
-    private void buildClassPath(final Collection<Path> classpath,
-                                final StandardJavaFileManager fileManager)
-        throws InterruptedException, IOException {
+    private List<Path> buildClassPath(final Collection<Path> classpath)
+        throws InterruptedException {
 
         final List<Path> classPath = new ArrayList<>();
 
         // Wait until other modules have delivered their compilations to module path
         for (final String moduleName : getModuleConfig().getModuleCompileDependencies()) {
-            useProduct(moduleName, "compilation", Product.class)
+            useProduct(moduleName, "compilationAbi", Product.class)
                 .map(p -> Paths.get(p.getProperty("classesDir")))
                 .ifPresent(classPath::add);
         }
 
         classPath.addAll(classpath);
-
-        fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classPath);
         LOG.debug("Classpath: {}", classPath);
+        return classPath;
     }
 
-    private void compileSources(final Path buildDir, final Collection<Path> classpath,
-                                final List<Path> srcFiles, final JavaCompiler compiler,
-                                final DiagnosticListener<JavaFileObject> diag,
-                                final boolean useModulePath, final JavaVersion release)
+    private void compileSources(final Path buildDir, final List<Path> srcFiles,
+                                final CompileParameters parameters)
         throws IOException, InterruptedException {
 
-        try (final StandardJavaFileManager fileManager =
-                 newFileManager(buildDir, compiler, diag, useModulePath, classpath)) {
-            compileSources(compiler, diag, fileManager, buildOptions(release),
-                fileManager.getJavaFileObjectsFromPaths(srcFiles));
-        }
-    }
+        final List<Path> dependencyPath = parameters.isModulePath()
+            ? buildModulePath(buildDir, parameters.getClasspath())
+            : buildClassPath(parameters.getClasspath());
 
-    private void compileSources(final JavaCompiler compiler,
-                         final DiagnosticListener<JavaFileObject> diagnosticListener,
-                         final StandardJavaFileManager fileManager, final List<String> options,
-                         final Iterable<? extends JavaFileObject> compUnits) {
+        new JavacWrapper(buildDir, abiOnly).compile(srcFiles, parameters, dependencyPath);
+    }
 
-        final JavaCompiler.CompilationTask compilerTask = compiler
-            .getTask(null, fileManager, diagnosticListener, options, null, compUnits);
+    /**
+     * Checksum of the ABI of the compiled stubs -- unaffected by changes of method bodies,
+     * private members or anonymous classes. Other files (e.g. generated by annotation
+     * processors) are included by their content.
+     */
+    private static String abiChecksum(final FileTreeSnapshot snapshot) {
+        final List<String> parts = snapshot.getFiles().parallelStream()
+            .map(f -> abiChecksumPart(snapshot, f))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
 
-        if (!compilerTask.call()) {
-            throw new IllegalStateException("Java compile failed");
-        }
+        return Hashing.hash(parts);
     }
 
-    private static List<String> buildOptions(final JavaVersion release) {
-        final List<String> options = new ArrayList<>();
-
-        final String envLint = System.getenv("LOOM_JAVA_COMPILE_LINT");
-        final String lint = envLint != null ? envLint : "all";
-        options.add("-Xlint:" + lint);
+    private static String abiChecksumPart(final FileTreeSnapshot snapshot, final Path file) {
+        final String relativePath = snapshot.getRootDir().relativize(file).toString();
 
-        if (release != null) {
-            options.add("--release");
-            options.add(Integer.toString(release.getNumericVersion()));
+        if (!relativePath.endsWith(".class")) {
+            return relativePath + ":" + snapshot.getContentHash(file);
         }
 
-        return options;
+        final ClassFileInfo classFile = ClassFileInfo.read(file);
+        return classFile.isLocal() ? null
+            : relativePath + ":" + classFile.getAbiHash() + ":" + classFile.getConstantsHash();
     }
 
-    private static Product newProduct(final Path buildDir) {
-        return new ManagedGenericProduct("classesDir", buildDir.toString(),
-            ProductChecksumUtil.recursiveContentChecksum(buildDir), null);
+    private static Product newProduct(final Path buildDir, final String checksum) {
+        return new ManagedGenericProduct("classesDir", buildDir.toString(), checksum, null);
     }
 
 }
@@ -78,25 +78,7 @@ public class JavaPlugin extends AbstractPlugin<JavaPluginSettings> {
             .desc("Provides test sources for other products.")
             .register();
 
-        task("compileJava")
-            .impl(() -> new JavaCompileTask(CompileTarget.MAIN))
-            .provides("compilation")
-            .uses("source", "compileDependencies")
-            .importFromModules("compilation", "compileDependencies")
-            .skipHints(List.of(SkipChecksumUtil.jvmVersion(), () -> "Module Java version "
-                + getModuleBuildConfig().getBuildSettings().getJavaPlatformVersion()))
-            .desc("Compiles main sources.")
-            .register();
-
-        task("compileTestJava")
-            .impl(() -> new JavaCompileTask(CompileTarget.TEST))
-            .provides("testCompilation")
-            .uses("compilation", "testSource", "testDependencies")
-            .importFromModules("compilation", "compileDependencies")
-            .desc("Compiles test sources.")
-            .skipHints(List.of(SkipChecksumUtil.jvmVersion(), () -> "Module Java version "
-                + getModuleBuildConfig().getBuildSettings().getJavaPlatformVersion()))
-            .register();
+        configureCompileTasks();
 
         task("assembleJar")
             .impl(() -> new JavaAssembleTask(getPluginSettings()))
@@ -173,4 +155,37 @@ public class JavaPlugin extends AbstractPlugin<JavaPluginSettings> {
             .register();
     }
 
+    private void configureCompileTasks() {
+        task("compileJavaAbi")
+            .impl(() -> new JavaCompileTask(CompileTarget.MAIN, true))
+            .provides("compilationAbi", true)
+            .uses("source", "compileDependencies")
+            .importFromModules("compilationAbi", "compileDependencies")
+            .skipHints(List.of(SkipChecksumUtil.jvmVersion(), () -> "Module Java version "
+                + getModuleBuildConfig().getBuildSettings().getJavaPlatformVersion()))
+            .desc("Compiles the ABI of main sources (without method bodies) for dependent "
+                + "compilations.")
+            .register();
+
+        task("compileJava")
+            .impl(() -> new JavaCompileTask(CompileTarget.MAIN))
+            .provides("compilation")
+            .uses("source", "compileDependencies")
+            .importFromModules("compilationAbi", "compileDependencies")
+            .skipHints(List.of(SkipChecksumUtil.jvmVersion(), () -> "Module Java version "
+                + getModuleBuildConfig().getBuildSettings().getJavaPlatformVersion()))
+            .desc("Compiles main sources.")
+            .register();
+
+        task("compileTestJava")
+            .impl(() -> new JavaCompileTask(CompileTarget.TEST))
+            .provides("testCompilation")
+            .uses("compilationAbi", "testSource", "testDependencies")
+            .importFromModules("compilationAbi", "compileDependencies")
+            .desc("Compiles test sources.")
+            .skipHints(List.of(SkipChecksumUtil.jvmVersion(), () -> "Module Java version "
+                + getModuleBuildConfig().getBuildSettings().getJavaPlatformVersion()))
+            .register();
+    }
+
 }
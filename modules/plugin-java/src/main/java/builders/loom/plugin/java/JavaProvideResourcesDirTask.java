@@ -16,18 +16,15 @@
 
 package builders.loom.plugin.java;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 import builders.loom.api.AbstractModuleTask;
 import builders.loom.api.CompileTarget;
+import builders.loom.api.FileTreeSnapshot;
 import builders.loom.api.LoomPaths;
 import builders.loom.api.TaskResult;
 import builders.loom.api.product.ManagedGenericProduct;
 import builders.loom.api.product.Product;
-import builders.loom.util.FileUtil;
-import builders.loom.util.ProductChecksumUtil;
 
 public class JavaProvideResourcesDirTask extends AbstractModuleTask {
 
@@ -49,28 +46,18 @@ public class JavaProvideResourcesDirTask extends AbstractModuleTask {
     @Override
     public TaskResult run() throws Exception {
         final Path srcDir = getBuildContext().getPath().resolve(srcFragmentDir);
-        final boolean hasSrcFiles = findSources(srcDir);
+        final FileTreeSnapshot snapshot = getFileTreeSnapshotService().snapshot(srcDir);
 
-        if (!hasSrcFiles) {
+        if (snapshot.getFiles().isEmpty()) {
             return TaskResult.empty();
         }
 
-        return TaskResult.done(newProduct(srcDir));
+        return TaskResult.done(newProduct(srcDir, snapshot));
     }
 
-    private boolean findSources(final Path srcDir) throws IOException {
-        if (FileUtil.isDirAbsentOrEmpty(srcDir)) {
-            return false;
-        }
-
-        return Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
-            .findFirst().isPresent();
-    }
-
-    private static Product newProduct(final Path srcDir) {
+    private static Product newProduct(final Path srcDir, final FileTreeSnapshot snapshot) {
         return new ManagedGenericProduct("resDir", srcDir.toString(),
-            ProductChecksumUtil.recursiveMetaChecksum(srcDir), null);
+            snapshot.getContentChecksum(), null);
     }
 
 }
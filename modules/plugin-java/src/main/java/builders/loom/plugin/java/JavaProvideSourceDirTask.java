@@ -16,21 +16,17 @@
 
 package builders.loom.plugin.java;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import builders.loom.api.AbstractModuleTask;
 import builders.loom.api.CompileTarget;
+import builders.loom.api.FileTreeSnapshot;
 import builders.loom.api.LoomPaths;
 import builders.loom.api.TaskResult;
 import builders.loom.api.product.ManagedGenericProduct;
 import builders.loom.api.product.Product;
-import builders.loom.util.FileUtil;
-import builders.loom.util.ProductChecksumUtil;
 
 public class JavaProvideSourceDirTask extends AbstractModuleTask {
 
@@ -52,7 +48,8 @@ public class JavaProvideSourceDirTask extends AbstractModuleTask {
     @Override
     public TaskResult run() throws Exception {
         final Path srcDir = getBuildContext().getPath().resolve(srcFragmentDir);
-        final List<Path> srcFiles = findSources(srcDir);
+        final FileTreeSnapshot snapshot = getFileTreeSnapshotService().snapshot(srcDir);
+        final List<Path> srcFiles = snapshot.getFiles();
 
         if (srcFiles.isEmpty()) {
             return TaskResult.empty();
@@ -60,17 +57,7 @@ public class JavaProvideSourceDirTask extends AbstractModuleTask {
 
         validateFiles(srcFiles);
 
-        return TaskResult.done(newProduct(srcDir, srcFiles));
-    }
-
-    private List<Path> findSources(final Path srcDir) throws IOException {
-        if (FileUtil.isDirAbsentOrEmpty(srcDir)) {
-            return Collections.emptyList();
-        }
-
-        return Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
-            .collect(Collectors.toList());
+        return TaskResult.done(newProduct(srcDir, snapshot));
     }
 
     private void validateFiles(final List<Path> srcFiles) {
@@ -84,9 +71,9 @@ public class JavaProvideSourceDirTask extends AbstractModuleTask {
         }
     }
 
-    private static Product newProduct(final Path srcDir, final List<Path> srcFiles) {
+    private static Product newProduct(final Path srcDir, final FileTreeSnapshot snapshot) {
         return new ManagedGenericProduct("srcDir", srcDir.toString(),
-            ProductChecksumUtil.metaChecksum(srcFiles), null);
+            snapshot.getContentChecksum(), null);
     }
 
 }
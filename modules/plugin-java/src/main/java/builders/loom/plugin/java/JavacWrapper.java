@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import builders.loom.api.JavaVersion;
+
+/**
+ * Runs the system Java compiler -- on sources or (for the ABI) on their stubs.
+ */
+final class JavacWrapper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JavacWrapper.class);
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final DiagnosticListener<JavaFileObject> diag = new DiagnosticLogListener(LOG);
+    private final Path buildDir;
+    private final boolean stubs;
+
+    /**
+     * @param stubs compile only the ABI of the sources (stubs without method bodies)
+     */
+    JavacWrapper(final Path buildDir, final boolean stubs) {
+        this.buildDir = buildDir;
+        this.stubs = stubs;
+    }
+
+    /**
+     * @param dependencyPath the complete class path or module path (as requested by the
+     *                       parameters) -- incl. the compilations of other modules
+     */
+    void compile(final List<Path> srcFiles, final CompileParameters parameters,
+                 final List<Path> dependencyPath) throws IOException {
+
+        final JavaVersion release = parameters.getRelease();
+
+        try (final StandardJavaFileManager fileManager =
+                 compiler.getStandardFileManager(diag, null, StandardCharsets.UTF_8)) {
+
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT,
+                Collections.singletonList(buildDir));
+            fileManager.setLocationFromPaths(parameters.isModulePath()
+                ? StandardLocation.MODULE_PATH : StandardLocation.CLASS_PATH, dependencyPath);
+
+            final Iterable<? extends JavaFileObject> sources =
+                fileManager.getJavaFileObjectsFromPaths(srcFiles);
+
+            final JavaFileManager classPathFileManager = parameters.isModulePath() ? fileManager
+                : new ClasspathArchiveFileManager(fileManager,
+                    release != null ? release.getNumericVersion()
+                        : JavaVersion.currentNumericVersion());
+
+            if (stubs) {
+                compile(classPathFileManager, abiBuildOptions(release),
+                    SourceStubs.create(compiler, fileManager, sources));
+            } else {
+                compile(parameters.getOutputs().record(classPathFileManager),
+                    buildOptions(release), sources);
+            }
+        }
+    }
+
+    private void compile(final JavaFileManager fileManager, final List<String> options,
+                         final Iterable<? extends JavaFileObject> compUnits) {
+
+        final JavaCompiler.CompilationTask compilerTask = compiler
+            .getTask(null, fileManager, diag, options, null, compUnits);
+
+        if (!compilerTask.call()) {
+            throw new IllegalStateException("Java compile failed");
+        }
+    }
+
+    static List<String> buildOptions(final JavaVersion release) {
+        final List<String> options = new ArrayList<>();
+
+        final String envLint = System.getenv("LOOM_JAVA_COMPILE_LINT");
+        final String lint = envLint != null ? envLint : "all";
+        options.add("-Xlint:" + lint);
+
+        if (release != null) {
+            options.add("--release");
+            options.add(Integer.toString(release.getNumericVersion()));
+        }
+
+        return options;
+    }
+
+    // warnings are reported by the compilation of the sources
+    private static List<String> abiBuildOptions(final JavaVersion release) {
+        final List<String> options = new ArrayList<>();
+        options.add("-Xlint:none");
+        options.add("-nowarn");
+
+        // annotation processors run with the full compilation -- they'd see the stubs only
+        options.add("-proc:none");
+
+        if (release != null) {
+            options.add("--release");
+            options.add(Integer.toString(release.getNumericVersion()));
+        }
+
+        return options;
+    }
+
+}
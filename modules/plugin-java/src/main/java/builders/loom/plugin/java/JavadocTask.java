@@ -17,7 +17,6 @@
 package builders.loom.plugin.java;
 
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -36,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import builders.loom.api.AbstractModuleTask;
 import builders.loom.api.CompileTarget;
+import builders.loom.api.JavaVersion;
 import builders.loom.api.LoomPaths;
 import builders.loom.api.TaskResult;
 import builders.loom.api.product.ManagedGenericProduct;
@@ -101,17 +101,17 @@ public class JavadocTask extends AbstractModuleTask {
                 List.of(getBuildDir().getParent()));
 
             final Path srcDir = Paths.get(source.get().getProperty("srcDir"));
-            final List<Path> srcFiles = Files
-                .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
-                .collect(Collectors.toList());
+            final List<Path> srcFiles = getFileTreeSnapshotService().snapshot(srcDir).getFiles();
 
             final Iterable<? extends JavaFileObject> compUnits =
                 fileManager.getJavaFileObjectsFromPaths(srcFiles);
 
             LOG.info("Create Javadoc for {} files", srcFiles.size());
 
-            final DocumentationTool.DocumentationTask javaDocTask =
-                docTool.getTask(null, fileManager, diagnosticListener, null, null, compUnits);
+            final DocumentationTool.DocumentationTask javaDocTask = docTool.getTask(null,
+                new ClasspathArchiveFileManager(fileManager,
+                    JavaVersion.currentNumericVersion()),
+                diagnosticListener, null, null, compUnits);
 
             if (!javaDocTask.call()) {
                 throw new IllegalStateException("JavaDoc compile failed");
@@ -31,7 +31,6 @@ import builders.loom.api.TaskResult;
 import builders.loom.api.product.ManagedGenericProduct;
 import builders.loom.api.product.Product;
 import builders.loom.util.Hashing;
-import builders.loom.util.ProductChecksumUtil;
 
 public class ResourcesTask extends AbstractModuleTask implements RepositoryPathAware {
 
@@ -128,8 +127,8 @@ public class ResourcesTask extends AbstractModuleTask implements RepositoryPathA
         };
     }
 
-    private static Product newProduct(final Path buildDir) {
+    private Product newProduct(final Path buildDir) {
         return new ManagedGenericProduct("processedResourcesDir", buildDir.toString(),
-            ProductChecksumUtil.recursiveContentChecksum(buildDir), null);
+            getFileTreeSnapshotService().update(buildDir).getContentChecksum(), null);
     }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+
+/**
+ * Stubs of Java sources for the compilation of their ABI -- method and constructor bodies are
+ * replaced by {@code throw null} (explicit constructor invocations are kept). Field
+ * initializers are kept, so constants are compiled just like the originals.
+ * <p>
+ * Compiling the stubs is considerably faster than compiling the sources, as most of the work
+ * of javac (attribution, flow analysis, lowering and generation) is spent on method bodies.
+ */
+final class SourceStubs {
+
+    private static final String THROW = "throw null;";
+
+    private SourceStubs() {
+    }
+
+    /**
+     * Creates the stubs of the given sources -- returns the sources themselves if they
+     * can't be parsed (the compilation will report the errors).
+     */
+    static List<JavaFileObject> create(final JavaCompiler compiler,
+                                       final JavaFileManager fileManager,
+                                       final Iterable<? extends JavaFileObject> sources)
+        throws IOException {
+
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics,
+            List.of("-proc:none"), null, sources);
+        final SourcePositions positions = Trees.instance(task).getSourcePositions();
+        final Iterable<? extends CompilationUnitTree> units = task.parse();
+
+        final boolean parseErrors = diagnostics.getDiagnostics().stream()
+            .anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR);
+
+        final List<JavaFileObject> stubs = new ArrayList<>();
+        if (parseErrors) {
+            sources.forEach(stubs::add);
+            return stubs;
+        }
+
+        for (final CompilationUnitTree unit : units) {
+            final String source = unit.getSourceFile().getCharContent(true).toString();
+            final List<Replacement> replacements = new ArrayList<>();
+            new BodyScanner(unit, positions, source, replacements).scan(unit, null);
+            stubs.add(new StubFileObject(unit.getSourceFile(), apply(source, replacements)));
+        }
+
+        return stubs;
+    }
+
+    private static String apply(final String source, final List<Replacement> replacements) {
+        replacements.sort(Comparator.comparingInt(r -> r.start));
+
+        final StringBuilder sb = new StringBuilder(source.length());
+        int pos = 0;
+        for (final Replacement replacement : replacements) {
+            sb.append(source, pos, replacement.start).append(replacement.text);
+            pos = replacement.end;
+        }
+        return sb.append(source, pos, source.length()).toString();
+    }
+
+    private static final class Replacement {
+
+        private final int start;
+        private final int end;
+        private final String text;
+
+        Replacement(final int start, final int end, final String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+    }
+
+    private static final class BodyScanner extends TreeScanner<Void, Void> {
+
+        private final CompilationUnitTree unit;
+        private final SourcePositions positions;
+        private final String source;
+        private final List<Replacement> replacements;
+
+        BodyScanner(final CompilationUnitTree unit, final SourcePositions positions,
+                    final String source, final List<Replacement> replacements) {
+            this.unit = unit;
+            this.positions = positions;
+            this.source = source;
+            this.replacements = replacements;
+        }
+
+        @Override
+        public Void visitMethod(final MethodTree node, final Void unused) {
+            final BlockTree body = node.getBody();
+            if (body == null) {
+                return null;
+            }
+
+            final int start = (int) positions.getStartPosition(unit, body);
+            final int end = (int) positions.getEndPosition(unit, body);
+
+            String kept = "";
+            if (node.getName().contentEquals("<init>") && !body.getStatements().isEmpty()
+                && isConstructorInvocation(body.getStatements().get(0))) {
+                final StatementTree invocation = body.getStatements().get(0);
+                kept = source.substring((int) positions.getStartPosition(unit, invocation),
+                    (int) positions.getEndPosition(unit, invocation)) + " ";
+            }
+
+            // keep line numbers of diagnostics
+            final StringBuilder text = new StringBuilder("{ ").append(kept).append(THROW);
+            final long lineBreaks = source.substring(start, end).chars()
+                .filter(c -> c == '\n').count() - kept.chars().filter(c -> c == '\n').count();
+            for (long i = 0; i < lineBreaks; i++) {
+                text.append('\n');
+            }
+            text.append(" }");
+
+            replacements.add(new Replacement(start, end, text.toString()));
+
+            // bodies (incl. local and anonymous classes) are gone
+            return null;
+        }
+
+        private static boolean isConstructorInvocation(final StatementTree statement) {
+            if (!(statement instanceof ExpressionStatementTree)) {
+                return false;
+            }
+
+            final ExpressionTree expression = ((ExpressionStatementTree) statement)
+                .getExpression();
+            return expression instanceof MethodInvocationTree
+                && isConstructorSelect(((MethodInvocationTree) expression).getMethodSelect());
+        }
+
+        // this(...), super(...) or outer.super(...)
+        private static boolean isConstructorSelect(final ExpressionTree method) {
+            if (method instanceof IdentifierTree) {
+                final CharSequence name = ((IdentifierTree) method).getName();
+                return name.toString().equals("super") || name.toString().equals("this");
+            }
+            return method instanceof MemberSelectTree
+                && ((MemberSelectTree) method).getIdentifier().contentEquals("super");
+        }
+
+    }
+
+    private static final class StubFileObject extends ForwardingJavaFileObject<JavaFileObject> {
+
+        private final String content;
+
+        StubFileObject(final JavaFileObject source, final String content) {
+            super(source);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return content;
+        }
+
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.plugin.java;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class JavacWrapperTest {
+
+    private static final String LIB = String.join("\n",
+        "package lib;",
+        "import java.util.List;",
+        "import java.util.function.Supplier;",
+        "public class Base<T extends Comparable<T>> implements Supplier<List<T>> {",
+        "    public static final String NAME = \"base\";",
+        "    public static final int SIZE = NAME.length();",
+        "    protected final List<T> items;",
+        "    public Base(final List<T> items) {",
+        "        this.items = items;",
+        "    }",
+        "    protected Base() {",
+        "        this(List.of());",
+        "    }",
+        "    @Override @Deprecated public List<T> get() {",
+        "        return items;",
+        "    }",
+        "    public <E extends Exception> T first() throws E {",
+        "        return items.get(0);",
+        "    }",
+        "    public Runnable printer() {",
+        "        return new Runnable() {",
+        "            public void run() {",
+        "                items.clear();",
+        "            }",
+        "        };",
+        "    }",
+        "    public interface Visitor {",
+        "        default void visit(Object o) {",
+        "            o.notify();",
+        "        }",
+        "    }",
+        "    public enum Kind {",
+        "        A, B { @Override public String toString() { return \"b\"; } }",
+        "    }",
+        "}");
+
+    private static final String APP = String.join("\n",
+        "package app;",
+        "import lib.Base;",
+        "public class App extends Base<String> implements Base.Visitor {",
+        "    public static final String TITLE = NAME + \"-app\";",
+        "    public String run(final Base.Kind kind) {",
+        "        visit(kind);",
+        "        switch (kind) {",
+        "            case A: return first() + SIZE;",
+        "            default: return TITLE;",
+        "        }",
+        "    }",
+        "}");
+
+    @Test
+    public void abiOfStubsMatchesFullCompilation() throws IOException {
+        final Path dir = Files.createTempDirectory("JavacWrapperTest");
+        final Path libSrc = writeSource(dir.resolve("lib-src"), "lib/Base.java", LIB);
+
+        final Map<String, ClassFileInfo> full =
+            nonLocalClasses(compile(libSrc, dir.resolve("lib"), false, List.of()));
+        final Map<String, ClassFileInfo> stubs =
+            nonLocalClasses(compile(libSrc, dir.resolve("lib-abi"), true, List.of()));
+
+        assertEquals(full.keySet(), stubs.keySet());
+        for (final ClassFileInfo info : full.values()) {
+            assertEquals(info.getAbiHash(), stubs.get(info.getName()).getAbiHash(),
+                info.getName());
+            assertEquals(info.getConstantsHash(), stubs.get(info.getName()).getConstantsHash(),
+                info.getName());
+        }
+    }
+
+    @Test
+    public void compilationAgainstStubsIsIdentical() throws IOException {
+        final Path dir = Files.createTempDirectory("JavacWrapperTest");
+        final Path libSrc = writeSource(dir.resolve("lib-src"), "lib/Base.java", LIB);
+        final Path appSrc = writeSource(dir.resolve("app-src"), "app/App.java", APP);
+
+        final Path lib = compile(libSrc, dir.resolve("lib"), false, List.of());
+        final Path libAbi = compile(libSrc, dir.resolve("lib-abi"), true, List.of());
+
+        final Path app = compile(appSrc, dir.resolve("app"), false, List.of(lib));
+        final Path appWithStubs = compile(appSrc, dir.resolve("app-stubs"), false, List.of(libAbi));
+
+        final List<Path> classFiles = files(app);
+        assertEquals(classFiles.stream().map(app::relativize).collect(Collectors.toList()),
+            files(appWithStubs).stream().map(appWithStubs::relativize)
+                .collect(Collectors.toList()));
+        for (final Path classFile : classFiles) {
+            assertArrayEquals(Files.readAllBytes(classFile),
+                Files.readAllBytes(appWithStubs.resolve(app.relativize(classFile))),
+                classFile.toString());
+        }
+    }
+
+    private static Path writeSource(final Path srcDir, final String file, final String source)
+        throws IOException {
+
+        final Path srcFile = srcDir.resolve(file);
+        Files.createDirectories(srcFile.getParent());
+        Files.write(srcFile, List.of(source));
+        return srcDir;
+    }
+
+    private static Path compile(final Path srcDir, final Path buildDir, final boolean stubs,
+                                final List<Path> classpath) throws IOException {
+
+        Files.createDirectories(buildDir);
+        new JavacWrapper(buildDir, stubs).compile(files(srcDir),
+            new CompileParameters(classpath, false, null, new ClassOutputs()), classpath);
+        return buildDir;
+    }
+
+    private static Map<String, ClassFileInfo> nonLocalClasses(final Path buildDir)
+        throws IOException {
+
+        return files(buildDir).stream()
+            .map(ClassFileInfo::read)
+            .filter(info -> !info.isLocal())
+            .collect(Collectors.toMap(ClassFileInfo::getName, Function.identity()));
+    }
+
+    private static List<Path> files(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+}
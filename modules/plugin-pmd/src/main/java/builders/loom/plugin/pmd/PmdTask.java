@@ -176,8 +176,8 @@ public class PmdTask extends AbstractModuleTask implements RepositoryPathAware {
 
         final Path srcDir = Paths.get(sourceTreeProduct.get().getProperty("srcDir"));
 
-        final List<DataSource> files = Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
+        final List<DataSource> files = getFileTreeSnapshotService().snapshot(srcDir).getFiles()
+            .stream()
             .map(p -> new FileDataSource(p.toFile()))
             .collect(Collectors.toList());
 
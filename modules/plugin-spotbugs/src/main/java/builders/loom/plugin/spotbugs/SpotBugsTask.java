@@ -18,11 +18,8 @@ package builders.loom.plugin.spotbugs;
 
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -96,7 +93,7 @@ public class SpotBugsTask extends AbstractModuleTask {
         final List<String> classFiles =
             useProduct(compilationProductId, Product.class)
                 .map(p -> Paths.get(p.getProperty("classesDir")))
-                .map(SpotBugsTask::getClassesToScan)
+                .map(this::getClassesToScan)
                 .orElse(Collections.emptyList());
 
         if (classFiles.isEmpty()) {
@@ -108,9 +105,7 @@ public class SpotBugsTask extends AbstractModuleTask {
 
         final Path srcDir = Paths.get(product.getProperty("srcDir"));
 
-        final List<Path> srcFiles = Files
-            .find(srcDir, Integer.MAX_VALUE, (path, attr) -> attr.isRegularFile())
-            .collect(Collectors.toList());
+        final List<Path> srcFiles = getFileTreeSnapshotService().snapshot(srcDir).getFiles();
 
         final Path reportDir =
             FileUtil.createOrCleanDirectory(resolveReportDir("spotbugs", compileTarget));
@@ -129,25 +124,11 @@ public class SpotBugsTask extends AbstractModuleTask {
         return TaskResult.done(newProduct(reportDir, reportOutputDescription));
     }
 
-    private static List<String> getClassesToScan(final Path classesDir) {
-        try {
-            return Files
-                .find(classesDir, Integer.MAX_VALUE, (path, attr) -> filterClassFiles(attr, path))
-                .map(file -> file.toAbsolutePath().normalize().toString())
-                .collect(Collectors.toList());
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
-
-    private static boolean filterClassFiles(final BasicFileAttributes attr, final Path path) {
-        if (!attr.isRegularFile()) {
-            return false;
-        }
-
-        final String fileName = path.getFileName().toString();
-
-        return fileName.endsWith(".class");
+    private List<String> getClassesToScan(final Path classesDir) {
+        return getFileTreeSnapshotService().snapshot(classesDir).getFiles().stream()
+            .filter(file -> file.getFileName().toString().endsWith(".class"))
+            .map(file -> file.toAbsolutePath().normalize().toString())
+            .collect(Collectors.toList());
     }
 
     private List<Path> calcClasspath() throws InterruptedException {
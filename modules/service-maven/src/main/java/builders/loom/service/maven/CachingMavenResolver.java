@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import builders.loom.api.DependencyScope;
 import builders.loom.api.DownloadProgressEmitter;
 import builders.loom.api.service.ResolvedArtifact;
+import builders.loom.util.FileUtil;
 import builders.loom.util.Hashing;
 import builders.loom.util.serialize.Record;
 import builders.loom.util.serialize.SimpleSerializer;
@@ -101,6 +102,9 @@ public class CachingMavenResolver implements DependencyResolver {
             return Optional.empty();
         }
 
+        // keep the entry from being garbage collected
+        FileUtil.touch(file);
+
         return Optional.of(artifacts);
     }
 
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hashing of a class output directory and of a large file -- compared to the previous
+ * implementation (sequential SHA-256, new digest per file, 8 KB heap buffer).
+ * <p>
+ * Run with {@code ./gradlew :modules:util:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@SuppressWarnings("checkstyle:magicnumber")
+public class HasherBenchmark {
+
+    @Param({"murmur3-128", "SHA-256"})
+    private String algorithm;
+
+    @Param("5000")
+    private int fileCount;
+
+    private Path dir;
+    private Path largeFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final Random random = new Random(0);
+        dir = Files.createTempDirectory("HasherBenchmark");
+
+        for (int i = 0; i < fileCount; i++) {
+            final byte[] data = new byte[1024 + random.nextInt(8 * 1024)];
+            random.nextBytes(data);
+            final Path file = dir.resolve("classes/pkg" + i % 50 + "/Class" + i + ".class");
+            Files.createDirectories(file.getParent());
+            Files.write(file, data);
+        }
+
+        final byte[] data = new byte[64 * 1024 * 1024];
+        random.nextBytes(data);
+        largeFile = Files.write(dir.resolve("large.jar"), data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.deleteDirectoryRecursively(dir, true);
+    }
+
+    @Benchmark
+    public String legacyDirectoryChecksum() throws IOException {
+        return LegacyHashing.contentChecksum(dir.resolve("classes"));
+    }
+
+    /**
+     * Uses the algorithm of the system property {@code loom.hash.algorithm}.
+     */
+    @Benchmark
+    public String directoryChecksum() {
+        return ProductChecksumUtil.recursiveContentChecksum(dir.resolve("classes"));
+    }
+
+    @Benchmark
+    public byte[] legacyLargeFile() {
+        return LegacyHashing.hashFile(largeFile);
+    }
+
+    @Benchmark
+    public byte[] largeFile() {
+        return new Hasher(Hasher.newHashFunction(algorithm)).putFile(largeFile).hash();
+    }
+
+    private static final class LegacyHashing {
+
+        private LegacyHashing() {
+        }
+
+        static String contentChecksum(final Path baseDir) throws IOException {
+            final List<Path> files = Files
+                .find(baseDir, Integer.MAX_VALUE, (p, attr) -> attr.isRegularFile())
+                .sorted(Comparator.comparing(Path::toString))
+                .collect(Collectors.toList());
+
+            final MessageDigest digest = newDigest();
+            for (final Path file : files) {
+                digest.update(baseDir.relativize(file).toString()
+                    .getBytes(StandardCharsets.UTF_8));
+                digest.update(hashFile(file));
+            }
+            return Hasher.toHex(digest.digest());
+        }
+
+        static byte[] hashFile(final Path file) {
+            final MessageDigest digest = newDigest();
+            final byte[] buf = new byte[8192];
+            int cnt;
+
+            try (InputStream in = Files.newInputStream(file)) {
+                while ((cnt = in.read(buf)) != -1) {
+                    digest.update(buf, 0, cnt);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return digest.digest();
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of file digests -- keyed by the absolute path, size, modification time and
+ * file key (inode) of a file. If these attributes are unchanged, the stored digest is returned
+ * without reading the file.
+ * <p>
+ * Digests of files modified within the last seconds are not cached, as a subsequent
+ * modification might not change the modification time. With the system property
+ * {@code loom.digest_cache.verify} (percentage of hits) cached digests are verified by hashing
+ * the file again.
+ */
+public final class FileDigestCache implements AutoCloseable {
+
+    private static final long RACY_WINDOW_MILLIS = 2000;
+    private static final long MAX_UNUSED_DAYS = 30;
+    private static final int PERCENT = 100;
+
+    private static final AtomicReference<FileDigestCache> INSTALLED = new AtomicReference<>();
+
+    private final Path cacheFile;
+    private final int verifyPercent;
+    private final long today = LocalDate.now().toEpochDay();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private volatile boolean dirty;
+
+    private FileDigestCache(final Path cacheFile, final int verifyPercent) {
+        this.cacheFile = cacheFile;
+        this.verifyPercent = verifyPercent;
+    }
+
+    public static FileDigestCache open(final Path cacheFile) {
+        return open(cacheFile, Integer.getInteger("loom.digest_cache.verify", 0));
+    }
+
+    static FileDigestCache open(final Path cacheFile, final int verifyPercent) {
+        final FileDigestCache cache = new FileDigestCache(cacheFile, verifyPercent);
+        cache.load();
+        return cache;
+    }
+
+    /**
+     * Digest of the file content ({@code new Hasher().putFile(file).hash()}) -- served by the
+     * installed cache, if any.
+     */
+    public static byte[] digestOf(final Path file) {
+        final FileDigestCache cache = INSTALLED.get();
+        return cache != null ? cache.digest(file) : hashFile(file);
+    }
+
+    /**
+     * @see #digestOf(Path)
+     * @param attributes the (previously read) attributes of the file
+     */
+    public static byte[] digestOf(final Path file, final BasicFileAttributes attributes) {
+        final FileDigestCache cache = INSTALLED.get();
+        return cache != null ? cache.digest(file, attributes) : hashFile(file);
+    }
+
+    /**
+     * Serves {@link #digestOf(Path)} by this cache until it is closed.
+     */
+    public void install() {
+        if (!INSTALLED.compareAndSet(null, this)) {
+            throw new IllegalStateException("Another digest cache is already installed");
+        }
+    }
+
+    private void load() {
+        if (Files.exists(cacheFile)) {
+            CacheFile.read(cacheFile, entries);
+
+            // record the access for the cache garbage collection
+            FileUtil.touch(cacheFile);
+        }
+    }
+
+    public byte[] digest(final Path file) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return digest(file, attributes);
+    }
+
+    public byte[] digest(final Path file, final BasicFileAttributes attributes) {
+        final String key = file.toAbsolutePath().normalize().toString();
+        final Entry entry = entries.get(key);
+        final boolean hit = entry != null && entry.matches(attributes);
+        final boolean verify = hit && verifyPercent > 0
+            && ThreadLocalRandom.current().nextInt(PERCENT) < verifyPercent;
+
+        return hit
+            ? cachedDigest(file, key, entry, verify)
+            : computeDigest(file, key, attributes);
+    }
+
+    private byte[] cachedDigest(final Path file, final String key, final Entry entry,
+                                final boolean verify) {
+        hits.increment();
+
+        if (entry.lastUsed != today) {
+            entries.put(key, entry.usedAt(today));
+            dirty = true;
+        }
+
+        final byte[] digest = verify ? hashFile(file) : entry.digest;
+        if (!Arrays.equals(entry.digest, digest)) {
+            mismatches.increment();
+            entries.remove(key);
+            dirty = true;
+        }
+
+        return digest;
+    }
+
+    private byte[] computeDigest(final Path file, final String key,
+                                 final BasicFileAttributes attributes) {
+        misses.increment();
+        final byte[] digest = hashFile(file);
+
+        if (isCacheable(file, attributes)) {
+            entries.put(key, new Entry(attributes, today, digest));
+            dirty = true;
+        }
+
+        return digest;
+    }
+
+    // the file must not have been modified recently or while it was hashed
+    private static boolean isCacheable(final Path file, final BasicFileAttributes attributes) {
+        final long modified = attributes.lastModifiedTime().toMillis();
+        final boolean racy = modified > System.currentTimeMillis() - RACY_WINDOW_MILLIS;
+        return !racy && isUnchanged(file, attributes);
+    }
+
+    private static boolean isUnchanged(final Path file, final BasicFileAttributes attributes) {
+        try {
+            return new Entry(Files.readAttributes(file, BasicFileAttributes.class), 0, null)
+                .matches(attributes);
+        } catch (final NoSuchFileException e) {
+            return false;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] hashFile(final Path file) {
+        return new Hasher().putFile(file).hash();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of cached digests that turned out to be wrong when verified.
+     */
+    public long getMismatches() {
+        return mismatches.sum();
+    }
+
+    @Override
+    public void close() {
+        INSTALLED.compareAndSet(this, null);
+
+        if (dirty) {
+            entries.values().removeIf(e -> e.lastUsed < today - MAX_UNUSED_DAYS);
+            try {
+                CacheFile.write(cacheFile, new HashMap<>(entries));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Format of the cache file -- a header (magic number, hash algorithm) followed by the
+     * entries. The file is memory mapped for reading and replaced atomically when written.
+     */
+    private static final class CacheFile {
+
+        private static final int MAGIC = 0x4c444331;
+
+        // mapped files can't be replaced on Windows until the mapping has been garbage collected
+        private static final boolean MAP_FILE = !SystemUtil.isWindowsOS();
+
+        private CacheFile() {
+        }
+
+        // a corrupt cache or one of another hash algorithm is ignored
+        static void read(final Path cacheFile, final Map<String, Entry> entries) {
+            try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+                final ByteBuffer buf = MAP_FILE
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    : ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+
+                final boolean compatible =
+                    buf.getInt() == MAGIC && Hasher.ALGORITHM.equals(readString(buf));
+                final int entryCount = compatible ? buf.getInt() : 0;
+
+                for (int i = 0; i < entryCount; i++) {
+                    final String path = readString(buf);
+                    final Entry entry = new Entry(buf.getLong(), buf.getLong(), readString(buf),
+                        buf.getLong(), readBytes(buf));
+                    entries.put(path, entry);
+                }
+            } catch (final BufferUnderflowException | IllegalStateException e) {
+                entries.clear();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static void write(final Path cacheFile, final Map<String, Entry> entries)
+            throws IOException {
+            Files.createDirectories(cacheFile.getParent());
+            final Path tmpFile = Files.createTempFile(cacheFile.getParent(),
+                cacheFile.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmpFile)))) {
+
+                out.writeInt(MAGIC);
+                writeString(out, Hasher.ALGORITHM);
+
+                out.writeInt(entries.size());
+                for (final Map.Entry<String, Entry> e : entries.entrySet()) {
+                    final Entry entry = e.getValue();
+                    writeString(out, e.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.modified);
+                    writeString(out, entry.fileKey);
+                    out.writeLong(entry.lastUsed);
+                    out.writeInt(entry.digest.length);
+                    out.write(entry.digest);
+                }
+            }
+
+            Files.move(tmpFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private static void writeString(final DataOutputStream out, final String str)
+            throws IOException {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static String readString(final ByteBuffer buf) {
+            return new String(readBytes(buf), StandardCharsets.UTF_8);
+        }
+
+        private static byte[] readBytes(final ByteBuffer buf) {
+            final int length = buf.getInt();
+            if (length < 0 || length > buf.remaining()) {
+                throw new IllegalStateException("Invalid length: " + length);
+            }
+            final byte[] bytes = new byte[length];
+            buf.get(bytes);
+            return bytes;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+        private final long lastUsed;
+        private final byte[] digest;
+
+        Entry(final long size, final long modified, final String fileKey, final long lastUsed,
+              final byte[] digest) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.lastUsed = lastUsed;
+            this.digest = digest;
+        }
+
+        Entry(final BasicFileAttributes attributes, final long lastUsed, final byte[] digest) {
+            this(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                Objects.toString(attributes.fileKey(), ""), lastUsed, digest);
+        }
+
+        boolean matches(final BasicFileAttributes attributes) {
+            return size == attributes.size()
+                && modified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                && fileKey.equals(Objects.toString(attributes.fileKey(), ""));
+        }
+
+        Entry usedAt(final long day) {
+            return new Entry(size, modified, fileKey, day, digest);
+        }
+
+    }
+
+}
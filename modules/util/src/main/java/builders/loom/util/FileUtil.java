@@ -22,10 +22,12 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 public final class FileUtil {
@@ -42,6 +44,20 @@ public final class FileUtil {
         Files.write(file, data.getBytes(StandardCharsets.UTF_8), options);
     }
 
+    /**
+     * Sets the modification time of the given file to now -- used to record the last access
+     * of cache files. Missing files are ignored.
+     */
+    public static void touch(final Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final NoSuchFileException e) {
+            // ignore
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public static Path createOrCleanDirectory(final Path directory) throws IOException {
         if (Files.notExists(directory)) {
             return Files.createDirectories(directory);
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Algorithm of a {@link Hasher} -- stateful and not thread-safe.
+ */
+public interface HashFunction {
+
+    void update(byte data);
+
+    void update(byte[] data, int off, int len);
+
+    /**
+     * Consumes the remaining bytes of the buffer.
+     */
+    void update(ByteBuffer data);
+
+    /**
+     * Completes the hash computation and resets this function for reuse.
+     */
+    byte[] digest();
+
+}
@@ -17,33 +17,91 @@
 package builders.loom.util;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.stream.Stream;
 
+/**
+ * Hashes data with the algorithm configured by the system property {@code loom.hash.algorithm}
+ * -- {@value Murmur3HashFunction#NAME} (default, fast but non-cryptographic) or the name of a
+ * {@link MessageDigest} algorithm (e.g. SHA-256).
+ * <p>
+ * Hash functions are reused (one idle instance per thread) -- a Hasher must not be used
+ * anymore after its hash has been computed.
+ */
 public class Hasher {
 
+    public static final String ALGORITHM =
+        System.getProperty("loom.hash.algorithm", Murmur3HashFunction.NAME);
+
     private static final int MASK = 0xff;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    private static final long MAX_MAP_SIZE = Integer.MAX_VALUE;
+
+    // mapped files can't be deleted on Windows until the mapping has been garbage collected
+    private static final boolean MAP_FILES = !SystemUtil.isWindowsOS();
+
+    private static final ThreadLocal<HashFunction> IDLE_FUNCTION = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private final boolean reusable;
+    private HashFunction hashFunction;
+
+    public Hasher() {
+        reusable = true;
+        hashFunction = IDLE_FUNCTION.get();
+        if (hashFunction == null) {
+            hashFunction = newHashFunction(ALGORITHM);
+        } else {
+            IDLE_FUNCTION.set(null);
+        }
+    }
+
+    public Hasher(final HashFunction hashFunction) {
+        reusable = false;
+        this.hashFunction = hashFunction;
+    }
+
+    public static HashFunction newHashFunction(final String algorithm) {
+        if (Murmur3HashFunction.NAME.equalsIgnoreCase(algorithm)) {
+            return new Murmur3HashFunction();
+        }
+
+        try {
+            return new MessageDigestHashFunction(MessageDigest.getInstance(algorithm));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unknown hash algorithm: " + algorithm, e);
+        }
+    }
 
-    private final MessageDigest messageDigest = getMessageDigest();
+    private HashFunction hashFunction() {
+        if (hashFunction == null) {
+            throw new IllegalStateException("Hash already computed");
+        }
+        return hashFunction;
+    }
 
     public Hasher putByte(final byte data) {
-        messageDigest.update(data);
+        hashFunction().update(data);
         return this;
     }
 
     public Hasher putBytes(final byte[] data) {
-        messageDigest.update(data);
+        hashFunction().update(data, 0, data.length);
         return this;
     }
 
     public Hasher putBytes(final byte[] data, final int off, final int len) {
-        messageDigest.update(data, off, len);
+        hashFunction().update(data, off, len);
         return this;
     }
 
@@ -65,18 +123,35 @@ public class Hasher {
     }
 
     public Hasher putString(final String data) {
-        messageDigest.update(data.getBytes(StandardCharsets.UTF_8));
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        hashFunction().update(bytes, 0, bytes.length);
         return this;
     }
 
-    @SuppressWarnings("checkstyle:magicnumber")
+    /**
+     * Hashes the content of the file -- large files are memory mapped, others are read through
+     * a (reused) direct buffer.
+     */
     public Hasher putFile(final Path f) {
-        final byte[] buf = new byte[8192];
-        int cnt;
-
-        try (final InputStream in = Files.newInputStream(f)) {
-            while ((cnt = in.read(buf)) != -1) {
-                messageDigest.update(buf, 0, cnt);
+        final HashFunction function = hashFunction();
+
+        try (FileChannel channel = FileChannel.open(f, StandardOpenOption.READ)) {
+            final long size = channel.size();
+
+            if (MAP_FILES && size >= MAP_THRESHOLD) {
+                for (long pos = 0; pos < size; pos += MAX_MAP_SIZE) {
+                    final MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                        pos, Math.min(MAX_MAP_SIZE, size - pos));
+                    function.update(buf);
+                }
+            } else {
+                final ByteBuffer buf = READ_BUFFER.get();
+                buf.clear();
+                while (channel.read(buf) != -1) {
+                    buf.flip();
+                    function.update(buf);
+                    buf.clear();
+                }
             }
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
@@ -86,14 +161,19 @@ public class Hasher {
     }
 
     public byte[] hash() {
-        return messageDigest.digest();
+        final byte[] hash = hashFunction().digest();
+        if (reusable) {
+            IDLE_FUNCTION.set(hashFunction);
+        }
+        hashFunction = null;
+        return hash;
     }
 
     public String hashHex() {
-        return bytesToHex(hash());
+        return toHex(hash());
     }
 
-    private static String bytesToHex(final byte[] hash) {
+    public static String toHex(final byte[] hash) {
         final StringBuilder hexString = new StringBuilder();
         for (final byte aHash : hash) {
             final String hex = Integer.toHexString(MASK & aHash);
@@ -105,12 +185,4 @@ public class Hasher {
         return hexString.toString();
     }
 
-    private static MessageDigest getMessageDigest() {
-        try {
-            return MessageDigest.getInstance("SHA-256");
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
-        }
-    }
-
 }
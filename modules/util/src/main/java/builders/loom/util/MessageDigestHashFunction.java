@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * Hash function of a {@link MessageDigest} algorithm (e.g. SHA-256).
+ */
+final class MessageDigestHashFunction implements HashFunction {
+
+    private final MessageDigest messageDigest;
+
+    MessageDigestHashFunction(final MessageDigest messageDigest) {
+        this.messageDigest = messageDigest;
+    }
+
+    @Override
+    public void update(final byte data) {
+        messageDigest.update(data);
+    }
+
+    @Override
+    public void update(final byte[] data, final int off, final int len) {
+        messageDigest.update(data, off, len);
+    }
+
+    @Override
+    public void update(final ByteBuffer data) {
+        messageDigest.update(data);
+    }
+
+    @Override
+    public byte[] digest() {
+        return messageDigest.digest();
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 128 bit MurmurHash3 (x64 variant, seed 0) -- a fast, non-cryptographic hash function.
+ * The digest is the same as Guava's {@code Hashing.murmur3_128()}.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class Murmur3HashFunction implements HashFunction {
+
+    static final String NAME = "murmur3-128";
+
+    private static final int BLOCK_SIZE = 16;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final ByteBuffer tail = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long h1;
+    private long h2;
+    private long length;
+
+    @Override
+    public void update(final byte data) {
+        tail.put(data);
+        length++;
+
+        if (!tail.hasRemaining()) {
+            processTail();
+        }
+    }
+
+    @Override
+    public void update(final byte[] data, final int off, final int len) {
+        update(ByteBuffer.wrap(data, off, len));
+    }
+
+    @Override
+    public void update(final ByteBuffer data) {
+        final ByteOrder order = data.order();
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        length += data.remaining();
+
+        if (tail.position() > 0) {
+            while (tail.hasRemaining() && data.hasRemaining()) {
+                tail.put(data.get());
+            }
+            if (!tail.hasRemaining()) {
+                processTail();
+            }
+        }
+
+        while (data.remaining() >= BLOCK_SIZE) {
+            mix(data.getLong(), data.getLong());
+        }
+
+        tail.put(data);
+        data.order(order);
+    }
+
+    private void processTail() {
+        tail.flip();
+        mix(tail.getLong(), tail.getLong());
+        tail.clear();
+    }
+
+    private void mix(final long k1, final long k2) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    @Override
+    public byte[] digest() {
+        long k1 = 0;
+        long k2 = 0;
+        final int remaining = tail.position();
+        for (int i = remaining - 1; i >= 0; i--) {
+            final long b = tail.get(i) & 0xffL;
+            if (i >= 8) {
+                k2 |= b << ((i - 8) * 8);
+            } else {
+                k1 |= b << (i * 8);
+            }
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        final byte[] result = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(h1).putLong(h2).array();
+
+        h1 = 0;
+        h2 = 0;
+        length = 0;
+        tail.clear();
+
+        return result;
+    }
+
+    private static long mixK1(final long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(final long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(final long k) {
+        long h = k;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
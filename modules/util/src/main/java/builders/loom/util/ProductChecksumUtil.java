@@ -25,6 +25,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class ProductChecksumUtil {
@@ -37,18 +39,45 @@ public final class ProductChecksumUtil {
             final Stream<Path> pathStream =
                 Files.find(path, Integer.MAX_VALUE, (p, attr) -> attr.isRegularFile());
 
-            return contentChecksum(pathStream);
+            return contentChecksum(path, pathStream);
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Checksum of the file contents and names -- independent of the directory the files are
+     * located in.
+     */
     public static String contentChecksum(final Stream<Path> files) {
-        final Hasher hasher = new Hasher();
-        files
+        return contentChecksum(files, Path::getFileName);
+    }
+
+    /**
+     * Checksum of the file contents and paths (relative to the given base directory) --
+     * independent of the location of the base directory.
+     */
+    public static String contentChecksum(final Path baseDir, final Stream<Path> files) {
+        return contentChecksum(files, baseDir::relativize);
+    }
+
+    // files are hashed in parallel (common fork-join pool) -- combined in order
+    private static String contentChecksum(final Stream<Path> files,
+                                          final Function<Path, Path> nameFunction) {
+        final List<Path> sortedFiles = files
             .sorted(Comparator.comparing(Path::toString))
-            .map(p -> new Hasher().putFile(p).hash())
-            .forEach(hasher::putBytes);
+            .collect(Collectors.toList());
+
+        final List<byte[]> fileHashes = sortedFiles.parallelStream()
+            .map(FileDigestCache::digestOf)
+            .collect(Collectors.toList());
+
+        final Hasher hasher = new Hasher();
+        for (int i = 0; i < sortedFiles.size(); i++) {
+            hasher
+                .putString(nameFunction.apply(sortedFiles.get(i)).toString())
+                .putBytes(fileHashes.get(i));
+        }
 
         return hasher.hashHex();
     }
@@ -32,7 +32,7 @@ public final class SkipChecksumUtil {
     }
 
     public static Supplier<String> file(final Path file) {
-        return () -> new Hasher().putFile(file).hashHex();
+        return () -> Hasher.toHex(FileDigestCache.digestOf(file));
     }
 
     public static Supplier<String> always() {
@@ -40,7 +40,7 @@ public final class SystemUtil {
         return determineGenericBaseDir();
     }
 
-    private static boolean isWindowsOS() {
+    static boolean isWindowsOS() {
         final String osName = System.getProperty("os.name");
         return osName != null && osName.startsWith("Windows");
     }
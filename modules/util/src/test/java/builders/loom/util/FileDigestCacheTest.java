@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+public class FileDigestCacheTest {
+
+    @Test
+    public void reuseDigestOfUnchangedFile() throws Exception {
+        final Path dir = Files.createTempDirectory("FileDigestCacheTest");
+        final Path cacheFile = dir.resolve("digest-cache");
+        final Path file = dir.resolve("Foo.class");
+        final FileTime modified = FileTime.from(Instant.now().minusSeconds(60));
+        Files.write(file, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(file, modified);
+
+        final byte[] digest = new Hasher().putFile(file).hash();
+
+        try (FileDigestCache cache = FileDigestCache.open(cacheFile)) {
+            assertArrayEquals(digest, cache.digest(file));
+            assertEquals(1, cache.getMisses());
+        }
+
+        try (FileDigestCache cache = FileDigestCache.open(cacheFile)) {
+            cache.install();
+            assertArrayEquals(digest, FileDigestCache.digestOf(file));
+            assertEquals(1, cache.getHits());
+
+            // same size and modification time -- only found by verification
+            Files.write(file, new byte[] {3, 2, 1});
+            Files.setLastModifiedTime(file, modified);
+            assertArrayEquals(digest, cache.digest(file));
+        }
+
+        try (FileDigestCache cache = FileDigestCache.open(cacheFile, 100)) {
+            assertArrayEquals(new Hasher().putFile(file).hash(), cache.digest(file));
+            assertEquals(1, cache.getMismatches());
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package builders.loom.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class HasherTest {
+
+    @Test
+    public void murmur3() {
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a",
+            new Hasher(Hasher.newHashFunction("murmur3-128"))
+                .putString("The quick brown fox jumps over the lazy dog").hashHex());
+    }
+
+    @Test
+    public void fileEqualsChunks() throws Exception {
+        final byte[] data = new byte[3 * 1024 * 1024 + 7];
+        new Random(1).nextBytes(data);
+        final Path file = Files.createTempFile("HasherTest", ".bin");
+        Files.write(file, data);
+
+        final Hasher hasher = new Hasher();
+        for (int off = 0; off < data.length; off += 1000) {
+            hasher.putBytes(data, off, Math.min(1000, data.length - off));
+        }
+
+        assertEquals(hasher.hashHex(), new Hasher().putFile(file).hashHex());
+        Files.delete(file);
+    }
+
+}
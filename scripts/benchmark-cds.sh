@@ -0,0 +1,57 @@
+#!/usr/bin/env sh
+
+# Compares the startup of Loom without and with the class data sharing archive
+# (created by loom --generate-cds) -- by timing no-op builds of a project.
+#
+# Usage: benchmark-cds.sh <project dir> [runs] [product...]
+#
+# The project has to contain the loom launcher script of an installed Loom version.
+# An existing archive of that version is replaced.
+
+set -e
+
+if [ $# -lt 1 ]; then
+    echo "Usage: $0 <project dir> [runs] [product...]" >&2
+    exit 1
+fi
+
+project_dir="$(cd "$1" && pwd)"
+runs=${2:-8}
+shift
+[ $# -gt 0 ] && shift
+products=${*:-build}
+
+loom_version=$(sed -n 's/^loom_version=//p' "$project_dir/loom")
+loom_cds="${LOOM_USER_HOME:-$HOME/.loom}/library/loom-$loom_version/loom.jsa"
+
+# prints the wall time (ms) of each run and the average
+measure() {
+    total=0
+    i=0
+    while [ $i -lt "$runs" ]; do
+        start=$(date +%s%N)
+        "$project_dir/loom" $products >/dev/null
+        end=$(date +%s%N)
+        ms=$(( (end - start) / 1000000 ))
+        printf ' %d' $ms
+        total=$((total + ms))
+        i=$((i + 1))
+    done
+    echo " -- average $((total / runs)) ms"
+}
+
+# make sure all following builds are no-op builds
+"$project_dir/loom" $products >/dev/null
+
+if [ -e "$loom_cds" ]; then
+    chmod u+w "$loom_cds"
+    rm "$loom_cds"
+fi
+
+printf 'without archive:'
+measure
+
+"$project_dir/loom" --generate-cds $products >/dev/null 2>&1
+
+printf 'with archive:   '
+measure
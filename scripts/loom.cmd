@@ -47,8 +47,13 @@ rem download Loom Installer
 if ERRORLEVEL 1 goto error
 
 :launch
+rem use the class data sharing archive (created by loom --generate-cds)
+set CDS=%LOOM_USER_HOME%\library\loom-%VERSION%\loom.jsa
+set CDS_OPTS=
+if exist "%CDS%" set CDS_OPTS=-XX:SharedArchiveFile="%CDS%"
+
 rem run Loom
-"%JAVACMD%" %LOOM_OPTS% -Dloom.project_dir=%PROJECT_DIR% -jar %LIB% %*
+"%JAVACMD%" %CDS_OPTS% %LOOM_OPTS% -Dloom.project_dir=%PROJECT_DIR% -jar %LIB% %*
 if ERRORLEVEL 1 goto error
 goto end
 